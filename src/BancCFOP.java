@@ -0,0 +1,79 @@
+import java.awt.Color;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import org.kociemba.twophase.MicroBanc;
+
+/**
+ * Banc d’essai des étapes CFOP de Solver : croix, F2L, OLL et PLL
+ * Chaque étape est mesurée seule, à partir des états atteints par les étapes précédentes
+ * sur un corpus de mélanges tirés avec une graine fixe (la remise en état est hors mesure)
+ *
+ * Les options sont celles de MicroBanc. Solver lit F2L.txt, OLL.txt et PLL.txt comme ressources :
+ * le dossier src doit être dans le classpath
+ */
+class BancCFOP {
+
+	static final long GRAINE = 42;
+	static final int MELANGES = 64;
+
+	interface Etape {
+		void executer(Solver solver) throws Exception;
+	}
+
+	public static void main(String[] args) throws Exception {
+		JButton[][] face = new JButton[6][9];
+		for(int i = 0; i < 6; i++) {
+			for(int j = 0; j < 9; j++)
+				face[i][j] = new JButton();
+		}
+		Color[] colors = {Color.white, Color.yellow, Color.green, Color.blue, new Color(255, 128, 0), Color.red, Color.lightGray};
+		Solver solver = new Solver(face, new JLabel(), new JLabel(), colors);
+		if(!solver.loaded)
+			throw new IllegalStateException("F2L.txt, OLL.txt ou PLL.txt introuvable dans le classpath");
+
+		String[] noms = {"Solver.solveCross", "Solver.F2L", "Solver.OLL", "Solver.PLL"};
+		Etape[] etapes = {Solver::solveCross, Solver::F2L, Solver::OLL, Solver::PLL};
+
+		// états du cube avant chaque étape, pour chaque mélange
+		char[][][][] avant = new char[etapes.length][MELANGES][][];
+		solver.rand = new Random(GRAINE);
+		for(int k = 0; k < MELANGES; k++) {
+			solver.generateRandomScramble();
+			for(int e = 0; e < etapes.length; e++) {
+				avant[e][k] = copie(solver.c);
+				etapes[e].executer(solver);
+			}
+			if(!solver.isSolved())
+				throw new IllegalStateException("mélange " + k + " non résolu par CFOP");
+		}
+
+		Map<String, String> parametres = new LinkedHashMap<>();
+		parametres.put("graine", Long.toString(GRAINE));
+		parametres.put("melanges", Integer.toString(MELANGES));
+
+		MicroBanc banc = new MicroBanc(BancCFOP.class);
+		for(int e = 0; e < etapes.length; e++) {
+			char[][][] etats = avant[e];
+			Etape etape = etapes[e];
+			banc.ajouter(noms[e], parametres, i -> {
+				solver.restore(etats[i % MELANGES]);
+				solver.solution.clear();
+			}, (i, puits) -> {
+				etape.executer(solver);
+				puits.consommer(solver.solution.size());
+			});
+		}
+		banc.lancer(args);
+		System.exit(0);
+	}
+
+	static char[][] copie(char[][] c) {
+		char[][] d = new char[c.length][];
+		for(int i = 0; i < c.length; i++)
+			d[i] = c[i].clone();
+		return d;
+	}
+}
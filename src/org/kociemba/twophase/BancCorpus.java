@@ -0,0 +1,278 @@
+package org.kociemba.twophase;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Banc d’essai des joueurs sur un grand corpus de cubes tirés avec une graine fixe
+ * Là où la compétition ne joue que trois mélanges, ce banc donne la distribution des performances :
+ * latences p50, p90, p99 et maximale, nœuds par seconde, histogramme des longueurs de solution
+ * et taux d’échec (échec du moteur, exception ou solution qui ne résout pas le cube)
+ *
+ * Options : -n nombre de cubes par corpus, -graine graine du tirage,
+ * -melange longueurs des mélanges séparées par des virgules (sans cette option : cubes aléatoires
+ * uniformes, tirés par Tools.randomCube), -distance distances optimales exactes séparées par des virgules
+ * (corpus de CorpusDistance, mis en cache dans le dossier courant), -joueurs expression régulière qui choisit les joueurs,
+ * -rf json|csv format du rapport, -rff fichier du rapport,
+ * -historique fichier où ajouter les mesures de chaque cube (voir Historique)
+ */
+public final class BancCorpus {
+
+	static final long GRAINE = 42;
+	static final int CUBES = 1000;
+
+	/**
+	 * Joueurs par défaut : les seuls qui résolvent rapidement des cubes aléatoires
+	 */
+	static final String JOUEURS = "Search|Thistlethwaite";
+
+	/**
+	 * Cubes résolus avant les mesures, pour construire les tables et laisser le JIT compiler
+	 */
+	static final int ECHAUFFEMENT = 8;
+
+	/**
+	 * Résultats d’un joueur sur un corpus
+	 */
+	static final class Serie {
+		final String joueur;
+		final String corpus;
+		final double[] tempsMs;
+		final long[] noeudsParCube;
+		final boolean[] resolus;
+		final SortedMap<Integer, Integer> longueurs = new TreeMap<>();
+		int cubes;
+		int echecs;
+		long noeuds;
+		double tempsTotalSec;
+		long coupsTotal;
+
+		Serie(String joueur, String corpus, int n) {
+			this.joueur = joueur;
+			this.corpus = corpus;
+			this.tempsMs = new double[n];
+			this.noeudsParCube = new long[n];
+			this.resolus = new boolean[n];
+		}
+
+		void ajouter(double tempsSec, RubikIA.Result r, boolean resolu) {
+			tempsMs[cubes] = tempsSec * 1e3;
+			noeudsParCube[cubes] = r != null ? r.noeuds : 0;
+			resolus[cubes++] = resolu;
+			tempsTotalSec += tempsSec;
+			if (r != null) noeuds += r.noeuds;
+			if (!resolu) {
+				echecs++;
+				return;
+			}
+			longueurs.merge(r.coups, 1, Integer::sum);
+			coupsTotal += r.coups;
+		}
+
+		/**
+		 * Quantile q des latences (rang le plus proche), en millisecondes
+		 */
+		double quantile(double q) {
+			double[] tri = Arrays.copyOf(tempsMs, cubes);
+			Arrays.sort(tri);
+			int rang = (int) Math.ceil(q * cubes) - 1;
+			return tri[Math.max(0, Math.min(cubes - 1, rang))];
+		}
+
+		double tauxEchec() {
+			return cubes == 0 ? 0 : (double) echecs / cubes;
+		}
+
+		double noeudsParSec() {
+			return tempsTotalSec > 0 ? noeuds / tempsTotalSec : 0;
+		}
+
+		double coupsMoyen() {
+			return cubes > echecs ? (double) coupsTotal / (cubes - echecs) : Double.NaN;
+		}
+	}
+
+	/**
+	 * Joueurs de ia dont le nom correspond au filtre (Search est joueur18_Search), dans l’ordre de leur numéro
+	 */
+	static Map<String, Function<CubieCube, RubikIA.Result>> joueurs(RubikIA ia, Pattern filtre) {
+		Map<String, Function<CubieCube, RubikIA.Result>> joueurs = new LinkedHashMap<>(ia.joueurs());
+		joueurs.keySet().removeIf(nom -> !filtre.matcher(nom).find());
+		if (joueurs.isEmpty())
+			throw new IllegalArgumentException("aucun joueur ne correspond à " + filtre);
+		return joueurs;
+	}
+
+	public static void main(String[] args) throws IOException {
+		int n = CUBES;
+		long graine = GRAINE;
+		int[] melanges = null, distances = null;
+		Pattern filtre = Pattern.compile(JOUEURS);
+		String format = null, fichier = null, historique = null;
+		for (int k = 0; k < args.length; k++) {
+			switch (args[k]) {
+			case "-n": n = Integer.parseInt(args[++k]); break;
+			case "-graine": graine = Long.parseLong(args[++k]); break;
+			case "-melange": melanges = Arrays.stream(args[++k].split(",")).mapToInt(Integer::parseInt).toArray(); break;
+			case "-distance": distances = Arrays.stream(args[++k].split(",")).mapToInt(Integer::parseInt).toArray(); break;
+			case "-joueurs": filtre = Pattern.compile(args[++k]); break;
+			case "-rf": format = args[++k].toLowerCase(); break;
+			case "-rff": fichier = args[++k]; break;
+			case "-historique": historique = args[++k]; break;
+			default: throw new IllegalArgumentException("option inconnue : " + args[k]);
+			}
+		}
+		if (n <= 0)
+			throw new IllegalArgumentException("nombre de cubes invalide : " + n);
+		if (distances != null)
+			for (int d : distances)
+				CorpusDistance.verifierPortee(d);
+		if (format != null && !format.equals("json") && !format.equals("csv"))
+			throw new IllegalArgumentException("format de rapport inconnu : " + format);
+		if (format == null && fichier != null)
+			format = fichier.endsWith(".csv") ? "csv" : "json";
+		if (format != null && fichier == null)
+			fichier = "banc-corpus." + format;
+
+		// corpus : un tirage par graine, identique d’une exécution à l’autre
+		Random rnd = new Random(graine);
+		Map<String, CubieCube[]> corpus = new LinkedHashMap<>();
+		RubikIA ia = new RubikIA();
+		if (distances != null) {
+			for (int d : distances)
+				corpus.put("distance" + d, CorpusDistance.charger(ia, Paths.get("."), d, n, graine,
+						Runtime.getRuntime().availableProcessors()));
+		} else if (melanges == null) {
+			corpus.put("aleatoire", Tools.randomCubes(n, -1, rnd));
+		} else {
+			for (int longueur : melanges)
+				corpus.put("melange" + longueur, Tools.randomCubes(n, longueur, rnd));
+		}
+
+		Map<String, Function<CubieCube, RubikIA.Result>> joueurs = joueurs(ia, filtre);
+
+		List<Serie> series = new ArrayList<>();
+		for (Map.Entry<String, CubieCube[]> e : corpus.entrySet()) {
+			CubieCube[] cubes = e.getValue();
+			for (Map.Entry<String, Function<CubieCube, RubikIA.Result>> j : joueurs.entrySet()) {
+				System.out.println("⏳ " + j.getKey() + " sur " + e.getKey() + " (" + n + " cubes)...");
+				for (int i = 0; i < Math.min(ECHAUFFEMENT, n); i++)
+					resoudre(j.getValue(), cubes[i]);
+				Serie s = new Serie(j.getKey(), e.getKey(), n);
+				for (CubieCube c : cubes) {
+					long t0 = System.nanoTime();
+					RubikIA.Result r = resoudre(j.getValue(), c);
+					double temps = (System.nanoTime() - t0) / 1e9;
+					boolean resolu = r != null && r.succes
+							&& RubikIA.verifierSolution(c, r.coups == 0 ? "" : r.solution);
+					s.ajouter(temps, r, resolu);
+				}
+				series.add(s);
+				System.out.println("   ✅ Terminé\n");
+			}
+		}
+
+		afficher(series);
+		if (historique != null) {
+			String execution = Historique.nouvelleExecution();
+			Map<String, String> empreintes = new HashMap<>();
+			for (Map.Entry<String, CubieCube[]> e : corpus.entrySet())
+				empreintes.put(e.getKey(), e.getKey() + "-" + Historique.empreinte(e.getValue()));
+			for (Serie s : series)
+				Historique.ajouter(Paths.get(historique), execution, empreintes.get(s.corpus), s.joueur,
+						Historique.reglages(1, ia), s.tempsMs, s.noeudsParCube, s.resolus);
+			System.out.println("\nExécution " + execution + " ajoutée à " + historique);
+		}
+		if (format != null) {
+			try (Writer w = new FileWriter(fichier)) {
+				if (format.equals("json")) ecrireJson(w, series, graine);
+				else ecrireCsv(w, series, graine);
+			}
+			System.out.println("\nRapport écrit dans " + fichier);
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * Une résolution ; une exception du moteur compte comme un échec (résultat null)
+	 */
+	private static RubikIA.Result resoudre(Function<CubieCube, RubikIA.Result> joueur, CubieCube c) {
+		try {
+			return joueur.apply(c.copy());
+		} catch (RuntimeException | StackOverflowError ex) {
+			return null;
+		}
+	}
+
+	/* ======================= AFFICHAGE ET RAPPORTS ======================= */
+
+	private static void afficher(List<Serie> series) {
+		System.out.printf(Locale.ROOT, "%-38s %-11s %6s %7s %10s %10s %10s %10s %12s %7s%n", "Joueur", "Corpus",
+				"Cubes", "Échecs", "p50 (ms)", "p90 (ms)", "p99 (ms)", "max (ms)", "nœuds/s", "coups");
+		for (Serie s : series) {
+			System.out.printf(Locale.ROOT, "%-38s %-11s %6d %6.1f%% %10.3f %10.3f %10.3f %10.3f %12s %7.2f%n",
+					s.joueur, s.corpus, s.cubes, 100 * s.tauxEchec(), s.quantile(0.5), s.quantile(0.9),
+					s.quantile(0.99), s.quantile(1), s.noeuds == 0 ? "-" : String.format(Locale.ROOT, "%.0f",
+							s.noeudsParSec()), s.coupsMoyen());
+		}
+		System.out.println("\nLongueurs des solutions");
+		for (Serie s : series)
+			System.out.printf("   %-38s %-11s %s%n", s.joueur, s.corpus, histogramme(s, ":", " "));
+	}
+
+	private static String histogramme(Serie s, String lien, String separateur) {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<Integer, Integer> e : s.longueurs.entrySet())
+			sb.append(sb.length() == 0 ? "" : separateur).append(e.getKey()).append(lien).append(e.getValue());
+		return sb.toString();
+	}
+
+	private static void ecrireJson(Writer w, List<Serie> series, long graine) throws IOException {
+		w.write("[\n");
+		for (int k = 0; k < series.size(); k++) {
+			Serie s = series.get(k);
+			w.write("    {\n");
+			w.write("        \"joueur\" : \"" + s.joueur + "\",\n");
+			w.write("        \"corpus\" : \"" + s.corpus + "\",\n");
+			w.write("        \"graine\" : " + graine + ",\n");
+			w.write("        \"cubes\" : " + s.cubes + ",\n");
+			w.write("        \"echecs\" : " + s.echecs + ",\n");
+			w.write("        \"tauxEchec\" : " + nombre(s.tauxEchec()) + ",\n");
+			w.write("        \"latenceMs\" : { \"p50\" : " + nombre(s.quantile(0.5)) + ", \"p90\" : "
+					+ nombre(s.quantile(0.9)) + ", \"p99\" : " + nombre(s.quantile(0.99)) + ", \"max\" : "
+					+ nombre(s.quantile(1)) + " },\n");
+			w.write("        \"noeudsParSec\" : " + nombre(s.noeudsParSec()) + ",\n");
+			w.write("        \"coupsMoyen\" : " + nombre(s.coupsMoyen()) + ",\n");
+			StringBuilder longueurs = new StringBuilder();
+			for (Map.Entry<Integer, Integer> e : s.longueurs.entrySet())
+				longueurs.append(longueurs.length() == 0 ? "" : ", ").append('"').append(e.getKey()).append("\" : ")
+						.append(e.getValue());
+			w.write("        \"longueurs\" : { " + longueurs + " },\n");
+			StringBuilder brut = new StringBuilder();
+			for (int i = 0; i < s.cubes; i++)
+				brut.append(i == 0 ? "" : ", ").append(nombre(s.tempsMs[i]));
+			w.write("        \"tempsMs\" : [ " + brut + " ]\n");
+			w.write(k + 1 < series.size() ? "    },\n" : "    }\n");
+		}
+		w.write("]\n");
+	}
+
+	private static void ecrireCsv(Writer w, List<Serie> series, long graine) throws IOException {
+		w.write("joueur,corpus,graine,cubes,echecs,tauxEchec,p50Ms,p90Ms,p99Ms,maxMs,noeudsParSec,coupsMoyen,longueurs\n");
+		for (Serie s : series) {
+			w.write(String.join(",", s.joueur, s.corpus, Long.toString(graine), Integer.toString(s.cubes),
+					Integer.toString(s.echecs), nombre(s.tauxEchec()), nombre(s.quantile(0.5)),
+					nombre(s.quantile(0.9)), nombre(s.quantile(0.99)), nombre(s.quantile(1)),
+					nombre(s.noeudsParSec()), Double.isNaN(s.coupsMoyen()) ? "" : nombre(s.coupsMoyen()), histogramme(s, ":", " ")) + "\n");
+		}
+	}
+
+	private static String nombre(double x) {
+		return Format.nombreJson(x, 4);
+	}
+}
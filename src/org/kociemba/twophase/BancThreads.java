@@ -0,0 +1,221 @@
+package org.kociemba.twophase;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Banc de montée en charge : chaque joueur résout le même corpus avec 1, 2, 4... N threads
+ * Pour chaque nombre de threads : tentatives et résolutions réussies par seconde, accélération et efficacité
+ * (sur les résolutions réussies) par rapport à un thread,
+ * et des indicateurs de contention : utilisation du CPU par les threads, temps de GC et débit d’allocation
+ * Une efficacité qui chute alors que l’utilisation du CPU reste haute désigne la mémoire ou le GC,
+ * une utilisation qui chute désigne des threads qui attendent (verrous, tables partagées)
+ * Les joueurs qui lancent eux-mêmes plusieurs threads par résolution (MCTS) sont exclus : leur montée en charge
+ * ne dirait rien du nombre de threads du banc
+ *
+ * Options : -n nombre de cubes, -graine graine du tirage, -melange longueur des mélanges
+ * (sans cette option : cubes aléatoires), -joueurs expression régulière, -max nombre maximal de threads
+ * (par défaut, le nombre de cœurs), -rff fichier CSV (par défaut, un nouveau fichier daté par exécution)
+ */
+public final class BancThreads {
+
+	static final int CUBES = 200;
+
+	/**
+	 * Durée minimale d’une mesure : un corpus résolu trop vite est parcouru plusieurs fois,
+	 * pour que le démarrage des threads reste négligeable
+	 */
+	static final double DUREE_MIN_SEC = 1.0;
+
+	/**
+	 * Joueurs exclus du banc : MCTS lance déjà un thread par cœur pour chaque résolution
+	 */
+	static final Pattern EXCLUS = Pattern.compile("joueur14_MCTS");
+
+	/**
+	 * Mesure d’un joueur avec un nombre de threads
+	 */
+	static final class Palier {
+		final String joueur;
+		final int threads;
+		int cubes;
+		int echecs;
+		double dureeSec;
+		double cpuSec;
+		double gcSec;
+		long octets;
+
+		Palier(String joueur, int threads) {
+			this.joueur = joueur;
+			this.threads = threads;
+		}
+
+		/**
+		 * Résolutions réussies par seconde
+		 */
+		double debit() {
+			return (cubes - echecs) / dureeSec;
+		}
+
+		/**
+		 * Tentatives par seconde, échecs et délais dépassés compris
+		 */
+		double tentatives() {
+			return cubes / dureeSec;
+		}
+
+		/**
+		 * Part du temps des threads passée sur le CPU
+		 */
+		double utilisationCpu() {
+			return cpuSec / (dureeSec * threads);
+		}
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int n = CUBES, melange = -1;
+		long graine = BancCorpus.GRAINE;
+		Pattern filtre = Pattern.compile(BancCorpus.JOUEURS);
+		int max = Runtime.getRuntime().availableProcessors();
+		String fichier = "banc-threads-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv";
+		for (int k = 0; k < args.length; k++) {
+			switch (args[k]) {
+			case "-n": n = Integer.parseInt(args[++k]); break;
+			case "-graine": graine = Long.parseLong(args[++k]); break;
+			case "-melange": melange = Integer.parseInt(args[++k]); break;
+			case "-joueurs": filtre = Pattern.compile(args[++k]); break;
+			case "-max": max = Integer.parseInt(args[++k]); break;
+			case "-rff": fichier = args[++k]; break;
+			default: throw new IllegalArgumentException("option inconnue : " + args[k]);
+			}
+		}
+		if (n <= 0 || max <= 0)
+			throw new IllegalArgumentException("nombre de cubes ou de threads invalide");
+
+		CubieCube[] cubes = Tools.randomCubes(n, melange, new Random(graine));
+
+		RubikIA ia = new RubikIA();
+		Map<String, Function<CubieCube, RubikIA.Result>> joueurs = BancCorpus.joueurs(ia, filtre);
+		for (Iterator<String> it = joueurs.keySet().iterator(); it.hasNext();) {
+			String nom = it.next();
+			if (EXCLUS.matcher(nom).find()) {
+				System.out.println("⚠️ " + nom + " exclu : il lance ses propres threads à chaque résolution");
+				it.remove();
+			}
+		}
+		if (joueurs.isEmpty())
+			throw new IllegalArgumentException("aucun joueur mesurable ne correspond à " + filtre);
+		ia.preparer();
+
+		List<Integer> paliers = new ArrayList<>();
+		for (int t = 1; t < max; t *= 2)
+			paliers.add(t);
+		paliers.add(max);
+
+		List<Palier> mesures = new ArrayList<>();
+		for (Map.Entry<String, Function<CubieCube, RubikIA.Result>> j : joueurs.entrySet()) {
+			// un passage sur un thread sert d’échauffement et fixe le nombre de passages
+			Palier essai = mesurer(j.getKey(), j.getValue(), cubes, 1, 1);
+			int passages = (int) Math.max(1, Math.ceil(DUREE_MIN_SEC / essai.dureeSec));
+			System.out.println("⏳ " + j.getKey() + " (" + n + " cubes, " + passages + " passage(s))...");
+			for (int t : paliers) {
+				Palier p = mesurer(j.getKey(), j.getValue(), cubes, passages, t);
+				mesures.add(p);
+				System.out.printf(Locale.ROOT, "   %3d threads : %10.1f résolutions/s (%d échecs sur %d), CPU %5.1f %%, GC %.3fs%n",
+						t, p.debit(), p.echecs, p.cubes, 100 * p.utilisationCpu(), p.gcSec);
+			}
+		}
+
+		afficher(mesures);
+		try (Writer w = new FileWriter(fichier)) {
+			ecrireCsv(w, mesures);
+		}
+		System.out.println("\nRapport écrit dans " + fichier);
+		System.exit(0);
+	}
+
+	/**
+	 * Résout le corpus passages fois avec t threads qui se partagent les cubes par un compteur commun
+	 * Chaque thread mesure son propre temps CPU et ses allocations ; le GC est mesuré pour toute la JVM
+	 */
+	static Palier mesurer(String nom, Function<CubieCube, RubikIA.Result> joueur, CubieCube[] cubes, int passages,
+			int t) throws InterruptedException {
+		int total = cubes.length * passages;
+		Palier p = new Palier(nom, t);
+		AtomicInteger suivant = new AtomicInteger();
+		long[] cpu = new long[t], octets = new long[t];
+		int[] echecs = new int[t];
+		Thread[] threads = new Thread[t];
+		for (int k = 0; k < t; k++) {
+			int id = k;
+			threads[k] = new Thread(() -> {
+				long cpu0 = CompteurRessources.cpu(), octets0 = CompteurRessources.alloue();
+				for (int i; (i = suivant.getAndIncrement()) < total;) {
+					RubikIA.Result r;
+					try {
+						r = joueur.apply(cubes[i % cubes.length].copy());
+					} catch (RuntimeException | StackOverflowError e) {
+						r = null;
+					}
+					if (r == null || !r.succes) echecs[id]++;
+				}
+				cpu[id] = CompteurRessources.cpu() - cpu0;
+				octets[id] = CompteurRessources.alloue() - octets0;
+			}, "banc-" + k);
+		}
+
+		long gc0 = CompteurRessources.tempsGc();
+		long t0 = System.nanoTime();
+		for (Thread th : threads)
+			th.start();
+		for (Thread th : threads)
+			th.join();
+		p.dureeSec = (System.nanoTime() - t0) / 1e9;
+		p.gcSec = (CompteurRessources.tempsGc() - gc0) / 1e3;
+		p.cubes = total;
+		for (int k = 0; k < t; k++) {
+			p.cpuSec += cpu[k] / 1e9;
+			p.octets += octets[k];
+			p.echecs += echecs[k];
+		}
+		return p;
+	}
+
+	/**
+	 * Débit du même joueur avec un thread, référence de l’accélération
+	 */
+	private static double debitUnThread(List<Palier> mesures, String joueur) {
+		for (Palier p : mesures)
+			if (p.joueur.equals(joueur) && p.threads == 1) return p.debit();
+		return Double.NaN;
+	}
+
+	private static void afficher(List<Palier> mesures) {
+		System.out.printf("%n%-36s %7s %12s %12s %8s %8s %6s %8s %10s%n", "Joueur", "Threads", "Tent./s", "Résol./s",
+				"Accél.", "Effic.", "CPU", "GC", "Mo/s");
+		for (Palier p : mesures) {
+			double acceleration = p.debit() / debitUnThread(mesures, p.joueur);
+			System.out.printf(Locale.ROOT, "%-36s %7d %12.1f %12.1f %7.2fx %7.0f%% %5.0f%% %7.3fs %10.1f%n", p.joueur,
+					p.threads, p.tentatives(), p.debit(), acceleration, 100 * acceleration / p.threads, 100 * p.utilisationCpu(),
+					p.gcSec, p.octets / 1e6 / p.dureeSec);
+		}
+	}
+
+	private static void ecrireCsv(Writer w, List<Palier> mesures) throws IOException {
+		w.write("joueur,threads,cubes,echecs,dureeSec,tentativesParSec,resolutionsParSec,acceleration,efficacite,cpuSec,"
+				+ "utilisationCpu,gcSec,partGc,allocationMoParSec\n");
+		for (Palier p : mesures) {
+			double acceleration = p.debit() / debitUnThread(mesures, p.joueur);
+			w.write(String.format(Locale.ROOT, "%s,%d,%d,%d,%.6f,%.3f,%.3f,%.4f,%.4f,%.6f,%.4f,%.6f,%.4f,%.3f%n",
+					p.joueur, p.threads, p.cubes, p.echecs, p.dureeSec, p.tentatives(), p.debit(), acceleration,
+					acceleration / p.threads, p.cpuSec, p.utilisationCpu(), p.gcSec, p.gcSec / p.dureeSec,
+					p.octets / 1e6 / p.dureeSec));
+		}
+	}
+}
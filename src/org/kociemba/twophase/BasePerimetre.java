@@ -0,0 +1,187 @@
+package org.kociemba.twophase;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Base de fin de partie (recherche périmétrique) : tous les états à au plus profondeur coups
+ * de l’état résolu, avec leur distance exacte et le premier coup qui les en rapproche
+ *
+ * Une recherche qui atteint le périmètre peut s’arrêter aussitôt : la suite de la solution
+ * se lit dans la table. Pour un état hors du périmètre, profondeur + 1 est un minorant
+ * admissible de la distance
+ *
+ * La table est hors du tas Java (ByteBuffer direct), en adressage ouvert :
+ * la clé est le hachage de Zobrist de l’état, la valeur un octet 1 + distance * 18 + coup
+ * (0 pour une case vide)
+ */
+final class BasePerimetre {
+
+	/**
+	 * Profondeur par défaut, modifiable par la propriété système rubikia.perimetre
+	 */
+	static final int PROFONDEUR_DEFAUT = Integer.getInteger("rubikia.perimetre", 5);
+
+	/**
+	 * Profondeur maximale acceptée : la profondeur 7 compterait plus de cent millions d’états
+	 */
+	static final int PROFONDEUR_MAX = 6;
+
+	/**
+	 * Nombre d’états distincts à au plus d coups de l’état résolu (avec le même élagage
+	 * des faces consécutives), pour dimensionner la table
+	 */
+	private static final int[] ETATS_CUMULES = {1, 19, 262, 3502, 46741, 621649, 8240087};
+
+	private static final int TAILLE = CubieCube.PACKED_SIZE;
+
+	private final int profondeur;
+	private final int masque;
+	private final ByteBuffer cles;
+	private final ByteBuffer valeurs;
+	private int taille;
+
+	/**
+	 * Construit la base par parcours en largeur depuis l’état résolu
+	 */
+	BasePerimetre(int profondeur) {
+		if (profondeur < 0 || profondeur > PROFONDEUR_MAX)
+			throw new IllegalArgumentException("profondeur invalide : " + profondeur);
+		this.profondeur = profondeur;
+		int capacite = Integer.highestOneBit(ETATS_CUMULES[profondeur] * 4 / 3) << 1;
+		masque = capacite - 1;
+		cles = ByteBuffer.allocateDirect(capacite * 8);
+		valeurs = ByteBuffer.allocateDirect(capacite);
+		construire();
+	}
+
+	private void construire() {
+		CubieCube base = new CubieCube(), c = new CubieCube();
+		ajouter(base.zobrist(), 0, 0);
+
+		// niveau courant sous forme compacte, avec le dernier coup pour élaguer la même face
+		byte[] niveau = new byte[TAILLE];
+		int[] derniers = {-1};
+		base.pack(niveau, 0);
+		int n = 1;
+
+		for (int d = 0; d < profondeur; d++) {
+			boolean dernierNiveau = d + 1 == profondeur;
+			int prevus = dernierNiveau ? 0 : ETATS_CUMULES[d + 1] - ETATS_CUMULES[d];
+			byte[] suivant = new byte[prevus * TAILLE];
+			int[] derniersSuivants = new int[prevus];
+			int m = 0;
+			for (int i = 0; i < n; i++) {
+				base.unpack(niveau, i * TAILLE);
+				long cleBase = base.zobrist();
+				for (int mv = 0; mv < RubikIA.NB_MOVES; mv++) {
+					if (derniers[i] != -1 && RubikIA.MOVE_FACE[mv] == RubikIA.MOVE_FACE[derniers[i]]) continue;
+					c.set(base);
+					long cle = c.moveZobrist(mv, cleBase);
+					// le coup qui ramène vers l’état résolu est l’inverse de mv
+					if (!ajouter(cle, d + 1, inverse(mv)) || dernierNiveau) continue;
+					if (m == derniersSuivants.length) {
+						derniersSuivants = Arrays.copyOf(derniersSuivants, 2 * m + 1);
+						suivant = Arrays.copyOf(suivant, derniersSuivants.length * TAILLE);
+					}
+					c.pack(suivant, m * TAILLE);
+					derniersSuivants[m++] = mv;
+				}
+			}
+			niveau = suivant;
+			derniers = derniersSuivants;
+			n = m;
+		}
+	}
+
+	/**
+	 * Ajoute un état s’il n’est pas déjà présent ; renvoie false sinon
+	 */
+	private boolean ajouter(long cle, int distance, int coup) {
+		int i = index(cle);
+		while (valeurs.get(i) != 0) {
+			if (cles.getLong(i * 8) == cle) return false;
+			i = (i + 1) & masque;
+		}
+		cles.putLong(i * 8, cle);
+		valeurs.put(i, (byte) (1 + distance * RubikIA.NB_MOVES + coup));
+		taille++;
+		return true;
+	}
+
+	/**
+	 * Valeur codée de l’état de clé donnée, 0 s’il est hors du périmètre
+	 */
+	private int valeur(long cle) {
+		int i = index(cle);
+		int v;
+		while ((v = valeurs.get(i)) != 0) {
+			if (cles.getLong(i * 8) == cle) return v;
+			i = (i + 1) & masque;
+		}
+		return 0;
+	}
+
+	private int index(long cle) {
+		return (int) (cle ^ (cle >>> 32)) & masque;
+	}
+
+	private static int inverse(int mv) {
+		return 3 * (mv / 3) + 2 - mv % 3;
+	}
+
+	/**
+	 * Distance exacte à l’état résolu, ou -1 si l’état est hors du périmètre
+	 */
+	int distance(long cle) {
+		int v = valeur(cle);
+		return v == 0 ? -1 : (v - 1) / RubikIA.NB_MOVES;
+	}
+
+	/**
+	 * Coups qui résolvent c, ou null si c est hors du périmètre
+	 */
+	int[] finir(CubieCube c) {
+		long cle = c.zobrist();
+		int d = distance(cle);
+		if (d < 0) return null;
+
+		int[] coups = new int[d];
+		CubieCube e = c.copy();
+		for (int i = 0; i < d; i++) {
+			int v = valeur(cle);
+			if (v == 0) return null;
+			coups[i] = (v - 1) % RubikIA.NB_MOVES;
+			cle = e.moveZobrist(coups[i], cle);
+		}
+		// une collision de clés de Zobrist est improbable, mais on ne renvoie qu’une suite vérifiée
+		return RubikIA.isSolved(e) ? coups : null;
+	}
+
+	/**
+	 * Profondeur du périmètre
+	 */
+	int profondeur() {
+		return profondeur;
+	}
+
+	/**
+	 * Nombre d’états enregistrés
+	 */
+	int taille() {
+		return taille;
+	}
+
+	/**
+	 * Mémoire occupée hors du tas, en octets
+	 */
+	long octets() {
+		return (long) cles.capacity() + valeurs.capacity();
+	}
+
+	@Override
+	public String toString() {
+		return "BasePerimetre(" + profondeur + ", " + taille + " états, "
+				+ octets() / (1024 * 1024) + " Mo)";
+	}
+}
@@ -0,0 +1,176 @@
+package org.kociemba.twophase;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache borné qui mémorise les valeurs d’une heuristique coûteuse
+ * IDA* réévalue les mêmes états à chaque itération, le cache évite de les recalculer
+ *
+ * Les états sont identifiés par leur clé de Zobrist (64 bits) et l’éviction suit la politique CLOCK :
+ * chaque entrée possède un bit de référence, l’aiguille efface les bits à 1 et
+ * remplace la première entrée dont le bit est déjà à 0
+ *
+ * Toutes les données sont stockées dans des tableaux primitifs (aucun boxing)
+ * Une instance n’est pas thread-safe : il faut un cache par recherche
+ */
+final class CacheHeuristique implements ToIntFunction<CubieCube> {
+
+	/**
+	 * Valeur marquant une case vide dans la table d’index
+	 */
+	private static final int VIDE = -1;
+
+	private final ToIntFunction<CubieCube> h;
+	private final int capacite;
+
+	/**
+	 * Entrées du cache, indexées par numéro d’emplacement
+	 */
+	private final long[] cles;
+	private final int[] valeurs;
+	private final boolean[] reference;
+
+	/**
+	 * Table de hachage à adressage ouvert (sondage linéaire) qui associe
+	 * une clé à son numéro d’emplacement
+	 */
+	private final int[] index;
+	private final int masque;
+
+	private int taille;
+	private int aiguille;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Crée un cache de capacite entrées autour de l’heuristique h
+	 */
+	CacheHeuristique(ToIntFunction<CubieCube> h, int capacite) {
+		if (capacite <= 0)
+			throw new IllegalArgumentException("capacité invalide : " + capacite);
+		this.h = h;
+		this.capacite = capacite;
+		this.cles = new long[capacite];
+		this.valeurs = new int[capacite];
+		this.reference = new boolean[capacite];
+
+		int n = Integer.highestOneBit(capacite) << 2;
+		this.index = new int[n];
+		this.masque = n - 1;
+		Arrays.fill(index, VIDE);
+	}
+
+	/**
+	 * Renvoie la valeur de l’heuristique, depuis le cache si possible
+	 */
+	@Override
+	public int applyAsInt(CubieCube c) {
+		long cle = cle(c);
+		int i = position(cle);
+		while (index[i] != VIDE) {
+			int slot = index[i];
+			if (cles[slot] == cle) {
+				hits++;
+				reference[slot] = true;
+				return valeurs[slot];
+			}
+			i = (i + 1) & masque;
+		}
+
+		misses++;
+		int valeur = h.applyAsInt(c);
+
+		int slot;
+		if (taille < capacite) {
+			slot = taille++;
+		} else {
+			slot = victime();
+			retirer(cles[slot]);
+			evictions++;
+			// la case libre a pu se déplacer pendant le retrait
+			i = position(cle);
+			while (index[i] != VIDE)
+				i = (i + 1) & masque;
+		}
+		cles[slot] = cle;
+		valeurs[slot] = valeur;
+		reference[slot] = false;
+		index[i] = slot;
+		return valeur;
+	}
+
+	/**
+	 * Fait tourner l’aiguille jusqu’à une entrée non référencée depuis son dernier passage
+	 */
+	private int victime() {
+		while (reference[aiguille]) {
+			reference[aiguille] = false;
+			aiguille = (aiguille + 1) % capacite;
+		}
+		int slot = aiguille;
+		aiguille = (aiguille + 1) % capacite;
+		return slot;
+	}
+
+	/**
+	 * Retire une clé de la table d’index en recompactant la suite de sondage
+	 */
+	private void retirer(long cle) {
+		int i = position(cle);
+		while (cles[index[i]] != cle)
+			i = (i + 1) & masque;
+
+		int j = i;
+		while (true) {
+			j = (j + 1) & masque;
+			if (index[j] == VIDE) break;
+			int k = position(cles[index[j]]);
+			// l’entrée en j peut rester si sa position idéale est dans ]i, j]
+			boolean reste = (i <= j) ? (i < k && k <= j) : (i < k || k <= j);
+			if (reste) continue;
+			index[i] = index[j];
+			i = j;
+		}
+		index[i] = VIDE;
+	}
+
+	private int position(long cle) {
+		return (int) (cle ^ (cle >>> 32)) & masque;
+	}
+
+	/**
+	 * Clé de 64 bits d’un état : sa clé de Zobrist
+	 */
+	static long cle(CubieCube c) {
+		return c.zobrist();
+	}
+
+	/* ======================= STATISTIQUES ======================= */
+
+	long hits() {
+		return hits;
+	}
+
+	long misses() {
+		return misses;
+	}
+
+	long evictions() {
+		return evictions;
+	}
+
+	int taille() {
+		return taille;
+	}
+
+	/**
+	 * Proportion des appels servis depuis le cache
+	 */
+	double tauxSucces() {
+		long total = hits + misses;
+		return total == 0 ? 0.0 : (double) hits / total;
+	}
+}
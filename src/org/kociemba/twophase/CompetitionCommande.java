@@ -0,0 +1,283 @@
+package org.kociemba.twophase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Compétition en ligne de commande, sans interaction, pour les scripts et les longues séries de mesures
+ * Chaque joueur choisi résout chaque cube ; les résolutions se partagent un pool de threads
+ * et chaque résultat est écrit sur une ligne dès qu’il est connu
+ *
+ * Options :
+ * -joueurs expression régulière sur les noms des joueurs (joueur1_IDA_Korf... joueur18_Search), par défaut tous
+ * -fichier fichier de mélanges, un par ligne : mouvements (U R2 F'...) ou 54 facettes ; # commente la ligne
+ * -difficulte 1, 2 ou 3 : mélange fixe de la compétition interactive (par défaut 2)
+ * -n nombre de cubes tirés avec -graine : cubes aléatoires, ou mélanges de -melange coups
+ * -threads nombre de résolutions simultanées (par défaut, un par cœur)
+ * -timeout-ida, -timeout-astar limites de temps en secondes
+ * -noeuds-ida, -noeuds-astar plafonds de nœuds
+ * -format table, csv ou jsonl (une ligne JSON par résultat)
+ * -historique fichier où ajouter les mesures de chaque cube (voir Historique)
+ * -echelle K : échelle de difficulté avec K cubes par niveau (voir EchelleDifficulte),
+ * avec -profondeur-max (par défaut 20) et -budget, limite de temps par cube en secondes
+ */
+final class CompetitionCommande {
+
+	/**
+	 * Cube de la série : numéro, description (mélange ou facettes) et état
+	 */
+	private static final class Cube {
+		final int numero;
+		final String description;
+		final CubieCube etat;
+
+		Cube(int numero, String description, CubieCube etat) {
+			this.numero = numero;
+			this.description = description;
+			this.etat = etat;
+		}
+	}
+
+	private CompetitionCommande() {
+	}
+
+	static void lancer(String[] args) {
+		String joueurs = ".";
+		String fichier = null;
+		int difficulte = 2, n = 0, melange = -1;
+		long graine = BancCorpus.GRAINE;
+		int threads = Runtime.getRuntime().availableProcessors();
+		String format = "table";
+		String historique = null;
+		int echelle = 0, profondeurMax = EchelleDifficulte.PROFONDEUR_MAX;
+		double budget = EchelleDifficulte.BUDGET_SEC;
+		// les limites sont propres à cette instance : les autres joueurs de la JVM gardent les leurs
+		RubikIA ia = new RubikIA();
+		for (int k = 0; k < args.length; k++) {
+			switch (args[k]) {
+			case "-joueurs": joueurs = args[++k]; break;
+			case "-fichier": fichier = args[++k]; break;
+			case "-difficulte": difficulte = Integer.parseInt(args[++k]); break;
+			case "-n": n = Integer.parseInt(args[++k]); break;
+			case "-graine": graine = Long.parseLong(args[++k]); break;
+			case "-melange": melange = Integer.parseInt(args[++k]); break;
+			case "-threads": threads = Integer.parseInt(args[++k]); break;
+			case "-timeout-ida": ia.delaiIdaNs = secondes(args[++k]); break;
+			case "-timeout-astar": ia.delaiAStarNs = secondes(args[++k]); break;
+			case "-noeuds-ida": ia.noeudsMaxIda = Long.parseLong(args[++k]); break;
+			case "-noeuds-astar": ia.noeudsMaxAStar = Long.parseLong(args[++k]); break;
+			case "-format": format = args[++k].toLowerCase(); break;
+			case "-historique": historique = args[++k]; break;
+			case "-echelle": echelle = Integer.parseInt(args[++k]); break;
+			case "-profondeur-max": profondeurMax = Integer.parseInt(args[++k]); break;
+			case "-budget": budget = Double.parseDouble(args[++k]); break;
+			default: throw new IllegalArgumentException("option inconnue : " + args[k]);
+			}
+		}
+		if (!format.equals("table") && !format.equals("csv") && !format.equals("jsonl"))
+			throw new IllegalArgumentException("format inconnu : " + format);
+		if (threads <= 0)
+			throw new IllegalArgumentException("nombre de threads invalide : " + threads);
+
+		ia.partagerCoeurs(threads);
+
+		if (echelle > 0) {
+			Map<String, Function<CubieCube, RubikIA.Result>> choisis = BancCorpus.joueurs(ia, Pattern.compile(joueurs));
+			ia.preparer();
+			EchelleDifficulte.lancer(choisis, echelle, profondeurMax, graine, threads, budget, format);
+			System.exit(0);
+		}
+
+		List<Cube> cubes;
+		if (fichier != null) {
+			try {
+				cubes = lireFichier(fichier);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("lecture impossible de " + fichier + " : " + e.getMessage(), e);
+			}
+		} else if (n > 0) {
+			cubes = tirer(n, graine, melange);
+		} else {
+			int[] coups = CompetitionIA.coupsDifficulte(difficulte);
+			cubes = List.of(new Cube(1, RubikIA.pathToString(coups, coups.length), CompetitionIA.genererScramble(coups)));
+		}
+
+		Map<String, Function<CubieCube, RubikIA.Result>> choisis = BancCorpus.joueurs(ia, Pattern.compile(joueurs));
+		ia.preparer();
+
+		String f = format;
+		if (f.equals("csv"))
+			System.out.println("cube,melange,joueur,algorithme,succes,coups,tempsSec,tempsCpuSec,noeuds,"
+					+ "octetsAlloues,tempsGcSec,appelsPhase2,noeudsPhase2,coupures,solution");
+		else if (f.equals("table"))
+			System.out.printf("%-5s %-36s %-6s %5s %10s %10s %12s  %s%n", "Cube", "Joueur", "Succès", "Coups",
+					"Temps", "CPU", "Nœuds", "Solution");
+
+		// une tâche par cube et par joueur ; la ligne est écrite par le thread qui termine
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<RubikIA.Result>> taches = new ArrayList<>();
+		List<String> noms = new ArrayList<>();
+		for (Cube c : cubes) {
+			for (Map.Entry<String, Function<CubieCube, RubikIA.Result>> j : choisis.entrySet()) {
+				String nom = j.getKey();
+				Function<CubieCube, RubikIA.Result> joueur = j.getValue();
+				noms.add(nom);
+				taches.add(pool.submit(() -> {
+					RubikIA.Result r = CompteurRessources.mesurer(() -> joueur.apply(c.etat.copy()));
+					ecrire(f, c, nom, r);
+					return r;
+				}));
+			}
+		}
+		pool.shutdown();
+
+		Map<String, List<RubikIA.Result>> parJoueur = new LinkedHashMap<>();
+		for (int i = 0; i < taches.size(); i++) {
+			RubikIA.Result r;
+			try {
+				r = taches.get(i).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				pool.shutdownNow();
+				return;
+			} catch (ExecutionException e) {
+				System.err.println(noms.get(i) + " : " + e.getCause());
+				// latence manquante : la tâche n’a pas abouti, son temps n’est pas une mesure
+				r = new RubikIA.Result(noms.get(i) + " (erreur)", "", 0, Double.NaN, 0, false);
+			}
+			parJoueur.computeIfAbsent(noms.get(i), k -> new ArrayList<>()).add(r);
+		}
+		if (f.equals("table"))
+			afficherBilan(parJoueur);
+		if (historique != null) {
+			try {
+				enregistrer(Paths.get(historique), cubes, parJoueur, Historique.reglages(threads, ia));
+			} catch (IOException e) {
+				System.err.println("écriture impossible de " + historique + " : " + e.getMessage());
+			}
+		}
+		System.exit(0);
+	}
+
+	/**
+	 * Ajoute les résultats de cette exécution à l’historique, une série par joueur
+	 * Les tâches en erreur ont une latence NaN, enregistrée comme manquante
+	 */
+	private static void enregistrer(Path fichier, List<Cube> cubes, Map<String, List<RubikIA.Result>> parJoueur,
+			String reglages) throws IOException {
+		CubieCube[] etats = new CubieCube[cubes.size()];
+		for (int i = 0; i < etats.length; i++)
+			etats[i] = cubes.get(i).etat;
+		String corpus = "competition-" + Historique.empreinte(etats);
+		String execution = Historique.nouvelleExecution();
+		for (Map.Entry<String, List<RubikIA.Result>> e : parJoueur.entrySet()) {
+			List<RubikIA.Result> rs = e.getValue();
+			double[] temps = new double[rs.size()];
+			long[] noeuds = new long[rs.size()];
+			boolean[] succes = new boolean[rs.size()];
+			for (int i = 0; i < rs.size(); i++) {
+				temps[i] = rs.get(i).tempsSec * 1e3;
+				noeuds[i] = rs.get(i).noeuds;
+				succes[i] = rs.get(i).succes;
+			}
+			Historique.ajouter(fichier, execution, corpus, e.getKey(), reglages, temps, noeuds, succes);
+		}
+		System.err.println("Exécution " + execution + " ajoutée à " + fichier);
+	}
+
+	private static long secondes(String s) {
+		return (long) (Double.parseDouble(s) * 1e9);
+	}
+
+	/**
+	 * Cubes du fichier : une ligne de 54 lettres URFDLB est lue comme des facettes, sinon comme un mélange
+	 */
+	private static List<Cube> lireFichier(String fichier) throws IOException {
+		List<Cube> cubes = new ArrayList<>();
+		int ligne = 0;
+		for (String l : Files.readAllLines(Paths.get(fichier), StandardCharsets.UTF_8)) {
+			ligne++;
+			String t = l.trim();
+			if (t.isEmpty() || t.startsWith("#")) continue;
+			CubieCube c;
+			if (t.matches("[URFDLB]{54}")) {
+				c = new FaceCube(t).toCubieCube();
+				if (c.verify() != 0)
+					throw new IllegalArgumentException(fichier + ":" + ligne + " : cube impossible");
+			} else {
+				int[] coups = RubikIA.lireCoups(t);
+				if (coups == null)
+					throw new IllegalArgumentException(fichier + ":" + ligne + " : mélange illisible « " + t + " »");
+				c = CompetitionIA.genererScramble(coups);
+			}
+			cubes.add(new Cube(cubes.size() + 1, t, c));
+		}
+		return cubes;
+	}
+
+	/**
+	 * n cubes tirés avec la graine : aléatoires uniformes, ou mélanges de longueur donnée si elle est positive
+	 */
+	private static List<Cube> tirer(int n, long graine, int melange) {
+		List<Cube> cubes = new ArrayList<>();
+		CubieCube[] tires = Tools.randomCubes(n, melange, new Random(graine));
+		for (int i = 0; i < n; i++)
+			cubes.add(new Cube(i + 1, tires[i].toFaceCube().to_String(), tires[i]));
+		return cubes;
+	}
+
+	/**
+	 * Une ligne par résultat, écrite d’un bloc pour ne pas mélanger les sorties des threads
+	 */
+	private static void ecrire(String format, Cube c, String joueur, RubikIA.Result r) {
+		String ligne;
+		if (format.equals("csv")) {
+			ligne = String.join(",", Integer.toString(c.numero), Format.csv(c.description), joueur, Format.csv(r.nomAlgo),
+					Boolean.toString(r.succes), Integer.toString(r.coups), nombre(r.tempsSec), nombre(r.tempsCpuSec),
+					Long.toString(r.noeuds), Long.toString(r.octetsAlloues), nombre(r.tempsGcSec), Long.toString(r.appelsPhase2),
+					Long.toString(r.noeudsPhase2), Long.toString(r.coupures), Format.csv(r.solution));
+		} else if (format.equals("jsonl")) {
+			ligne = "{\"cube\":" + c.numero + ",\"melange\":" + Format.json(c.description) + ",\"joueur\":" + Format.json(joueur)
+					+ ",\"algorithme\":" + Format.json(r.nomAlgo) + ",\"succes\":" + r.succes + ",\"coups\":" + r.coups
+					+ ",\"tempsSec\":" + nombre(r.tempsSec) + ",\"tempsCpuSec\":" + nombre(r.tempsCpuSec)
+					+ ",\"noeuds\":" + r.noeuds + ",\"octetsAlloues\":" + r.octetsAlloues
+					+ ",\"tempsGcSec\":" + nombre(r.tempsGcSec) + ",\"appelsPhase2\":" + r.appelsPhase2
+					+ ",\"noeudsPhase2\":" + r.noeudsPhase2 + ",\"coupures\":" + r.coupures
+					+ ",\"solution\":" + Format.json(r.solution) + "}";
+		} else {
+			ligne = String.format(Locale.ROOT, "%-5d %-36s %-6s %5d %9.3fs %9.3fs %12d  %s", c.numero, joueur,
+					r.succes ? "oui" : "non", r.coups, r.tempsSec, r.tempsCpuSec, r.noeuds, r.solution);
+		}
+		System.out.println(ligne);
+	}
+
+	/**
+	 * Bilan du format table : réussites, longueur moyenne et temps moyens de chaque joueur
+	 */
+	private static void afficherBilan(Map<String, List<RubikIA.Result>> parJoueur) {
+		System.out.printf("%n%-36s %9s %10s %10s %10s%n", "Joueur", "Réussites", "Coups", "Temps", "CPU");
+		for (Map.Entry<String, List<RubikIA.Result>> e : parJoueur.entrySet()) {
+			List<RubikIA.Result> rs = e.getValue();
+			long reussis = rs.stream().filter(r -> r.succes).count();
+			double coups = rs.stream().filter(r -> r.succes).mapToInt(r -> r.coups).average().orElse(Double.NaN);
+			double temps = rs.stream().mapToDouble(r -> r.tempsSec).filter(t -> !Double.isNaN(t)).average().orElse(0);
+			double cpu = rs.stream().mapToDouble(r -> r.tempsCpuSec).average().orElse(0);
+			System.out.printf(Locale.ROOT, "%-36s %5d/%-3d %10.2f %9.3fs %9.3fs%n", e.getKey(), reussis, rs.size(),
+					coups, temps, cpu);
+		}
+	}
+
+	private static String nombre(double x) {
+		return Format.nombre(x, 6);
+	}
+}
@@ -1,6 +1,12 @@
 package org.kociemba.twophase;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Classe qui organise une compétition entre plusieurs algorithmes
@@ -23,12 +29,23 @@ public class CompetitionIA {
 	 */
 	private static final double BETA_NODES = 1.0 / 10_000.0;
 
+	/**
+	 * Nombre de joueurs lancés en même temps (par défaut, un par cœur)
+	 */
+	private static final int THREADS = Integer.getInteger("rubikia.competition.threads",
+			Runtime.getRuntime().availableProcessors());
+
 	/* ==================== POINT D'ENTRÉE ==================== */
 
 	/**
 	 * Affiche le menu et récupère la difficulté choisie par l’utilisateur
+	 * Avec des arguments, la compétition se lance sans interaction (voir CompetitionCommande)
 	 */
 	public static void main(String[] args) {
+		if (args.length > 0) {
+			CompetitionCommande.lancer(args);
+			return;
+		}
 		Scanner scan = new Scanner(System.in);
 
 		System.out.println("╔═════════════════════════════════════╗");
@@ -39,11 +56,16 @@ public class CompetitionIA {
 		System.out.println("1. Facile (scramble court : 5 moves)");
 		System.out.println("2. Moyen (scramble standard : 9 moves)");
 		System.out.println("3. Difficile (scramble long : 15 moves)");
+		System.out.println("4. Échelle (profondeurs 1 à " + EchelleDifficulte.PROFONDEUR_MAX + ", élimination des joueurs)");
 		System.out.print("\nVotre choix : ");
 
 		int choix = scan.nextInt();
-		lancerCompetition(choix);
 		scan.close();
+		if (choix == 4) {
+			CompetitionCommande.lancer(new String[] {"-echelle", Integer.toString(EchelleDifficulte.CUBES_PAR_NIVEAU)});
+			return;
+		}
+		lancerCompetition(choix);
 	}
 
 	/* ==================== LANCEMENT DE LA COMPÉTITION ==================== */
@@ -54,59 +76,139 @@ public class CompetitionIA {
 	 */
 
 	private static void lancerCompetition(int difficulte) {
-		CubieCube cube;
+		int[] moves = coupsDifficulte(difficulte);
 		String scrambleStr;
 
 		if (difficulte == 1) {
-			// Facile : 5 mouvements
-			cube = genererScramble(new int[]{0, 3, 6, 9, 12});  // U R F D L
 			scrambleStr = "U R F D L";
 		} 
 
 		else if (difficulte == 2) {
-			// Moyen : 9 mouvements
-			cube = genererScramble(new int[]{0, 3, 8, 13, 9, 15, 5, 1, 6});
 			scrambleStr = "U R F' L2 D B R' U2 F";
 		} 
 
 		else {
-			// Difficile : 15 mouvements
-			cube = genererScramble(new int[]{0, 3, 8, 13, 9, 15, 5, 1, 6, 10, 14, 2, 7, 11, 4});
 			scrambleStr = "U R F' L2 D B R' U2 F D' L' R F2 D2 L";
 		}
+		CubieCube cube = genererScramble(moves);
+		// le mélange lui-même est une solution : IDA* ne dépassera pas ce seuil
+		int profondeurMax = moves.length;
 
 		System.out.println("\nScramble utilisé : " + scrambleStr);
 		System.out.println("\n🏁 QUE LA COMPÉTITION COMMENCE !\n");
 		System.out.println("═══════════════════════════════════════\n");
 
-		/** 
-		 *Lancer les algorithmes avec affichage de progression
+		/**
+		 * Joueurs de la compétition, lancés en même temps sur un nombre borné de threads
 		 */
 		RubikIA ia = new RubikIA();
-		List<RubikIA.Result> resultats = new ArrayList<>();
-
-		System.out.println("⏳ IDA* + hKorf en cours...");
-		resultats.add(ia.joueur1_IDA_Korf(cube));
-		System.out.println("   ✅ Terminé\n");
-
-		System.out.println("⏳ IDA* + hMalPlaces en cours...");
-		resultats.add(ia.joueur2_IDA_MalPlacees(cube));
+		System.out.println("⏳ Construction des tables...");
+		ia.preparer();
+		ia.partagerCoeurs(THREADS);
 		System.out.println("   ✅ Terminé\n");
 
-		System.out.println("⏳ IDA* + hManhattan en cours...");
-		resultats.add(ia.joueur3_IDA_Manhattan(cube));
-		System.out.println("   ✅ Terminé\n");
+		Map<String, Supplier<RubikIA.Result>> joueurs = new LinkedHashMap<>();
+		joueurs.put("IDA* + hKorf", () -> lancerIDAPrevu(ia, 1, "IDA* + hKorf", cube, profondeurMax, ia::joueur1_IDA_Korf));
+		joueurs.put("IDA* + hMalPlaces", () -> lancerIDAPrevu(ia, 2, "IDA* + hMalPlaces", cube, profondeurMax, ia::joueur2_IDA_MalPlacees));
+		joueurs.put("IDA* + hManhattan", () -> lancerIDAPrevu(ia, 3, "IDA* + hManhattan", cube, profondeurMax, ia::joueur3_IDA_Manhattan));
+		joueurs.put("A* + hManhattan", () -> CompteurRessources.mesurer(() -> ia.joueur4_AStar_Manhattan(cube)));
+		joueurs.put("A* + hMalPlaces", () -> CompteurRessources.mesurer(() -> ia.joueur5_AStar_MalPlacees(cube)));
+		joueurs.put("IDA* + hTwoPhaseTables", () -> lancerIDAPrevu(ia, 6, "IDA* + hTwoPhaseTables", cube, profondeurMax, ia::joueur6_IDA_TwoPhaseTables));
+		joueurs.put("A* + hTwoPhaseTables", () -> CompteurRessources.mesurer(() -> ia.joueur7_AStar_TwoPhaseTables(cube)));
+		joueurs.put("IDA* + hTwoPhase (cache)", () -> {
+			RubikIA.Result cache = lancerIDAPrevu(ia, 8, "IDA* + hTwoPhase (cache)", cube, profondeurMax, ia::joueur8_IDA_TwoPhaseTables_Cache);
+			long total = cache.succesCache + cache.echecsCache;
+			System.out.printf("   ↳ Cache : %d succès, %d échecs (%.1f %% de succès)\n", cache.succesCache, cache.echecsCache,
+					total == 0 ? 0.0 : 100.0 * cache.succesCache / total);
+			return cache;
+		});
+		joueurs.put("IDA* + hTwoPhase + périmètre", () -> CompteurRessources.mesurer(() -> ia.joueur15_IDA_TwoPhaseTables_Perimetre(cube)));
+		joueurs.put("IDA* + hTwoPhase + coins", () -> CompteurRessources.mesurer(() -> ia.joueur16_IDA_TwoPhaseCoins(cube)));
+		joueurs.put("Thistlethwaite", () -> CompteurRessources.mesurer(() -> ia.joueur17_Thistlethwaite(cube)));
+		joueurs.put("RBFS + hTwoPhaseTables", () -> CompteurRessources.mesurer(() -> ia.joueur9_RBFS_TwoPhaseTables(cube)));
+		joueurs.put("Faisceau + hFaisceau", () -> CompteurRessources.mesurer(() -> ia.joueur10_Faisceau(cube)));
+		joueurs.put("ARA* + hTwoPhase", () -> CompteurRessources.mesurer(() -> ia.lancerARA(cube, ia.delaiAStarNs, r ->
+				System.out.printf("   ↳ ARA* : %d coups, ε ≤ %.2f (%.3fs)\n", r.coups, r.epsilon, r.tempsSec))));
+		joueurs.put("IDA* + hManhattan (lot)", () -> lancerIDAPrevu(ia, 12, "IDA* + hManhattan (lot)", cube, profondeurMax, ia::joueur12_IDA_Manhattan_Lot));
+		joueurs.put("BWAS + hRéseau", () -> CompteurRessources.mesurer(() -> ia.joueur13_BWAS_Reseau(cube)));
+		joueurs.put("Kociemba (Search)", () -> {
+			RubikIA.Result search = CompteurRessources.mesurer(() -> ia.joueur18_Search(cube));
+			System.out.printf("   ↳ Search : %d nœuds en phase 1, %d appels de la phase 2 (%d nœuds), %d coupures\n",
+					search.noeuds - search.noeudsPhase2, search.appelsPhase2, search.noeudsPhase2, search.coupures);
+			return search;
+		});
+		joueurs.put("MCTS + hDeuxPhases", () -> {
+			RubikIA.Result mcts = CompteurRessources.mesurer(() -> ia.joueur14_MCTS(cube));
+			System.out.printf("   ↳ MCTS : %.0f déroulements/s\n", mcts.rolloutsParSec);
+			return mcts;
+		});
+
+		List<RubikIA.Result> resultats = lancerEnParallele(joueurs);
 
-		System.out.println("⏳ A* + hManhattan en cours...");
-		resultats.add(ia.joueur4_AStar_Manhattan(cube));
-		System.out.println("   ✅ Terminé\n");
+		afficherResultats(resultats);
+		afficherPrevisions(resultats);
+	}
 
-		System.out.println("⏳ A* + hMalPlaces en cours...");
-		resultats.add(ia.joueur5_AStar_MalPlacees(cube));
-		System.out.println("   ✅ Terminé\n");
+	/**
+	 * Lance les joueurs sur un pool borné de threads et renvoie leurs résultats dans l’ordre d’inscription
+	 * Un joueur qui lève une exception compte comme un échec
+	 */
+	private static List<RubikIA.Result> lancerEnParallele(Map<String, Supplier<RubikIA.Result>> joueurs) {
+		int threads = Math.max(1, Math.min(THREADS, joueurs.size()));
+		System.out.println("🧵 " + joueurs.size() + " joueurs sur " + threads + " threads\n");
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		Map<String, Future<RubikIA.Result>> enCours = new LinkedHashMap<>();
+		for (Map.Entry<String, Supplier<RubikIA.Result>> j : joueurs.entrySet()) {
+			String nom = j.getKey();
+			Supplier<RubikIA.Result> lancer = j.getValue();
+			enCours.put(nom, pool.submit(() -> {
+				System.out.println("⏳ " + nom + " en cours...");
+				RubikIA.Result r = lancer.get();
+				System.out.printf("   ✅ %s terminé (%.3fs, CPU %.3fs)\n", nom, r.tempsSec, r.tempsCpuSec);
+				return r;
+			}));
+		}
+		pool.shutdown();
 
+		List<RubikIA.Result> resultats = new ArrayList<>();
+		for (Map.Entry<String, Future<RubikIA.Result>> f : enCours.entrySet()) {
+			try {
+				resultats.add(f.getValue().get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				pool.shutdownNow();
+				break;
+			} catch (ExecutionException e) {
+				System.out.println("   ❌ " + f.getKey() + " : " + e.getCause());
+				resultats.add(new RubikIA.Result(f.getKey() + " (erreur)", "", 0, 0.0, 0, false));
+			}
+		}
+		return resultats;
+	}
 
-		afficherResultats(resultats);
+	/**
+	 * Prévoit le nombre de nœuds d’un joueur IDA* (estimateur de Knuth) avant de le lancer
+	 * Le joueur est ignoré si même la plus courte solution possible dépasse le plafond de nœuds
+	 * Seule la résolution est mesurée par le compteur de ressources, pas la prévision
+	 */
+	private static RubikIA.Result lancerIDAPrevu(RubikIA ia, int joueur, String nom, CubieCube cube, int profondeurMax,
+			Function<CubieCube, RubikIA.Result> lancer) {
+		EstimateurIDA.Prevision p = ia.prevoirIDA(joueur, cube, profondeurMax);
+		System.out.printf("   ↳ %s : prévision de %.0f à %.0f nœuds (solution de %d à %d coups)\n",
+				nom, p.minimum(), p.maximum(), p.borneInf, p.seuilMax);
+
+		RubikIA.Result r;
+		if (p.minimum() > ia.noeudsMaxIda) {
+			System.out.println("   ⏭️  " + nom + " ignoré : la prévision dépasse le plafond de nœuds");
+			r = new RubikIA.Result(nom + " (ignoré)", "", 0, 0.0, 0, false);
+		} else {
+			if (p.maximum() > ia.noeudsMaxIda)
+				System.out.println("   ⚠️  " + nom + " risque d'atteindre le plafond de nœuds");
+			r = CompteurRessources.mesurer(() -> lancer.apply(cube));
+		}
+		// comparable au nombre réel : cumul des itérations jusqu’à la longueur trouvée
+		r.noeudsPrevus = r.succes ? p.cumul(r.coups) : p.maximum();
+		return r;
 	}
 
 	/* ==================== AFFICHAGE DES RÉSULTATS ==================== */
@@ -115,6 +217,7 @@ public class CompetitionIA {
 	 * Affiche les résultats des algorithmes ayant réussi la résolution
 	 * Classe les IA selon un score global
 	 * score = coups + temps * ALPHA_TIME + nœuds * BETA_NODES
+	 * Le score CPU remplace le temps écoulé par le temps CPU du joueur, qui ne dépend pas des joueurs voisins
 	 */
 	private static void afficherResultats(List<RubikIA.Result> resultats) {
 
@@ -131,30 +234,67 @@ public class CompetitionIA {
 		}
 		valides.sort(Comparator.comparingDouble(CompetitionIA::scoreIA));
 
-		String[] medailles = {"🥇","🥈","🥉","4️⃣","5️⃣"};
+		String[] medailles = {"🥇","🥈","🥉","4️⃣","5️⃣","6️⃣","7️⃣","8️⃣","9️⃣","🔟","11","12","13","14","15","16","17","18"};
 
 		System.out.println("\n╔═════════════════════════════════════════════════════╗");
 		System.out.println("║                  🏆 RÉSULTATS 🏆                     ║");
 		System.out.println("╚═════════════════════════════════════════════════════╝\n");
 
-		System.out.println("┌────┬─────────────────────────┬───────┬─────────┬──────────┐");
-		System.out.println("│    │ Algorithme              │ Coups │ Temps   │ Nœuds    │");
-		System.out.println("├────┼─────────────────────────┼───────┼─────────┼──────────┤");
+		System.out.println("┌────┬─────────────────────────┬───────┬─────────┬─────────┬──────────┬─────────┬───────────┐");
+		System.out.println("│    │ Algorithme              │ Coups │ Temps   │ CPU     │ Nœuds    │ Score   │ Score CPU │");
+		System.out.println("├────┼─────────────────────────┼───────┼─────────┼─────────┼──────────┼─────────┼───────────┤");
 
 		for (int i = 0; i < valides.size(); i++) {
 			RubikIA.Result r = valides.get(i);
 			System.out.printf(
-					"│ %s │ %-23s │ %5d │ %7.3fs │ %8d │\n",
-					medailles[i], r.nomAlgo, r.coups, r.tempsSec, r.noeuds
+					"│ %s │ %-23s │ %5d │ %7.3fs │ %7.3fs │ %8d │ %7.2f │ %9.2f │\n",
+					i < medailles.length ? medailles[i] : String.format("%2d", i + 1),
+					r.nomAlgo, r.coups, r.tempsSec, r.tempsCpuSec, r.noeuds, scoreIA(r), scoreCpu(r)
 					);
 		}
 
-		System.out.println("└────┴─────────────────────────┴───────┴─────────┴──────────┘");
+		System.out.println("└────┴─────────────────────────┴───────┴─────────┴─────────┴──────────┴─────────┴───────────┘");
+
+		afficherMemoire(valides);
+		afficherRessources(valides);
 
 		// Afficher les qualifications par critère
 		afficherQualificationIA(valides);
 	}
 
+	/**
+	 * Affiche les réexpansions et la mémoire maximale des moteurs qui les mesurent
+	 */
+	private static void afficherMemoire(List<RubikIA.Result> valides) {
+		for (RubikIA.Result r : valides) {
+			if (r.memoirePic == 0) continue;
+			System.out.printf("   %-23s : %d réexpansions, mémoire max %d nœuds\n",
+					r.nomAlgo, r.reexpansions, r.memoirePic);
+		}
+	}
+
+	/**
+	 * Affiche les octets alloués et le temps de GC attribués à chaque joueur
+	 */
+	private static void afficherRessources(List<RubikIA.Result> valides) {
+		System.out.println("\n🧮 ALLOCATIONS ET GC\n");
+		for (RubikIA.Result r : valides)
+			System.out.printf("   %-23s : %10.1f Mo alloués, GC %.3fs\n",
+					r.nomAlgo, r.octetsAlloues / 1e6, r.tempsGcSec);
+	}
+
+	/**
+	 * Affiche la prévision de l’estimateur à côté du nombre réel de nœuds
+	 */
+	private static void afficherPrevisions(List<RubikIA.Result> resultats) {
+		System.out.println("\n🔮 PRÉVISIONS DE NŒUDS\n");
+		for (RubikIA.Result r : resultats) {
+			if (r.noeudsPrevus == 0) continue;
+			System.out.printf("   %-27s : prévu %12.0f, réel %10d%s\n",
+					r.nomAlgo, r.noeudsPrevus, r.noeuds, r.succes ? "" : " (échec)");
+		}
+	}
+
 	/**
 	 * Calcule un score global pour comparer les algorithmes
 	 * Combine la longueur de la solution le temps et le nombre de nœuds
@@ -163,6 +303,13 @@ public class CompetitionIA {
 		return r.coups + r.tempsSec * ALPHA_TIME + r.noeuds * BETA_NODES;
 	}
 
+	/**
+	 * Score global calculé avec le temps CPU du joueur au lieu du temps écoulé
+	 */
+	private static double scoreCpu(RubikIA.Result r) {
+		return r.coups + r.tempsCpuSec * ALPHA_TIME + r.noeuds * BETA_NODES;
+	}
+
 	/**
 	 * Affiche les meilleures IA selon différents critères de performance
 	 */
@@ -180,21 +327,45 @@ public class CompetitionIA {
 		RubikIA.Result meilleurCompromis =
 				Collections.min(valides, Comparator.comparingDouble(CompetitionIA::scoreIA));
 
+		RubikIA.Result moinsCpu =
+				Collections.min(valides, Comparator.comparingDouble(r -> r.tempsCpuSec));
+
+		RubikIA.Result meilleurCompromisCpu =
+				Collections.min(valides, Comparator.comparingDouble(CompetitionIA::scoreCpu));
+
 		System.out.println("\n🏆 QUALIFICATION PAR CRITÈRE\n");
 
 		System.out.println("⚡ Plus rapide            : " + plusRapide.nomAlgo);
 		System.out.println("🌲 Moins de nœuds explorés : " + moinsNoeuds.nomAlgo);
 		System.out.println("🧭 Chemin le plus court   : " + meilleurChemin.nomAlgo);
 		System.out.println("⚖️  Meilleur compromis IA  : " + meilleurCompromis.nomAlgo);
+		System.out.println("🖥️  Moins de temps CPU     : " + moinsCpu.nomAlgo);
+		System.out.println("⚖️  Meilleur compromis CPU : " + meilleurCompromisCpu.nomAlgo);
 	}
 
 	/* ==================== GÉNÉRATION DE SCRAMBLE ==================== */
+	/**
+	 * Mélange fixe de chaque difficulté (1 facile, 2 moyen, 3 difficile)
+	 */
+	static int[] coupsDifficulte(int difficulte) {
+		if (difficulte == 1) {
+			// Facile : 5 mouvements
+			return new int[]{0, 3, 6, 9, 12};  // U R F D L
+		}
+		if (difficulte == 2) {
+			// Moyen : 9 mouvements
+			return new int[]{0, 3, 8, 13, 9, 15, 5, 1, 6};
+		}
+		// Difficile : 15 mouvements
+		return new int[]{0, 3, 8, 13, 9, 15, 5, 1, 6, 10, 14, 2, 7, 11, 4};
+	}
+
 	/**
 	 * Génère un cube mélangé à partir d’une suite de mouvements
 	 *  Utilise la méthode applyMove18 de RubikIA pour appliquer chaque
 	 * mouvement codé (0-17)
 	 */
-	private static CubieCube genererScramble(int[] moves) {
+	static CubieCube genererScramble(int[] moves) {
 		CubieCube cube = new CubieCube();
 		for (int mv : moves) {
 			RubikIA.applyMove18(cube, mv);
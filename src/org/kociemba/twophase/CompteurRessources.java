@@ -0,0 +1,112 @@
+package org.kociemba.twophase;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Ressources consommées par une résolution, mesurées sur le thread qui l’exécute :
+ * temps CPU du thread, octets alloués par le thread et part du temps de GC
+ * Contrairement au temps écoulé, ces mesures ne dépendent pas des autres joueurs lancés en même temps
+ *
+ * Le GC est commun à toute la JVM : une résolution reçoit la part du temps de GC écoulé pendant son exécution
+ * égale à sa part des octets alloués par la JVM sur la même période
+ * Les threads créés par le moteur lui-même ne sont comptés que si le moteur a déjà versé leurs ressources
+ * dans le résultat (RechercheMCTS le fait) : la mesure s’y ajoute
+ */
+final class CompteurRessources {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Comptage des allocations par thread (extension de HotSpot), null si la JVM ne l’offre pas
+	 */
+	private static final com.sun.management.ThreadMXBean ALLOCATIONS;
+
+	static {
+		if (THREADS.isCurrentThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled())
+			THREADS.setThreadCpuTimeEnabled(true);
+		com.sun.management.ThreadMXBean a = null;
+		if (THREADS instanceof com.sun.management.ThreadMXBean) {
+			a = (com.sun.management.ThreadMXBean) THREADS;
+			if (a.isThreadAllocatedMemorySupported()) a.setThreadAllocatedMemoryEnabled(true);
+			else a = null;
+		}
+		ALLOCATIONS = a;
+	}
+
+	private final long cpu0;
+	private final long alloue0;
+	private final Map<Long, Long> alloueThreads0;
+	private final long gc0;
+
+	private CompteurRessources() {
+		cpu0 = cpu();
+		alloue0 = alloue();
+		alloueThreads0 = alloueThreads();
+		gc0 = tempsGc();
+	}
+
+	/**
+	 * Lance la résolution sur le thread courant et renseigne ses ressources dans le résultat
+	 */
+	static RubikIA.Result mesurer(Supplier<RubikIA.Result> resolution) {
+		CompteurRessources c = new CompteurRessources();
+		RubikIA.Result r = resolution.get();
+		c.renseigner(r);
+		return r;
+	}
+
+	private void renseigner(RubikIA.Result r) {
+		long octetsMoteur = r.octetsAlloues;
+		r.tempsCpuSec += (cpu() - cpu0) / 1e9;
+		r.octetsAlloues = octetsMoteur + Math.max(0, alloue() - alloue0);
+		// allocations de la JVM sur la période : progression de chaque thread encore vivant,
+		// plus celles des threads du moteur, terminés entre-temps
+		long jvm = octetsMoteur;
+		for (Map.Entry<Long, Long> t : alloueThreads().entrySet())
+			jvm += t.getValue() - alloueThreads0.getOrDefault(t.getKey(), 0L);
+		double part = jvm > 0 ? Math.min(1.0, (double) r.octetsAlloues / jvm) : 0;
+		r.tempsGcSec = (tempsGc() - gc0) / 1e3 * part;
+	}
+
+	/**
+	 * Temps CPU du thread courant, en nanosecondes (0 si la JVM ne le mesure pas)
+	 */
+	static long cpu() {
+		return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+	}
+
+	/**
+	 * Octets alloués depuis son départ par le thread courant (0 si la JVM ne les compte pas)
+	 */
+	static long alloue() {
+		return ALLOCATIONS != null ? ALLOCATIONS.getCurrentThreadAllocatedBytes() : 0;
+	}
+
+	/**
+	 * Octets alloués par chaque thread vivant, par identifiant de thread
+	 */
+	private static Map<Long, Long> alloueThreads() {
+		Map<Long, Long> m = new HashMap<>();
+		if (ALLOCATIONS == null) return m;
+		long[] ids = THREADS.getAllThreadIds();
+		long[] octets = ALLOCATIONS.getThreadAllocatedBytes(ids);
+		for (int i = 0; i < ids.length; i++)
+			if (octets[i] >= 0) m.put(ids[i], octets[i]);
+		return m;
+	}
+
+	/**
+	 * Temps cumulé de tous les ramasse-miettes, en millisecondes
+	 */
+	static long tempsGc() {
+		long total = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+			total += Math.max(0, gc.getCollectionTime());
+		return total;
+	}
+}
@@ -1,7 +1,14 @@
 package org.kociemba.twophase;
 
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.IntBinaryOperator;
+
 //+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 // Representation of the cube on the coordinate level
+//
+// Every table is built on first use by its own holder class, so a caller that only needs phase 1 never pays for the
+// phase 2 tables. The table profile is chosen with the system property kociemba.tables (see Profile).
 class CoordCube {
 
 	static final short N_TWIST = 2187;// 3^7 possible corner orientations
@@ -14,12 +21,47 @@ class CoordCube {
 	static final short N_URtoUL = 1320; // 12!/(12-3)! permutation of UR,UF,UL edges
 	static final short N_UBtoDF = 1320; // 12!/(12-3)! permutation of UB,DR,DF edges
 	static final short N_URtoDF = 20160; // 8!/(8-6)! permutation of UR,UF,UL,UB,DR,DF edges in phase2
-	
+
 	static final int N_URFtoDLB = 40320;// 8! permutations of the corners
 	static final int N_URtoBR = 479001600;// 8! permutations of the corners
-	
+
 	static final short N_MOVE = 18;
 
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Table profiles.
+	// FULL: all tables precomputed, 4 bits per pruning entry.
+	// COMPACT: the phase2 pruning tables store the depth modulo 3 in 2 bits, URtoDF_Move only keeps the 10 phase2
+	// moves and the merge table for the start of phase2 is computed on the fly. The exact phase2 depth is then
+	// decoded from the depth of the parent node, or by walking down the table for a fresh cube. That walk makes a
+	// lookup without a parent value tens of times slower than with FULL (about 1 µs instead of 0.03 µs here).
+	enum Profile {
+		FULL, COMPACT;
+
+		// Profile named by the system property kociemba.tables, case insensitive. An unknown value falls back to FULL
+		// with a warning: an exception here would make CoordCube, and every Search call, unusable.
+		static Profile parse(String value) {
+			if (value == null)
+				return FULL;
+			for (Profile p : values())
+				if (p.name().equals(value.trim().toUpperCase(Locale.ROOT)))
+					return p;
+			System.err.println("kociemba.tables: unknown profile \"" + value + "\", expected "
+					+ Arrays.toString(values()).toLowerCase(Locale.ROOT) + ", using full");
+			return FULL;
+		}
+	}
+
+	static final Profile PROFILE = Profile.parse(System.getProperty("kociemba.tables"));
+
+	// the phase2 moves U,U2,U',R2,F2,D,D2,D',L2,B2 and their column in the compact URtoDF_Move table
+	static final int[] PHASE2_MOVES = { 0, 1, 2, 4, 7, 9, 10, 11, 13, 16 };
+	private static final int[] PHASE2_COLUMN = new int[N_MOVE];
+	static {
+		Arrays.fill(PHASE2_COLUMN, -1);
+		for (int k = 0; k < PHASE2_MOVES.length; k++)
+			PHASE2_COLUMN[PHASE2_MOVES[k]] = k;
+	}
+
 	// All coordinates are 0 for a solved cube except for UBtoDF, which is 114
 	short twist;
 	short flip;
@@ -46,16 +88,16 @@ class CoordCube {
 	// A move on the coordinate level
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	void move(int m) {
-		twist = twistMove[twist][m];
-		flip = flipMove[flip][m];
+		twist = twistMove()[twist][m];
+		flip = flipMove()[flip][m];
 		parity = parityMove[parity][m];
-		FRtoBR = FRtoBR_Move[FRtoBR][m];
-		URFtoDLF = URFtoDLF_Move[URFtoDLF][m];
-		URtoUL = URtoUL_Move[URtoUL][m];
-		UBtoDF = UBtoDF_Move[UBtoDF][m];
+		FRtoBR = FRtoBR_Move()[FRtoBR][m];
+		URFtoDLF = URFtoDLF_Move()[URFtoDLF][m];
+		URtoUL = URtoUL_Move()[URtoUL][m];
+		UBtoDF = UBtoDF_Move()[UBtoDF][m];
 		if (URtoUL < 336 && UBtoDF < 336)// updated only if UR,UF,UL,UB,DR,DF
 			// are not in UD-slice
-			URtoDF = MergeURtoULandUBtoDF[URtoUL][UBtoDF];
+			URtoDF = mergeURtoULandUBtoDF(URtoUL, UBtoDF);
 	}
 
 	// ******************************************Phase 1 move tables*****************************************************
@@ -64,18 +106,24 @@ class CoordCube {
 	// Move table for the twists of the corners
 	// twist < 2187 in phase 2.
 	// twist = 0 in phase 2.
-	static short[][] twistMove = new short[N_TWIST][N_MOVE];
-	static {
-		CubieCube a = new CubieCube();
-		for (short i = 0; i < N_TWIST; i++) {
-			a.setTwist(i);
-			for (int j = 0; j < 6; j++) {
-				for (int k = 0; k < 3; k++) {
-					a.cornerMultiply(CubieCube.moveCube[j]);
-					twistMove[i][3 * j + k] = a.getTwist();
+	static short[][] twistMove() {
+		return TwistMove.table;
+	}
+
+	private static final class TwistMove {
+		static final short[][] table = new short[N_TWIST][N_MOVE];
+		static {
+			CubieCube a = new CubieCube();
+			for (short i = 0; i < N_TWIST; i++) {
+				a.setTwist(i);
+				for (int j = 0; j < 6; j++) {
+					for (int k = 0; k < 3; k++) {
+						a.cornerMultiply(CubieCube.moveCube[j]);
+						table[i][3 * j + k] = a.getTwist();
+					}
+					a.cornerMultiply(CubieCube.moveCube[j]);// 4. faceturn restores
+					// a
 				}
-				a.cornerMultiply(CubieCube.moveCube[j]);// 4. faceturn restores
-				// a
 			}
 		}
 	}
@@ -84,18 +132,24 @@ class CoordCube {
 	// Move table for the flips of the edges
 	// flip < 2048 in phase 1
 	// flip = 0 in phase 2.
-	static short[][] flipMove = new short[N_FLIP][N_MOVE];
-	static {
-		CubieCube a = new CubieCube();
-		for (short i = 0; i < N_FLIP; i++) {
-			a.setFlip(i);
-			for (int j = 0; j < 6; j++) {
-				for (int k = 0; k < 3; k++) {
+	static short[][] flipMove() {
+		return FlipMove.table;
+	}
+
+	private static final class FlipMove {
+		static final short[][] table = new short[N_FLIP][N_MOVE];
+		static {
+			CubieCube a = new CubieCube();
+			for (short i = 0; i < N_FLIP; i++) {
+				a.setFlip(i);
+				for (int j = 0; j < 6; j++) {
+					for (int k = 0; k < 3; k++) {
+						a.edgeMultiply(CubieCube.moveCube[j]);
+						table[i][3 * j + k] = a.getFlip();
+					}
 					a.edgeMultiply(CubieCube.moveCube[j]);
-					flipMove[i][3 * j + k] = a.getFlip();
+					// a
 				}
-				a.edgeMultiply(CubieCube.moveCube[j]);
-				// a
 			}
 		}
 	}
@@ -113,17 +167,23 @@ class CoordCube {
 	// FRtoBRMove < 11880 in phase 1
 	// FRtoBRMove < 24 in phase 2
 	// FRtoBRMove = 0 for solved cube
-	static short[][] FRtoBR_Move = new short[N_FRtoBR][N_MOVE];
-	static {
-		CubieCube a = new CubieCube();
-		for (short i = 0; i < N_FRtoBR; i++) {
-			a.setFRtoBR(i);
-			for (int j = 0; j < 6; j++) {
-				for (int k = 0; k < 3; k++) {
+	static short[][] FRtoBR_Move() {
+		return FRtoBRMove.table;
+	}
+
+	private static final class FRtoBRMove {
+		static final short[][] table = new short[N_FRtoBR][N_MOVE];
+		static {
+			CubieCube a = new CubieCube();
+			for (short i = 0; i < N_FRtoBR; i++) {
+				a.setFRtoBR(i);
+				for (int j = 0; j < 6; j++) {
+					for (int k = 0; k < 3; k++) {
+						a.edgeMultiply(CubieCube.moveCube[j]);
+						table[i][3 * j + k] = a.getFRtoBR();
+					}
 					a.edgeMultiply(CubieCube.moveCube[j]);
-					FRtoBR_Move[i][3 * j + k] = a.getFRtoBR();
 				}
-				a.edgeMultiply(CubieCube.moveCube[j]);
 			}
 		}
 	}
@@ -135,17 +195,23 @@ class CoordCube {
 	// URFtoDLF < 20160 in phase 1
 	// URFtoDLF < 20160 in phase 2
 	// URFtoDLF = 0 for solved cube.
-	static short[][] URFtoDLF_Move = new short[N_URFtoDLF][N_MOVE];
-	static {
-		CubieCube a = new CubieCube();
-		for (short i = 0; i < N_URFtoDLF; i++) {
-			a.setURFtoDLF(i);
-			for (int j = 0; j < 6; j++) {
-				for (int k = 0; k < 3; k++) {
+	static short[][] URFtoDLF_Move() {
+		return URFtoDLFMove.table;
+	}
+
+	private static final class URFtoDLFMove {
+		static final short[][] table = new short[N_URFtoDLF][N_MOVE];
+		static {
+			CubieCube a = new CubieCube();
+			for (short i = 0; i < N_URFtoDLF; i++) {
+				a.setURFtoDLF(i);
+				for (int j = 0; j < 6; j++) {
+					for (int k = 0; k < 3; k++) {
+						a.cornerMultiply(CubieCube.moveCube[j]);
+						table[i][3 * j + k] = a.getURFtoDLF();
+					}
 					a.cornerMultiply(CubieCube.moveCube[j]);
-					URFtoDLF_Move[i][3 * j + k] = a.getURFtoDLF();
 				}
-				a.cornerMultiply(CubieCube.moveCube[j]);
 			}
 		}
 	}
@@ -156,19 +222,28 @@ class CoordCube {
 	// URtoDF < 665280 in phase 1
 	// URtoDF < 20160 in phase 2
 	// URtoDF = 0 for solved cube.
-	static short[][] URtoDF_Move = new short[N_URtoDF][N_MOVE];
-	static {
-		CubieCube a = new CubieCube();
-		for (short i = 0; i < N_URtoDF; i++) {
-			a.setURtoDF(i);
-			for (int j = 0; j < 6; j++) {
-				for (int k = 0; k < 3; k++) {
+	// Only phase2 moves m are allowed. The compact profile stores only their 10 columns.
+	static short moveURtoDF(int URtoDF, int m) {
+		return PROFILE == Profile.FULL ? URtoDFMove.table[URtoDF][m] : URtoDFMove.table[URtoDF][PHASE2_COLUMN[m]];
+	}
+
+	private static final class URtoDFMove {
+		static final short[][] table = new short[N_URtoDF][PROFILE == Profile.FULL ? N_MOVE : PHASE2_MOVES.length];
+		static {
+			CubieCube a = new CubieCube();
+			for (short i = 0; i < N_URtoDF; i++) {
+				a.setURtoDF(i);
+				for (int j = 0; j < 6; j++) {
+					for (int k = 0; k < 3; k++) {
+						a.edgeMultiply(CubieCube.moveCube[j]);
+						int column = PROFILE == Profile.FULL ? 3 * j + k : PHASE2_COLUMN[3 * j + k];
+						if (column >= 0)
+							table[i][column] = (short) a.getURtoDF();
+						// Table values are only valid for phase 2 moves!
+						// For phase 1 moves, casting to short is not possible.
+					}
 					a.edgeMultiply(CubieCube.moveCube[j]);
-					URtoDF_Move[i][3 * j + k] = (short) a.getURtoDF();
-					// Table values are only valid for phase 2 moves!
-					// For phase 1 moves, casting to short is not possible.
 				}
-				a.edgeMultiply(CubieCube.moveCube[j]);
 			}
 		}
 	}
@@ -177,47 +252,68 @@ class CoordCube {
 
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	// Move table for the three edges UR,UF and UL in phase1.
-	static short[][] URtoUL_Move = new short[N_URtoUL][N_MOVE];
-	static {
-		CubieCube a = new CubieCube();
-		for (short i = 0; i < N_URtoUL; i++) {
-			a.setURtoUL(i);
-			for (int j = 0; j < 6; j++) {
-				for (int k = 0; k < 3; k++) {
+	static short[][] URtoUL_Move() {
+		return URtoULMove.table;
+	}
+
+	private static final class URtoULMove {
+		static final short[][] table = new short[N_URtoUL][N_MOVE];
+		static {
+			CubieCube a = new CubieCube();
+			for (short i = 0; i < N_URtoUL; i++) {
+				a.setURtoUL(i);
+				for (int j = 0; j < 6; j++) {
+					for (int k = 0; k < 3; k++) {
+						a.edgeMultiply(CubieCube.moveCube[j]);
+						table[i][3 * j + k] = a.getURtoUL();
+					}
 					a.edgeMultiply(CubieCube.moveCube[j]);
-					URtoUL_Move[i][3 * j + k] = a.getURtoUL();
 				}
-				a.edgeMultiply(CubieCube.moveCube[j]);
 			}
 		}
 	}
 
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	// Move table for the three edges UB,DR and DF in phase1.
-	static short[][] UBtoDF_Move = new short[N_UBtoDF][N_MOVE];
-	static {
-		CubieCube a = new CubieCube();
-		for (short i = 0; i < N_UBtoDF; i++) {
-			a.setUBtoDF(i);
-			for (int j = 0; j < 6; j++) {
-				for (int k = 0; k < 3; k++) {
+	static short[][] UBtoDF_Move() {
+		return UBtoDFMove.table;
+	}
+
+	private static final class UBtoDFMove {
+		static final short[][] table = new short[N_UBtoDF][N_MOVE];
+		static {
+			CubieCube a = new CubieCube();
+			for (short i = 0; i < N_UBtoDF; i++) {
+				a.setUBtoDF(i);
+				for (int j = 0; j < 6; j++) {
+					for (int k = 0; k < 3; k++) {
+						a.edgeMultiply(CubieCube.moveCube[j]);
+						table[i][3 * j + k] = a.getUBtoDF();
+					}
 					a.edgeMultiply(CubieCube.moveCube[j]);
-					UBtoDF_Move[i][3 * j + k] = a.getUBtoDF();
 				}
-				a.edgeMultiply(CubieCube.moveCube[j]);
 			}
 		}
 	}
 
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
-	// Table to merge the coordinates of the UR,UF,UL and UB,DR,DF edges at the beginning of phase2
-	static short[][] MergeURtoULandUBtoDF = new short[336][336];
-	static {
-		// for i, j <336 the six edges UR,UF,UL,UB,DR,DF are not in the
-		// UD-slice and the index is <20160
-		for (short uRtoUL = 0; uRtoUL < 336; uRtoUL++) {
-			for (short uBtoDF = 0; uBtoDF < 336; uBtoDF++) {
-				MergeURtoULandUBtoDF[uRtoUL][uBtoDF] = (short) CubieCube.getURtoDF(uRtoUL, uBtoDF);
+	// Merge the coordinates of the UR,UF,UL and UB,DR,DF edges at the beginning of phase2.
+	// Both coordinates must be < 336. The compact profile computes the value instead of reading the table.
+	static short mergeURtoULandUBtoDF(int URtoUL, int UBtoDF) {
+		if (PROFILE == Profile.FULL)
+			return MergeURtoULandUBtoDF.table[URtoUL][UBtoDF];
+		return (short) CubieCube.getURtoDF((short) URtoUL, (short) UBtoDF);
+	}
+
+	private static final class MergeURtoULandUBtoDF {
+		static final short[][] table = new short[336][336];
+		static {
+			// for i, j <336 the six edges UR,UF,UL,UB,DR,DF are not in the
+			// UD-slice and the index is <20160
+			for (short uRtoUL = 0; uRtoUL < 336; uRtoUL++) {
+				for (short uBtoDF = 0; uBtoDF < 336; uBtoDF++) {
+					table[uRtoUL][uBtoDF] = (short) CubieCube.getURtoDF(uRtoUL, uBtoDF);
+				}
 			}
 		}
 	}
@@ -227,144 +323,183 @@ class CoordCube {
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	// Pruning table for the permutation of the corners and the UD-slice edges in phase2.
 	// The pruning table entries give a lower estimation for the number of moves to reach the solved cube.
-	static byte[] Slice_URFtoDLF_Parity_Prun = new byte[N_SLICE2 * N_URFtoDLF * N_PARITY / 2];
-	static {
-		for (int i = 0; i < N_SLICE2 * N_URFtoDLF * N_PARITY / 2; i++)
-			Slice_URFtoDLF_Parity_Prun[i] = -1;
+	// The first method computes the exact table value for a fresh cube, the second one uses the exact value of the
+	// parent node, which is much faster with the compact profile.
+	static int getCornerPruning(int URFtoDLF, int FRtoBR, int parity) {
+		return phase2Pruning(SliceURFtoDLFParityPrun.table, (N_SLICE2 * URFtoDLF + FRtoBR) * 2 + parity,
+				CoordCube::moveCornerIndex);
+	}
+
+	static int getCornerPruning(int URFtoDLF, int FRtoBR, int parity, int parentValue) {
+		return phase2Pruning(SliceURFtoDLFParityPrun.table, (N_SLICE2 * URFtoDLF + FRtoBR) * 2 + parity, parentValue);
+	}
+
+	private static int moveCornerIndex(int i, int m) {
+		return (N_SLICE2 * URFtoDLF_Move()[(i / 2) / N_SLICE2][m] + FRtoBR_Move()[(i / 2) % N_SLICE2][m]) * 2
+				+ parityMove[i % 2][m];
+	}
+
+	private static final class SliceURFtoDLFParityPrun {
+		static final byte[] table = buildPhase2Pruning(N_SLICE2 * N_URFtoDLF * N_PARITY, CoordCube::moveCornerIndex);
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Pruning table for the permutation of the edges in phase2.
+	// The pruning table entries give a lower estimation for the number of moves to reach the solved cube.
+	static int getEdgePruning(int URtoDF, int FRtoBR, int parity) {
+		return phase2Pruning(SliceURtoDFParityPrun.table, (N_SLICE2 * URtoDF + FRtoBR) * 2 + parity,
+				CoordCube::moveEdgeIndex);
+	}
+
+	static int getEdgePruning(int URtoDF, int FRtoBR, int parity, int parentValue) {
+		return phase2Pruning(SliceURtoDFParityPrun.table, (N_SLICE2 * URtoDF + FRtoBR) * 2 + parity, parentValue);
+	}
+
+	private static int moveEdgeIndex(int i, int m) {
+		return (N_SLICE2 * moveURtoDF((i / 2) / N_SLICE2, m) + FRtoBR_Move()[(i / 2) % N_SLICE2][m]) * 2
+				+ parityMove[i % 2][m];
+	}
+
+	private static final class SliceURtoDFParityPrun {
+		static final byte[] table = buildPhase2Pruning(N_SLICE2 * N_URtoDF * N_PARITY, CoordCube::moveEdgeIndex);
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Build a phase2 pruning table over n entries by a breadth first search from entry 0. With the compact profile the
+	// search scans for depth d modulo 3, so entries of depth d-3 are expanded again, which only costs time.
+	private static byte[] buildPhase2Pruning(int n, IntBinaryOperator move) {
+		boolean compact = PROFILE == Profile.COMPACT;
+		byte[] table = new byte[compact ? n / 4 : n / 2];
+		Arrays.fill(table, (byte) -1);
+		int empty = compact ? 3 : 0x0f;
+		setPhase2(table, 0, 0);
 		int depth = 0;
-		setPruning(Slice_URFtoDLF_Parity_Prun, 0, (byte) 0);
 		int done = 1;
-		while (done != N_SLICE2 * N_URFtoDLF * N_PARITY) {
-			for (int i = 0; i < N_SLICE2 * N_URFtoDLF * N_PARITY; i++) {
-				int parity = i % 2;
-				int URFtoDLF = (i / 2) / N_SLICE2;
-				int slice = (i / 2) % N_SLICE2;
-				if (getPruning(Slice_URFtoDLF_Parity_Prun, i) == depth) {
-					for (int j = 0; j < 18; j++) {
-						switch (j) {
-						case 3:
-						case 5:
-						case 6:
-						case 8:
-						case 12:
-						case 14:
-						case 15:
-						case 17:
-							continue;
-						default:
-							int newSlice = FRtoBR_Move[slice][j];
-							int newURFtoDLF = URFtoDLF_Move[URFtoDLF][j];
-							int newParity = parityMove[parity][j];
-							if (getPruning(Slice_URFtoDLF_Parity_Prun, (N_SLICE2 * newURFtoDLF + newSlice) * 2 + newParity) == 0x0f) {
-								setPruning(Slice_URFtoDLF_Parity_Prun, (N_SLICE2 * newURFtoDLF + newSlice) * 2 + newParity,
-										(byte) (depth + 1));
-								done++;
-							}
+		while (done != n) {
+			for (int i = 0; i < n; i++) {
+				if (getPhase2(table, i) == (compact ? depth % 3 : depth)) {
+					for (int j : PHASE2_MOVES) {
+						int k = move.applyAsInt(i, j);
+						if (getPhase2(table, k) == empty) {
+							setPhase2(table, k, compact ? (depth + 1) % 3 : depth + 1);
+							done++;
 						}
 					}
 				}
 			}
 			depth++;
 		}
+		return table;
+	}
+
+	private static int getPhase2(byte[] table, int index) {
+		if (PROFILE == Profile.FULL)
+			return getPruning(table, index);
+		return (table[index >> 2] >> ((index & 3) << 1)) & 3;
+	}
+
+	private static void setPhase2(byte[] table, int index, int value) {
+		if (PROFILE == Profile.FULL)
+			setPruning(table, index, (byte) value);
+		else
+			table[index >> 2] &= ~((3 - value) << ((index & 3) << 1));
 	}
 
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
-	// Pruning table for the permutation of the edges in phase2.
-	// The pruning table entries give a lower estimation for the number of moves to reach the solved cube.
-	static byte[] Slice_URtoDF_Parity_Prun = new byte[N_SLICE2 * N_URtoDF * N_PARITY / 2];
-	static {
-		for (int i = 0; i < N_SLICE2 * N_URtoDF * N_PARITY / 2; i++)
-			Slice_URtoDF_Parity_Prun[i] = -1;
+	// Exact phase2 pruning value of entry index, for a fresh cube. The compact profile follows the entries of
+	// decreasing depth down to the solved entry 0 and counts the steps.
+	private static int phase2Pruning(byte[] table, int index, IntBinaryOperator move) {
+		if (PROFILE == Profile.FULL)
+			return getPruning(table, index);
 		int depth = 0;
-		setPruning(Slice_URtoDF_Parity_Prun, 0, (byte) 0);
-		int done = 1;
-		while (done != N_SLICE2 * N_URtoDF * N_PARITY) {
-			for (int i = 0; i < N_SLICE2 * N_URtoDF * N_PARITY; i++) {
-				int parity = i % 2;
-				int URtoDF = (i / 2) / N_SLICE2;
-				int slice = (i / 2) % N_SLICE2;
-				if (getPruning(Slice_URtoDF_Parity_Prun, i) == depth) {
-					for (int j = 0; j < 18; j++) {
-						switch (j) {
-						case 3:
-						case 5:
-						case 6:
-						case 8:
-						case 12:
-						case 14:
-						case 15:
-						case 17:
-							continue;
-						default:
-							int newSlice = FRtoBR_Move[slice][j];
-							int newURtoDF = URtoDF_Move[URtoDF][j];
-							int newParity = parityMove[parity][j];
-							if (getPruning(Slice_URtoDF_Parity_Prun, (N_SLICE2 * newURtoDF + newSlice) * 2 + newParity) == 0x0f) {
-								setPruning(Slice_URtoDF_Parity_Prun, (N_SLICE2 * newURtoDF + newSlice) * 2 + newParity,
-										(byte) (depth + 1));
-								done++;
-							}
-						}
-					}
+		while (index != 0) {
+			int below = (getPhase2(table, index) + 2) % 3;
+			for (int j : PHASE2_MOVES) {
+				int k = move.applyAsInt(index, j);
+				if (getPhase2(table, k) == below) {
+					index = k;
+					break;
 				}
 			}
 			depth++;
 		}
+		return depth;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Exact phase2 pruning value of entry index, for a neighbour of a node with the exact value parentValue. One move
+	// changes the value by at most one, so its value modulo 3 is enough.
+	private static int phase2Pruning(byte[] table, int index, int parentValue) {
+		if (PROFILE == Profile.FULL)
+			return getPruning(table, index);
+		return parentValue - 1 + Math.floorMod(getPhase2(table, index) - parentValue + 1, 3);
 	}
 
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	// Pruning table for the twist of the corners and the position (not permutation) of the UD-slice edges in phase1
 	// The pruning table entries give a lower estimation for the number of moves to reach the H-subgroup.
-	static byte[] Slice_Twist_Prun = new byte[N_SLICE1 * N_TWIST / 2 + 1];
-	static {
-		for (int i = 0; i < N_SLICE1 * N_TWIST / 2 + 1; i++)
-			Slice_Twist_Prun[i] = -1;
-		int depth = 0;
-		setPruning(Slice_Twist_Prun, 0, (byte) 0);
-		int done = 1;
-		while (done != N_SLICE1 * N_TWIST) {
-			for (int i = 0; i < N_SLICE1 * N_TWIST; i++) {
-				int twist = i / N_SLICE1, slice = i % N_SLICE1;
-				if (getPruning(Slice_Twist_Prun, i) == depth) {
-					for (int j = 0; j < 18; j++) {
-						int newSlice = FRtoBR_Move[slice * 24][j] / 24;
-						int newTwist = twistMove[twist][j];
-						if (getPruning(Slice_Twist_Prun, N_SLICE1 * newTwist + newSlice) == 0x0f) {
-							setPruning(Slice_Twist_Prun, N_SLICE1 * newTwist + newSlice, (byte) (depth + 1));
-							done++;
+	static byte[] Slice_Twist_Prun() {
+		return SliceTwistPrun.table;
+	}
+
+	private static final class SliceTwistPrun {
+		static final byte[] table = new byte[N_SLICE1 * N_TWIST / 2 + 1];
+		static {
+			for (int i = 0; i < N_SLICE1 * N_TWIST / 2 + 1; i++)
+				table[i] = -1;
+			int depth = 0;
+			setPruning(table, 0, (byte) 0);
+			int done = 1;
+			while (done != N_SLICE1 * N_TWIST) {
+				for (int i = 0; i < N_SLICE1 * N_TWIST; i++) {
+					int twist = i / N_SLICE1, slice = i % N_SLICE1;
+					if (getPruning(table, i) == depth) {
+						for (int j = 0; j < 18; j++) {
+							int newSlice = FRtoBR_Move()[slice * 24][j] / 24;
+							int newTwist = twistMove()[twist][j];
+							if (getPruning(table, N_SLICE1 * newTwist + newSlice) == 0x0f) {
+								setPruning(table, N_SLICE1 * newTwist + newSlice, (byte) (depth + 1));
+								done++;
+							}
 						}
 					}
 				}
+				depth++;
 			}
-			depth++;
 		}
 	}
 
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	// Pruning table for the flip of the edges and the position (not permutation) of the UD-slice edges in phase1
 	// The pruning table entries give a lower estimation for the number of moves to reach the H-subgroup.
-	static byte[] Slice_Flip_Prun = new byte[N_SLICE1 * N_FLIP / 2];
-	static {
-		for (int i = 0; i < N_SLICE1 * N_FLIP / 2; i++)
-			Slice_Flip_Prun[i] = -1;
-		int depth = 0;
-		setPruning(Slice_Flip_Prun, 0, (byte) 0);
-		int done = 1;
-		while (done != N_SLICE1 * N_FLIP) {
-			for (int i = 0; i < N_SLICE1 * N_FLIP; i++) {
-				int flip = i / N_SLICE1, slice = i % N_SLICE1;
-				if (getPruning(Slice_Flip_Prun, i) == depth) {
-					for (int j = 0; j < 18; j++) {
-						int newSlice = FRtoBR_Move[slice * 24][j] / 24;
-						int newFlip = flipMove[flip][j];
-						if (getPruning(Slice_Flip_Prun, N_SLICE1 * newFlip + newSlice) == 0x0f) {
-							setPruning(Slice_Flip_Prun, N_SLICE1 * newFlip + newSlice, (byte) (depth + 1));
-							done++;
+	static byte[] Slice_Flip_Prun() {
+		return SliceFlipPrun.table;
+	}
+
+	private static final class SliceFlipPrun {
+		static final byte[] table = new byte[N_SLICE1 * N_FLIP / 2];
+		static {
+			for (int i = 0; i < N_SLICE1 * N_FLIP / 2; i++)
+				table[i] = -1;
+			int depth = 0;
+			setPruning(table, 0, (byte) 0);
+			int done = 1;
+			while (done != N_SLICE1 * N_FLIP) {
+				for (int i = 0; i < N_SLICE1 * N_FLIP; i++) {
+					int flip = i / N_SLICE1, slice = i % N_SLICE1;
+					if (getPruning(table, i) == depth) {
+						for (int j = 0; j < 18; j++) {
+							int newSlice = FRtoBR_Move()[slice * 24][j] / 24;
+							int newFlip = flipMove()[flip][j];
+							if (getPruning(table, N_SLICE1 * newFlip + newSlice) == 0x0f) {
+								setPruning(table, N_SLICE1 * newFlip + newSlice, (byte) (depth + 1));
+								done++;
+							}
 						}
 					}
 				}
+				depth++;
 			}
-			depth++;
 		}
 	}
 
@@ -385,4 +520,46 @@ class CoordCube {
 		else
 			return (byte) ((table[index / 2] & 0xf0) >>> 4);
 	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Heap footprint of the tables in both profiles, in bytes. Arrays count a 16 byte header and 4 byte references.
+	static String footprint() {
+		String[] names = { "twistMove", "flipMove", "FRtoBR_Move", "URFtoDLF_Move", "URtoDF_Move", "URtoUL_Move",
+				"UBtoDF_Move", "MergeURtoULandUBtoDF", "Slice_URFtoDLF_Parity_Prun", "Slice_URtoDF_Parity_Prun",
+				"Slice_Twist_Prun", "Slice_Flip_Prun" };
+		long[][] bytes = new long[names.length][];
+		for (Profile p : Profile.values()) {
+			boolean full = p == Profile.FULL;
+			long[] b = { table2D(N_TWIST, N_MOVE), table2D(N_FLIP, N_MOVE), table2D(N_FRtoBR, N_MOVE),
+					table2D(N_URFtoDLF, N_MOVE), table2D(N_URtoDF, full ? N_MOVE : PHASE2_MOVES.length),
+					table2D(N_URtoUL, N_MOVE), table2D(N_UBtoDF, N_MOVE), full ? table2D(336, 336) : 0,
+					array(N_SLICE2 * N_URFtoDLF * N_PARITY / (full ? 2 : 4)),
+					array(N_SLICE2 * N_URtoDF * N_PARITY / (full ? 2 : 4)), array(N_SLICE1 * N_TWIST / 2 + 1),
+					array(N_SLICE1 * N_FLIP / 2) };
+			for (int i = 0; i < names.length; i++) {
+				if (bytes[i] == null)
+					bytes[i] = new long[Profile.values().length];
+				bytes[i][p.ordinal()] = b[i];
+			}
+		}
+
+		StringBuilder sb = new StringBuilder(String.format("%-28s %10s %10s%n", "table", "FULL", "COMPACT"));
+		long[] total = new long[Profile.values().length];
+		for (int i = 0; i < names.length; i++) {
+			sb.append(String.format("%-28s %10d %10d%n", names[i], bytes[i][0], bytes[i][1]));
+			total[0] += bytes[i][0];
+			total[1] += bytes[i][1];
+		}
+		sb.append(String.format("%-28s %10d %10d%n", "total", total[0], total[1]));
+		sb.append("active profile: " + PROFILE);
+		return sb.toString();
+	}
+
+	private static long array(long bytes) {
+		return 16 + (bytes + 7) / 8 * 8;
+	}
+
+	private static long table2D(int rows, int columns) {
+		return array(4L * rows) + rows * array(2L * columns);
+	}
 }
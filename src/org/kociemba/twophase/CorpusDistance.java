@@ -0,0 +1,237 @@
+package org.kociemba.twophase;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Corpus de cubes à distance optimale exacte : un mélange de d coups est souvent résolu en moins de d coups,
+ * la longueur du mélange n’est donc pas une classe de difficulté fiable
+ * Chaque candidat (mélange canonique de d coups, tiré avec une graine fixe) est gardé si sa distance optimale,
+ * calculée par RubikIA.distanceOptimale, vaut exactement d. Les vérifications se font en parallèle,
+ * par lots ; les candidats sont gardés dans l’ordre du tirage. Chaque vérification est limitée en nœuds,
+ * pas en temps : le corpus ne dépend ni du nombre de threads ni de la charge de la machine
+ *
+ * Portée : jusqu’à la distance 12, une vérification demande au plus un million de nœuds environ (quelques secondes) ;
+ * à 13, plusieurs millions (une minute par cube), et au-delà la recherche optimale ne termine plus en un temps
+ * raisonnable. Les distances au-delà de DISTANCE_MAX sont donc refusées. Un candidat que le plafond de nœuds
+ * ne permet pas de prouver est écarté ; comme ces candidats sont les plus difficiles, la génération s’arrête
+ * si leur part dépasse TAUX_NON_VERIFIES_MAX plutôt que de produire un corpus biaisé vers les cubes faciles
+ *
+ * Le corpus est mis en cache dans un fichier (54 facettes par ligne, lisible par CompetitionIA -fichier) :
+ * une seconde demande avec les mêmes paramètres relit le fichier au lieu de refaire les vérifications
+ *
+ * Options : -distance distances séparées par des virgules, -n nombre de cubes par distance,
+ * -graine graine du tirage, -threads nombre de vérifications simultanées (par défaut, un par cœur),
+ * -dossier dossier des fichiers de cache (par défaut, le dossier courant),
+ * -noeuds plafond de nœuds d’une vérification (par défaut NOEUDS_VERIFICATION)
+ */
+public final class CorpusDistance {
+
+	static final int CUBES = 100;
+
+	/**
+	 * Distance maximale vérifiable en un temps raisonnable (voir la portée ci-dessus)
+	 */
+	static final int DISTANCE_MAX = 12;
+
+	/**
+	 * Plafond de nœuds d’une vérification : deux fois le plus grand nombre observé à la distance 12
+	 */
+	static final long NOEUDS_VERIFICATION = 2_000_000L;
+
+	/**
+	 * Part maximale de candidats non vérifiés, mesurée après CANDIDATS_AVANT_ARRET candidats
+	 */
+	static final double TAUX_NON_VERIFIES_MAX = 0.05;
+	static final int CANDIDATS_AVANT_ARRET = 20;
+
+	/**
+	 * Candidats tirés au plus par cube demandé, au-delà la génération abandonne
+	 */
+	static final int ESSAIS_PAR_CUBE = 100;
+
+	private CorpusDistance() {
+	}
+
+	/**
+	 * Fichier de cache du corpus de paramètres donnés
+	 */
+	static Path fichier(Path dossier, int distance, int n, long graine) {
+		return dossier.resolve("corpus-distance" + distance + "-n" + n + "-g" + graine + ".txt");
+	}
+
+	/**
+	 * Corpus de n cubes à distance exacte, relu depuis le cache s’il existe, sinon généré puis mis en cache
+	 */
+	static CubieCube[] charger(RubikIA ia, Path dossier, int distance, int n, long graine, int threads)
+			throws IOException {
+		return charger(ia, dossier, distance, n, graine, threads, NOEUDS_VERIFICATION);
+	}
+
+	/**
+	 * Comme charger, avec un plafond de nœuds donné pour chaque vérification
+	 */
+	static CubieCube[] charger(RubikIA ia, Path dossier, int distance, int n, long graine, int threads,
+			long noeudsMax) throws IOException {
+		verifierPortee(distance);
+		Path f = fichier(dossier, distance, n, graine);
+		if (Files.exists(f)) {
+			CubieCube[] cubes = lire(f);
+			if (cubes.length == n) {
+				System.out.println("   ✅ distance " + distance + " : relu depuis " + f);
+				return cubes;
+			}
+			System.out.println("   ⚠️ cache incomplet, corpus régénéré : " + f);
+		}
+		long t0 = System.nanoTime();
+		CubieCube[] cubes = generer(ia, distance, n, graine, threads, noeudsMax);
+		ecrire(f, cubes, distance, graine);
+		System.out.printf("   ✅ distance %d : %d cubes en %.1fs, mis en cache dans %s%n", distance, n,
+				(System.nanoTime() - t0) / 1e9, f);
+		return cubes;
+	}
+
+	/**
+	 * Refuse une distance hors de la portée de la vérification
+	 */
+	static void verifierPortee(int distance) {
+		if (distance < 0)
+			throw new IllegalArgumentException("distance invalide : " + distance);
+		if (distance > DISTANCE_MAX)
+			throw new IllegalArgumentException("distance " + distance + " hors de portée : la distance optimale "
+					+ "n’est vérifiable que jusqu’à " + DISTANCE_MAX + " coups (voir CorpusDistance)");
+	}
+
+	/**
+	 * Tire des candidats jusqu’à en avoir n à distance exacte, chaque vérification étant limitée à noeudsMax nœuds
+	 */
+	static CubieCube[] generer(RubikIA ia, int distance, int n, long graine, int threads, long noeudsMax) {
+		verifierPortee(distance);
+		ia.preparer();
+		Random rnd = new Random(graine + distance);
+		List<CubieCube> gardes = new ArrayList<>();
+		int candidats = 0, plusCourts = 0, nonVerifies = 0;
+		int lot = 4 * threads;
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			while (gardes.size() < n) {
+				if (candidats >= ESSAIS_PAR_CUBE * n)
+					throw new IllegalStateException("distance " + distance + " : " + gardes.size() + " cubes sur " + n
+							+ " après " + candidats + " candidats (" + nonVerifies + " non vérifiés)");
+				List<CubieCube> essais = new ArrayList<>();
+				List<Callable<Integer>> verifications = new ArrayList<>();
+				for (int i = 0; i < lot; i++) {
+					CubieCube c = candidat(distance, rnd);
+					essais.add(c);
+					verifications.add(() -> ia.distanceOptimale(c, noeudsMax));
+				}
+				List<Future<Integer>> distances = pool.invokeAll(verifications);
+				for (int i = 0; i < lot && gardes.size() < n; i++) {
+					candidats++;
+					int d = distances.get(i).get();
+					if (d == distance) gardes.add(essais.get(i));
+					else if (d < 0) nonVerifies++;
+					else plusCourts++;
+				}
+				if (candidats >= CANDIDATS_AVANT_ARRET && nonVerifies > TAUX_NON_VERIFIES_MAX * candidats)
+					throw new IllegalStateException(String.format(Locale.ROOT, "distance %d : %d candidats sur %d "
+							+ "non vérifiés en %d nœuds, le corpus serait biaisé vers les cubes faciles ; "
+							+ "augmenter -noeuds ou choisir une distance plus courte", distance, nonVerifies,
+							candidats, noeudsMax));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("génération interrompue", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("vérification impossible", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+		System.out.printf("   distance %d : %d candidats, %d plus courts, %d non vérifiés%n", distance, candidats,
+				plusCourts, nonVerifies);
+		return gardes.toArray(new CubieCube[0]);
+	}
+
+	/**
+	 * Mélange canonique de d coups : jamais deux fois la même face, et deux faces opposées
+	 * toujours dans le même ordre (U avant D, R avant L, F avant B), car leurs quarts de tour commutent
+	 */
+	static CubieCube candidat(int d, Random rnd) {
+		CubieCube c = new CubieCube();
+		int last = -1;
+		for (int i = 0; i < d; i++) {
+			int mv;
+			do {
+				mv = rnd.nextInt(RubikIA.NB_MOVES);
+			} while (last != -1 && (RubikIA.MOVE_FACE[mv] == RubikIA.MOVE_FACE[last]
+					|| RubikIA.MOVE_FACE[mv] + 3 == RubikIA.MOVE_FACE[last]));
+			RubikIA.applyMove18(c, mv);
+			last = mv;
+		}
+		return c;
+	}
+
+	private static CubieCube[] lire(Path f) throws IOException {
+		List<CubieCube> cubes = new ArrayList<>();
+		for (String l : Files.readAllLines(f, StandardCharsets.UTF_8)) {
+			String t = l.trim();
+			if (t.isEmpty() || t.startsWith("#")) continue;
+			if (!t.matches("[URFDLB]{54}"))
+				throw new IllegalArgumentException(f + " : ligne illisible « " + t + " »");
+			cubes.add(new FaceCube(t).toCubieCube());
+		}
+		return cubes.toArray(new CubieCube[0]);
+	}
+
+	private static void ecrire(Path f, CubieCube[] cubes, int distance, long graine) throws IOException {
+		if (f.getParent() != null) Files.createDirectories(f.getParent());
+		try (Writer w = Files.newBufferedWriter(f, StandardCharsets.UTF_8)) {
+			w.write("# " + cubes.length + " cubes à distance optimale " + distance + " (graine " + graine + ")\n");
+			for (CubieCube c : cubes)
+				w.write(c.toFaceCube().to_String() + "\n");
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		int[] distances = {10};
+		int n = CUBES;
+		long graine = BancCorpus.GRAINE;
+		int threads = Runtime.getRuntime().availableProcessors();
+		Path dossier = Paths.get(".");
+		long noeuds = NOEUDS_VERIFICATION;
+		for (int k = 0; k < args.length; k++) {
+			switch (args[k]) {
+			case "-distance": distances = Arrays.stream(args[++k].split(",")).mapToInt(Integer::parseInt).toArray(); break;
+			case "-n": n = Integer.parseInt(args[++k]); break;
+			case "-graine": graine = Long.parseLong(args[++k]); break;
+			case "-threads": threads = Integer.parseInt(args[++k]); break;
+			case "-dossier": dossier = Paths.get(args[++k]); break;
+			case "-noeuds": noeuds = Long.parseLong(args[++k]); break;
+			default: throw new IllegalArgumentException("option inconnue : " + args[k]);
+			}
+		}
+		if (n <= 0 || threads <= 0)
+			throw new IllegalArgumentException("nombre de cubes ou de threads invalide");
+		for (int d : distances)
+			verifierPortee(d);
+
+		RubikIA ia = new RubikIA();
+		System.out.println("⏳ Construction des tables...");
+		ia.preparer();
+		for (int d : distances) {
+			System.out.println("⏳ Distance " + d + " (" + n + " cubes)...");
+			charger(ia, dossier, d, n, graine, threads, noeuds);
+		}
+		System.exit(0);
+	}
+}
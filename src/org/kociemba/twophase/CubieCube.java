@@ -3,6 +3,9 @@ package org.kociemba.twophase;
 import static org.kociemba.twophase.Corner.*;
 import static org.kociemba.twophase.Edge.*;
 
+import java.util.Arrays;
+import java.util.Random;
+
 //++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 //Cube on the cubie level
 class CubieCube {
@@ -790,4 +793,163 @@ public CubieCube copy() {
     return c;
 }
 
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Copy the cube c into this cube, without allocating new arrays
+	void set(CubieCube c) {
+		System.arraycopy(c.cp, 0, cp, 0, 8);
+		System.arraycopy(c.co, 0, co, 0, 8);
+		System.arraycopy(c.ep, 0, ep, 0, 12);
+		System.arraycopy(c.eo, 0, eo, 0, 12);
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Packed representation of a cube in PACKED_SIZE bytes: cp[8], co[8], ep[12], eo[12] (ordinals and orientations).
+	// Used to keep many cubes in one primitive buffer.
+	static final int PACKED_SIZE = 40;
+	private static final Corner[] corners = Corner.values();
+	private static final Edge[] edges = Edge.values();
+
+	void pack(byte[] buf, int off) {
+		for (int i = 0; i < 8; i++) {
+			buf[off + i] = (byte) cp[i].ordinal();
+			buf[off + 8 + i] = co[i];
+		}
+		for (int i = 0; i < 12; i++) {
+			buf[off + 16 + i] = (byte) ep[i].ordinal();
+			buf[off + 28 + i] = eo[i];
+		}
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	void unpack(byte[] buf, int off) {
+		for (int i = 0; i < 8; i++) {
+			cp[i] = corners[buf[off + i]];
+			co[i] = buf[off + 8 + i];
+		}
+		for (int i = 0; i < 12; i++) {
+			ep[i] = edges[buf[off + 16 + i]];
+			eo[i] = buf[off + 28 + i];
+		}
+	}
+
+	// ******************************************* Zobrist hashing and ranking *******************************************
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Zobrist keys: one random 64 bit value for each (position, cubie, orientation) triple.
+	// zobristCorner[i][3 * j + o] stands for corner cubie j with orientation o at corner position i,
+	// zobristEdge[i][2 * j + o] for edge cubie j with orientation o at edge position i.
+	// Only regular cubes (corner orientations 0..2) can be hashed.
+	static final long[][] zobristCorner = new long[8][24];
+	static final long[][] zobristEdge = new long[12][24];
+	static {
+		Random gen = new Random(0x5DEECE66DL);// fixed seed, keys are the same in every run
+		for (int i = 0; i < 8; i++)
+			for (int j = 0; j < 24; j++)
+				zobristCorner[i][j] = gen.nextLong();
+		for (int i = 0; i < 12; i++)
+			for (int j = 0; j < 24; j++)
+				zobristEdge[i][j] = gen.nextLong();
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// The corner and edge positions touched by each of the 6 basic moves. These are the only terms of the Zobrist key
+	// which change with a face turn.
+	static final int[][] moveCorners = new int[6][4];
+	static final int[][] moveEdges = new int[6][4];
+	static {
+		for (int f = 0; f < 6; f++) {
+			for (int i = 0, n = 0; i < 8; i++)
+				if (moveCube[f].cp[i].ordinal() != i)
+					moveCorners[f][n++] = i;
+			for (int i = 0, n = 0; i < 12; i++)
+				if (moveCube[f].ep[i].ordinal() != i)
+					moveEdges[f][n++] = i;
+		}
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Compute the Zobrist key of the cube from scratch
+	long zobrist() {
+		long h = 0;
+		for (int i = 0; i < 8; i++)
+			h ^= zobristCorner[i][3 * cp[i].ordinal() + co[i]];
+		for (int i = 0; i < 12; i++)
+			h ^= zobristEdge[i][2 * ep[i].ordinal() + eo[i]];
+		return h;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Apply move m (0 <= m < 18, axis m / 3, power m % 3 + 1) to the cube and return the Zobrist key of the new
+	// cube, given the key of the old one. Only the 4 corners and 4 edges touched by the move are rehashed.
+	long moveZobrist(int m, long hash) {
+		int face = m / 3;
+		for (int i : moveCorners[face])
+			hash ^= zobristCorner[i][3 * cp[i].ordinal() + co[i]];
+		for (int i : moveEdges[face])
+			hash ^= zobristEdge[i][2 * ep[i].ordinal() + eo[i]];
+		for (int k = m % 3; k >= 0; k--)
+			multiply(moveCube[face]);
+		for (int i : moveCorners[face])
+			hash ^= zobristCorner[i][3 * cp[i].ordinal() + co[i]];
+		for (int i : moveEdges[face])
+			hash ^= zobristEdge[i][2 * ep[i].ordinal() + eo[i]];
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (!(o instanceof CubieCube))
+			return false;
+		CubieCube c = (CubieCube) o;
+		return Arrays.equals(cp, c.cp) && Arrays.equals(co, c.co) && Arrays.equals(ep, c.ep) && Arrays.equals(eo, c.eo);
+	}
+
+	@Override
+	public int hashCode() {
+		long h = zobrist();
+		return (int) (h ^ (h >>> 32));
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Perfect ranking of the cube space. A solvable cube is identified by two numbers:
+	// corner rank = URFtoDLB * 3^7 + twist < 8! * 3^7
+	// edge rank = (URtoBR / 2) * 2^11 + flip < 12! / 2 * 2^11
+	// The last digit of URtoBR is dropped because the edge parity must match the corner parity. The product of the two
+	// ranges is the number of solvable cubes, 43252003274489856000.
+	static final long N_CORNER_RANK = 40320L * 2187;
+	static final long N_EDGE_RANK = 479001600L / 2 * 2048;
+
+	long getCornerRank() {
+		return (long) getURFtoDLB() * 2187 + getTwist();
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	long getEdgeRank() {
+		return (long) (getURtoBR() >> 1) * 2048 + getFlip();
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	void setCornerRank(long rank) {
+		setURFtoDLB((int) (rank / 2187));
+		setTwist((short) (rank % 2187));
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// The corners have to be set first, the edge parity is chosen to match the corner parity.
+	void setEdgeRank(long rank) {
+		int idx = (int) (rank / 2048) << 1;
+		setURtoBR(idx);
+		if (edgeParity() != cornerParity())
+			setURtoBR(idx + 1);
+		setFlip((short) (rank % 2048));
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	void setRank(long cornerRank, long edgeRank) {
+		setCornerRank(cornerRank);
+		setEdgeRank(edgeRank);
+	}
+
 }
@@ -0,0 +1,268 @@
+package org.kociemba.twophase;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Échelle de difficulté : les joueurs montent les profondeurs de mélange 1, 2... jusqu’à la profondeur maximale,
+ * avec K cubes par niveau tirés avec une graine fixe
+ * Un joueur qui échoue ou dépasse son budget de temps sur un cube du niveau d est éliminé des niveaux suivants,
+ * et ses cubes restants au niveau d ne sont pas lancés : les joueurs faibles ne font pas perdre de temps
+ *
+ * Le budget est une limite par cube : à son échéance, le thread du joueur est interrompu
+ * (annulation coopérative, comme dans Portefeuille)
+ * Le rapport donne la profondeur maximale tenue par chaque joueur (tous les niveaux réussis jusque-là)
+ * et ses courbes de temps et de nœuds par profondeur
+ */
+final class EchelleDifficulte {
+
+	static final int CUBES_PAR_NIVEAU = 5;
+	static final int PROFONDEUR_MAX = 20;
+
+	/**
+	 * Budget par défaut d’un cube, en secondes
+	 */
+	static final double BUDGET_SEC = 10.0;
+
+	/**
+	 * Résultats d’un joueur à un niveau
+	 */
+	private static final class Niveau {
+		final int profondeur;
+		final List<RubikIA.Result> resultats = new ArrayList<>();
+		int echecs;
+		int depassements;
+
+		Niveau(int profondeur) {
+			this.profondeur = profondeur;
+		}
+
+		boolean reussi(int cubes) {
+			return echecs == 0 && depassements == 0 && resultats.size() == cubes;
+		}
+
+		double tempsMedianSec() {
+			double[] t = resultats.stream().mapToDouble(r -> r.tempsSec).sorted().toArray();
+			if (t.length == 0) return Double.NaN;
+			return t.length % 2 == 1 ? t[t.length / 2] : (t[t.length / 2 - 1] + t[t.length / 2]) / 2;
+		}
+
+		double tempsMaxSec() {
+			return resultats.stream().mapToDouble(r -> r.tempsSec).max().orElse(Double.NaN);
+		}
+
+		double noeudsMoyens() {
+			return resultats.stream().mapToLong(r -> r.noeuds).average().orElse(Double.NaN);
+		}
+
+		double coupsMoyens() {
+			return resultats.stream().filter(r -> r.succes).mapToInt(r -> r.coups).average().orElse(Double.NaN);
+		}
+	}
+
+	private EchelleDifficulte() {
+	}
+
+	/**
+	 * Monte l’échelle avec les joueurs donnés : k cubes par niveau, threads résolutions simultanées,
+	 * budgetSec secondes au plus par cube ; format table, csv ou jsonl
+	 */
+	static void lancer(Map<String, Function<CubieCube, RubikIA.Result>> joueurs, int k, int profondeurMax,
+			long graine, int threads, double budgetSec, String format) {
+		if (k <= 0 || profondeurMax <= 0 || budgetSec <= 0)
+			throw new IllegalArgumentException("échelle invalide : " + k + " cubes, profondeur " + profondeurMax
+					+ ", budget " + budgetSec + "s");
+		long budgetNs = (long) (budgetSec * 1e9);
+		Map<String, List<Niveau>> courbes = new LinkedHashMap<>();
+		for (String nom : joueurs.keySet())
+			courbes.put(nom, new ArrayList<>());
+		Set<String> enLice = new LinkedHashSet<>(joueurs.keySet());
+
+		if (format.equals("csv"))
+			System.out.println("joueur,profondeur,cubes,reussis,echecs,depassements,tempsMedianSec,tempsMaxSec,"
+					+ "noeudsMoyens,coupsMoyens,elimine");
+		else if (format.equals("table"))
+			System.out.println("🪜 Échelle : " + k + " cubes par niveau, profondeurs 1 à " + profondeurMax
+					+ ", budget " + budgetSec + "s par cube, " + joueurs.size() + " joueurs\n");
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ScheduledExecutorService minuteur = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "echelle-minuteur");
+			t.setDaemon(true);
+			return t;
+		});
+		Random rnd = new Random(graine);
+		for (int d = 1; d <= profondeurMax && !enLice.isEmpty(); d++) {
+			CubieCube[] cubes = Tools.randomCubes(k, d, rnd);
+
+			// un joueur éliminé pendant le niveau ne lance plus ses cubes restants
+			Set<String> elimines = Collections.synchronizedSet(new HashSet<>());
+			Map<String, List<Future<RubikIA.Result>>> taches = new LinkedHashMap<>();
+			for (String nom : enLice) {
+				Function<CubieCube, RubikIA.Result> joueur = joueurs.get(nom);
+				List<Future<RubikIA.Result>> fs = new ArrayList<>();
+				for (CubieCube c : cubes) {
+					fs.add(pool.submit(() -> {
+						if (elimines.contains(nom)) return null;
+						RubikIA.Result r = resoudre(joueur, c, minuteur, budgetNs);
+						if (!valide(r, c) || r.tempsSec * 1e9 > budgetNs) elimines.add(nom);
+						return r;
+					}));
+				}
+				taches.put(nom, fs);
+			}
+
+			for (Map.Entry<String, List<Future<RubikIA.Result>>> e : taches.entrySet()) {
+				String nom = e.getKey();
+				Niveau niveau = new Niveau(d);
+				for (int i = 0; i < k; i++) {
+					RubikIA.Result r;
+					try {
+						r = e.getValue().get(i).get();
+					} catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+						pool.shutdownNow();
+						return;
+					} catch (ExecutionException ex) {
+						r = new RubikIA.Result(nom + " (erreur)", "", 0, 0.0, 0, false);
+					}
+					if (r == null) continue;
+					niveau.resultats.add(r);
+					if (r.tempsSec * 1e9 > budgetNs) niveau.depassements++;
+					else if (!valide(r, cubes[i])) niveau.echecs++;
+				}
+				courbes.get(nom).add(niveau);
+				boolean elimine = !niveau.reussi(k);
+				if (elimine) enLice.remove(nom);
+				ecrire(format, nom, niveau, k, elimine);
+			}
+		}
+		pool.shutdownNow();
+		minuteur.shutdownNow();
+
+		if (format.equals("table"))
+			afficherBilan(courbes, k, profondeurMax);
+	}
+
+	/**
+	 * Résout c en interrompant le thread à l’échéance du budget
+	 * L’interruption qui arrive après la fin de la résolution est attendue puis effacée, pour ne pas gêner
+	 * la tâche suivante du même thread
+	 */
+	private static RubikIA.Result resoudre(Function<CubieCube, RubikIA.Result> joueur, CubieCube c,
+			ScheduledExecutorService minuteur, long budgetNs) {
+		Thread courant = Thread.currentThread();
+		ScheduledFuture<?> alarme = minuteur.schedule(courant::interrupt, budgetNs, TimeUnit.NANOSECONDS);
+		long t0 = System.nanoTime();
+		RubikIA.Result r;
+		try {
+			r = CompteurRessources.mesurer(() -> joueur.apply(c.copy()));
+		} catch (RuntimeException | StackOverflowError e) {
+			r = new RubikIA.Result("erreur", "", 0, (System.nanoTime() - t0) / 1e9, 0, false);
+		} finally {
+			// une alarme déjà partie peut encore interrompre le thread : on attend qu’elle ait fini avant d’effacer
+			if (!alarme.cancel(false)) {
+				while (true) {
+					try {
+						alarme.get();
+						break;
+					} catch (InterruptedException e) {
+						// l’interruption de l’alarme elle-même, effacée par get
+					} catch (ExecutionException e) {
+						break;
+					}
+				}
+			}
+			Thread.interrupted();
+		}
+		return r;
+	}
+
+	private static boolean valide(RubikIA.Result r, CubieCube c) {
+		return r != null && r.succes && RubikIA.verifierSolution(c, r.coups == 0 ? "" : r.solution);
+	}
+
+	/**
+	 * Une ligne par joueur et par niveau, dès que le niveau est terminé
+	 */
+	private static void ecrire(String format, String joueur, Niveau n, int k, boolean elimine) {
+		int reussis = n.resultats.size() - n.echecs - n.depassements;
+		if (format.equals("csv")) {
+			System.out.println(String.join(",", joueur, Integer.toString(n.profondeur), Integer.toString(k),
+					Integer.toString(reussis), Integer.toString(n.echecs), Integer.toString(n.depassements),
+					Format.nombre(n.tempsMedianSec(), 6), Format.nombre(n.tempsMaxSec(), 6),
+					Format.nombre(n.noeudsMoyens(), 6), Format.nombre(n.coupsMoyens(), 6),
+					Boolean.toString(elimine)));
+		} else if (format.equals("jsonl")) {
+			System.out.println("{\"joueur\":" + Format.json(joueur) + ",\"profondeur\":" + n.profondeur
+					+ ",\"cubes\":" + k + ",\"reussis\":" + reussis + ",\"echecs\":" + n.echecs
+					+ ",\"depassements\":" + n.depassements
+					+ ",\"tempsMedianSec\":" + Format.nombreJson(n.tempsMedianSec(), 6)
+					+ ",\"tempsMaxSec\":" + Format.nombreJson(n.tempsMaxSec(), 6)
+					+ ",\"noeudsMoyens\":" + Format.nombreJson(n.noeudsMoyens(), 6)
+					+ ",\"coupsMoyens\":" + Format.nombreJson(n.coupsMoyens(), 6) + ",\"elimine\":" + elimine + "}");
+		} else {
+			String etat = !elimine ? "✅"
+					: "❌ éliminé (" + (n.echecs > 0 ? n.echecs + " échec(s)" : "")
+							+ (n.echecs > 0 && n.depassements > 0 ? ", " : "")
+							+ (n.depassements > 0 ? n.depassements + " hors budget" : "") + ")";
+			System.out.printf(Locale.ROOT, "Profondeur %2d  %-36s %2d/%-2d %10.3f ms %10s nœuds  %s%n", n.profondeur,
+					joueur, reussis, k, 1e3 * n.tempsMedianSec(), compact(n.noeudsMoyens()), etat);
+		}
+	}
+
+	/**
+	 * Profondeur tenue par chaque joueur, puis ses courbes de temps médian et de nœuds moyens par profondeur
+	 */
+	private static void afficherBilan(Map<String, List<Niveau>> courbes, int k, int profondeurMax) {
+		int dernier = 0;
+		for (List<Niveau> ns : courbes.values())
+			dernier = Math.max(dernier, ns.size());
+
+		System.out.printf("%n%-36s %10s  %s%n", "Joueur", "Tenue", "Arrêt");
+		for (Map.Entry<String, List<Niveau>> e : courbes.entrySet()) {
+			List<Niveau> ns = e.getValue();
+			int tenue = 0;
+			for (Niveau n : ns)
+				if (n.reussi(k)) tenue = n.profondeur;
+			String arret = tenue == profondeurMax ? "sommet atteint" : "éliminé à la profondeur " + (tenue + 1);
+			System.out.printf("%-36s %10d  %s%n", e.getKey(), tenue, arret);
+		}
+
+		StringBuilder entete = new StringBuilder(String.format("%-36s", "Joueur"));
+		for (int d = 1; d <= dernier; d++)
+			entete.append(String.format("%8d", d));
+		System.out.println("\nTemps médian par profondeur (ms)\n" + entete);
+		for (Map.Entry<String, List<Niveau>> e : courbes.entrySet()) {
+			StringBuilder l = new StringBuilder(String.format("%-36s", e.getKey()));
+			for (Niveau n : e.getValue())
+				l.append(String.format(Locale.ROOT, "%8.2f", 1e3 * n.tempsMedianSec()));
+			System.out.println(l);
+		}
+		System.out.println("\nNœuds moyens par profondeur\n" + entete);
+		for (Map.Entry<String, List<Niveau>> e : courbes.entrySet()) {
+			StringBuilder l = new StringBuilder(String.format("%-36s", e.getKey()));
+			for (Niveau n : e.getValue())
+				l.append(String.format("%8s", compact(n.noeudsMoyens())));
+			System.out.println(l);
+		}
+	}
+
+	/**
+	 * Nombre de nœuds lisible sur quelques caractères (12.3k, 4.56M), - s’il n’est pas compté
+	 */
+	private static String compact(double x) {
+		if (Double.isNaN(x) || x == 0) return "-";
+		if (x >= 1e9) return String.format(Locale.ROOT, "%.2fG", x / 1e9);
+		if (x >= 1e6) return String.format(Locale.ROOT, "%.2fM", x / 1e6);
+		if (x >= 1e3) return String.format(Locale.ROOT, "%.1fk", x / 1e3);
+		return String.format(Locale.ROOT, "%.0f", x);
+	}
+}
@@ -0,0 +1,181 @@
+package org.kociemba.twophase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+/**
+ * Estimation du nombre de nœuds développés par IDA* avant de le lancer
+ * Méthode des sondages stratifiés de Chen (1992), généralisation des sondages de Knuth (1975) :
+ * au lieu de suivre un seul fils au hasard, chaque sondage garde à chaque niveau un représentant
+ * par type de nœud (valeur de h, face du dernier coup), pondéré par le nombre de nœuds qu’il
+ * remplace. La somme des poids d’un niveau estime son nombre de nœuds
+ *
+ * La moyenne sur plusieurs sondages est une estimation sans biais de la taille de l’arbre
+ * exploré par une itération de seuil donné, avec le même élagage que RubikIA. La stratification
+ * évite la forte sous-estimation des sondages de Knuth sur les arbres déséquilibrés
+ */
+final class EstimateurIDA {
+
+	/**
+	 * Nombre de sondages par seuil par défaut
+	 */
+	static final int SONDAGES = 20;
+
+	/**
+	 * Prévision sur la suite des seuils qu’IDA* parcourra
+	 * Comme dans RubikIA, le seuil suivant est la plus petite valeur f élaguée à l’itération
+	 * précédente, ce qui peut sauter des valeurs : la solution de longueur d est alors trouvée
+	 * pendant la première itération de seuil supérieur ou égal à d
+	 */
+	static final class Prevision {
+		final int[] seuils;
+		final double[] parSeuil;
+		final int borneInf;
+		final int seuilMax;
+
+		Prevision(int[] seuils, double[] parSeuil, int borneInf, int seuilMax) {
+			this.seuils = seuils;
+			this.parSeuil = parSeuil;
+			this.borneInf = borneInf;
+			this.seuilMax = seuilMax;
+		}
+
+		/**
+		 * Nœuds cumulés des itérations jusqu’à celle qui trouve une solution de longueur d
+		 */
+		double cumul(int d) {
+			double s = 0;
+			for (int i = 0; i < seuils.length; i++) {
+				s += parSeuil[i];
+				if (seuils[i] >= d) break;
+			}
+			return s;
+		}
+
+		/**
+		 * Travail minimal : la solution optimale fait au moins borneInf coups
+		 */
+		double minimum() {
+			return cumul(borneInf);
+		}
+
+		/**
+		 * Travail maximal : une solution est connue en seuilMax coups
+		 */
+		double maximum() {
+			return cumul(seuilMax);
+		}
+	}
+
+	private final ToIntFunction<CubieCube> h;
+	private final int sondages;
+	private final Random rnd;
+
+	/**
+	 * Plus petite valeur f élaguée pendant la dernière estimation
+	 */
+	private int prochainSeuil;
+
+	/**
+	 * Prépare un estimateur pour l’heuristique h ; la graine rend les prévisions reproductibles
+	 */
+	EstimateurIDA(ToIntFunction<CubieCube> h, int sondages, long graine) {
+		if (sondages <= 0)
+			throw new IllegalArgumentException("nombre de sondages invalide : " + sondages);
+		this.h = h;
+		this.sondages = sondages;
+		this.rnd = new Random(graine);
+	}
+
+	/**
+	 * Nombre de nœuds estimé pour l’itération de seuil donné depuis start
+	 */
+	double estimer(CubieCube start, int seuil) {
+		prochainSeuil = Integer.MAX_VALUE;
+		int h0 = h.applyAsInt(start);
+		if (h0 > seuil) {
+			prochainSeuil = h0;
+			return 0;
+		}
+		double total = 0;
+		for (int s = 0; s < sondages; s++)
+			total += sonder(start, seuil);
+		return total / sondages;
+	}
+
+	/**
+	 * Prévision pour les seuils successifs d’IDA* depuis start, jusqu’au premier seuil
+	 * supérieur ou égal à seuilMax (longueur d’une solution connue)
+	 * borneInf est une longueur minimale connue de la solution (heuristique admissible)
+	 */
+	Prevision prevoir(CubieCube start, int borneInf, int seuilMax) {
+		List<Integer> seuils = new ArrayList<>();
+		List<Double> estimations = new ArrayList<>();
+		int t = h.applyAsInt(start);
+		while (true) {
+			seuils.add(t);
+			estimations.add(estimer(start, t));
+			if (t >= seuilMax || prochainSeuil == Integer.MAX_VALUE) break;
+			t = prochainSeuil;
+		}
+		return new Prevision(seuils.stream().mapToInt(i -> i).toArray(),
+				estimations.stream().mapToDouble(x -> x).toArray(), borneInf, seuilMax);
+	}
+
+	/**
+	 * Un sondage stratifié : niveau par niveau, un représentant tiré au hasard par type,
+	 * de poids égal à la somme des poids des nœuds de ce type
+	 */
+	private double sonder(CubieCube start, int seuil) {
+		int types = (seuil + 1) * 6;
+		CubieCube[] cubes = new CubieCube[types], cubesSuivants = new CubieCube[types];
+		int[] derniers = new int[types], derniersSuivants = new int[types];
+		double[] poids = new double[types], poidsSuivants = new double[types];
+		CubieCube essai = new CubieCube();
+
+		cubes[0] = start;
+		derniers[0] = -1;
+		poids[0] = 1;
+		double somme = 1;
+
+		for (int g = 0; g < seuil; g++) {
+			Arrays.fill(poidsSuivants, 0);
+			boolean vide = true;
+			for (int i = 0; i < types; i++) {
+				if (poids[i] == 0) continue;
+				for (int mv = 0; mv < RubikIA.NB_MOVES; mv++) {
+					if (derniers[i] != -1 && RubikIA.MOVE_FACE[mv] == RubikIA.MOVE_FACE[derniers[i]]) continue;
+					essai.set(cubes[i]);
+					RubikIA.applyMove18(essai, mv);
+					int hf = h.applyAsInt(essai);
+					if (g + 1 + hf > seuil) {
+						prochainSeuil = Math.min(prochainSeuil, g + 1 + hf);
+						continue;
+					}
+
+					int t = hf * 6 + RubikIA.MOVE_FACE[mv];
+					poidsSuivants[t] += poids[i];
+					// le nouveau nœud devient le représentant avec une probabilité proportionnelle à son poids
+					if (rnd.nextDouble() * poidsSuivants[t] < poids[i]) {
+						if (cubesSuivants[t] == null) cubesSuivants[t] = new CubieCube();
+						cubesSuivants[t].set(essai);
+						derniersSuivants[t] = mv;
+					}
+					vide = false;
+				}
+			}
+			if (vide) break;
+
+			for (int t = 0; t < types; t++)
+				somme += poidsSuivants[t];
+			CubieCube[] tc = cubes; cubes = cubesSuivants; cubesSuivants = tc;
+			int[] td = derniers; derniers = derniersSuivants; derniersSuivants = td;
+			double[] tp = poids; poids = poidsSuivants; poidsSuivants = tp;
+			if (g == 0) cubesSuivants[0] = null; // ne jamais écraser le cube de départ
+		}
+		return somme;
+	}
+}
@@ -0,0 +1,41 @@
+package org.kociemba.twophase;
+
+import java.util.Locale;
+
+/**
+ * Mise en forme partagée par les rapports des bancs et de la compétition (CSV et JSON)
+ * Les nombres s’écrivent toujours avec un point décimal (Locale.ROOT), quelle que soit la langue de la machine
+ */
+final class Format {
+
+	private Format() {
+	}
+
+	/**
+	 * Nombre avec decimales chiffres après la virgule
+	 */
+	static String nombre(double x, int decimales) {
+		return String.format(Locale.ROOT, "%." + decimales + "f", x);
+	}
+
+	/**
+	 * Nombre JSON : null pour une valeur manquante (NaN)
+	 */
+	static String nombreJson(double x, int decimales) {
+		return Double.isNaN(x) ? "null" : nombre(x, decimales);
+	}
+
+	/**
+	 * Chaîne JSON entre guillemets, barres obliques inverses et guillemets échappés
+	 */
+	static String json(String s) {
+		return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	/**
+	 * Champ CSV entre guillemets, guillemets doublés
+	 */
+	static String csv(String s) {
+		return "\"" + s.replace("\"", "\"\"") + "\"";
+	}
+}
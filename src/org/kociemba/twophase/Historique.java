@@ -0,0 +1,283 @@
+package org.kociemba.twophase;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+
+/**
+ * Historique des mesures : fichier local où chaque exécution des bancs ajoute ses résultats, sans rien réécrire
+ * Une ligne par cube résolu, champs séparés par des tabulations :
+ * exécution, date, empreinte du corpus, joueur, JVM, numéro du cube, latence (ms), nœuds, succès, réglages
+ * La latence vaut NaN quand la résolution n’a pas pu être mesurée (tâche en erreur). Les réglages sont ceux
+ * qui changent les latences : résolutions simultanées et limites des joueurs (vides dans les anciens fichiers)
+ *
+ * La commande comparer confronte deux exécutions sur les mêmes corpus. Les cubes sont appariés,
+ * et un bootstrap sur les cubes donne l’intervalle de confiance à 95 % du rapport des latences moyennes
+ * et du rapport des nœuds par seconde ; les cubes sans latence sont écartés des rapports.
+ * Une régression n’est signalée que si l’intervalle exclut 1 et que l’écart dépasse le seuil.
+ * Deux séries mesurées avec des réglages différents ne sont pas comparées
+ *
+ * Usage : Historique lister fichier
+ *         Historique comparer fichier [exécutionA exécutionB] [-seuil 0.05]
+ * Sans exécutions données, les deux dernières du fichier sont comparées
+ */
+public final class Historique {
+
+	static final String EN_TETE = "# execution\tdate\tcorpus\tjoueur\tjvm\tcube\ttempsMs\tnoeuds\tsucces\treglages";
+
+	/**
+	 * Nombre de tirages du bootstrap
+	 */
+	static final int TIRAGES = 2000;
+
+	/**
+	 * Écart relatif minimal pour signaler une régression (5 %)
+	 */
+	static final double SEUIL = 0.05;
+
+	/**
+	 * Mesures d’un joueur sur un corpus pendant une exécution, dans l’ordre des cubes
+	 */
+	static final class Serie {
+		final String jvm;
+		final String reglages;
+		final List<Double> tempsMs = new ArrayList<>();
+		final List<Long> noeuds = new ArrayList<>();
+		int echecs;
+
+		Serie(String jvm, String reglages) {
+			this.jvm = jvm;
+			this.reglages = reglages;
+		}
+	}
+
+	private Historique() {
+	}
+
+	/**
+	 * Identifiant d’une nouvelle exécution : date et heure, puis un suffixe aléatoire
+	 */
+	static String nouvelleExecution() {
+		return new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + "-"
+				+ Integer.toHexString(new Random().nextInt(0x10000));
+	}
+
+	/**
+	 * Empreinte d’un corpus (SHA-256 des facettes, 16 premiers chiffres) : deux corpus identiques ont la même
+	 */
+	static String empreinte(CubieCube[] cubes) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			for (CubieCube c : cubes)
+				md.update(c.toFaceCube().to_String().getBytes(StandardCharsets.US_ASCII));
+			StringBuilder sb = new StringBuilder();
+			for (byte b : md.digest())
+				sb.append(String.format("%02x", b));
+			return sb.substring(0, 16);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * JVM de l’exécution courante
+	 */
+	static String jvm() {
+		return System.getProperty("java.vm.name") + " " + System.getProperty("java.version");
+	}
+
+	/**
+	 * Réglages d’une exécution : nombre de résolutions simultanées et limites des joueurs de ia
+	 */
+	static String reglages(int threads, RubikIA ia) {
+		return String.format(Locale.ROOT, "threads=%d,timeoutIda=%.3fs,timeoutAStar=%.3fs,noeudsIda=%d,noeudsAStar=%d",
+				threads, ia.delaiIdaNs / 1e9, ia.delaiAStarNs / 1e9, ia.noeudsMaxIda, ia.noeudsMaxAStar);
+	}
+
+	/**
+	 * Ajoute à la fin du fichier les mesures d’un joueur sur un corpus (le fichier est créé au besoin)
+	 * Une latence NaN est enregistrée comme manquante
+	 */
+	static void ajouter(Path fichier, String execution, String corpus, String joueur, String reglages,
+			double[] tempsMs, long[] noeuds, boolean[] succes) throws IOException {
+		boolean nouveau = !Files.exists(fichier);
+		String date = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(new Date());
+		try (Writer w = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND)) {
+			if (nouveau) w.write(EN_TETE + "\n");
+			for (int i = 0; i < tempsMs.length; i++)
+				w.write(String.join("\t", execution, date, corpus, joueur, jvm(), Integer.toString(i),
+						Format.nombre(tempsMs[i], 6), Long.toString(noeuds[i]),
+						Boolean.toString(succes[i]), reglages) + "\n");
+		}
+	}
+
+	/**
+	 * Lit le fichier : exécution → (joueur et corpus) → série, dans l’ordre du fichier
+	 */
+	static Map<String, Map<String, Serie>> lire(Path fichier) throws IOException {
+		Map<String, Map<String, Serie>> executions = new LinkedHashMap<>();
+		for (String l : Files.readAllLines(fichier, StandardCharsets.UTF_8)) {
+			if (l.isEmpty() || l.startsWith("#")) continue;
+			String[] f = l.split("\t");
+			// les lignes à 9 champs datent d’avant l’enregistrement des réglages
+			if (f.length != 9 && f.length != 10)
+				throw new IllegalArgumentException("ligne illisible dans " + fichier + " : " + l);
+			String reglages = f.length == 10 ? f[9] : "";
+			Serie s = executions.computeIfAbsent(f[0], k -> new LinkedHashMap<>())
+					.computeIfAbsent(f[3] + "\t" + f[2], k -> new Serie(f[4], reglages));
+			s.tempsMs.add(Double.parseDouble(f[6]));
+			s.noeuds.add(Long.parseLong(f[7]));
+			if (!Boolean.parseBoolean(f[8])) s.echecs++;
+		}
+		return executions;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2)
+			throw new IllegalArgumentException("usage : Historique lister|comparer fichier [A B] [-seuil s]");
+		Path fichier = Paths.get(args[1]);
+		Map<String, Map<String, Serie>> executions = lire(fichier);
+
+		if (args[0].equals("lister")) {
+			for (Map.Entry<String, Map<String, Serie>> e : executions.entrySet()) {
+				System.out.println(e.getKey());
+				for (Map.Entry<String, Serie> s : e.getValue().entrySet())
+					System.out.printf("   %-60s %5d cubes, %s%s%n", s.getKey().replace('\t', ' '),
+							s.getValue().tempsMs.size(), s.getValue().jvm,
+							s.getValue().reglages.isEmpty() ? "" : ", " + s.getValue().reglages);
+			}
+			return;
+		}
+		if (!args[0].equals("comparer"))
+			throw new IllegalArgumentException("commande inconnue : " + args[0]);
+
+		double seuil = SEUIL;
+		List<String> choisies = new ArrayList<>();
+		for (int k = 2; k < args.length; k++) {
+			if (args[k].equals("-seuil")) seuil = Double.parseDouble(args[++k]);
+			else choisies.add(args[k]);
+		}
+		List<String> ids = new ArrayList<>(executions.keySet());
+		if (choisies.isEmpty() && ids.size() >= 2)
+			choisies = ids.subList(ids.size() - 2, ids.size());
+		if (choisies.size() != 2 || !executions.keySet().containsAll(choisies))
+			throw new IllegalArgumentException("il faut deux exécutions présentes dans " + fichier + " : " + choisies);
+
+		int regressions = comparer(choisies.get(0), executions.get(choisies.get(0)),
+				choisies.get(1), executions.get(choisies.get(1)), seuil);
+		System.exit(regressions > 0 ? 1 : 0);
+	}
+
+	/**
+	 * Compare les séries communes de deux exécutions et renvoie le nombre de régressions
+	 */
+	static int comparer(String idA, Map<String, Serie> a, String idB, Map<String, Serie> b, double seuil) {
+		System.out.println("Référence : " + idA + "\nComparée  : " + idB + "\n");
+		System.out.printf("%-36s %-26s %8s %21s %8s %21s  %s%n", "Joueur", "Corpus", "Latence", "IC 95 %",
+				"Nœuds/s", "IC 95 %", "Verdict");
+		Random rnd = new Random(0);
+		int regressions = 0, communes = 0;
+		for (Map.Entry<String, Serie> e : a.entrySet()) {
+			Serie sa = e.getValue(), sb = b.get(e.getKey());
+			if (sb == null || sb.tempsMs.size() != sa.tempsMs.size()) continue;
+			String[] cle = e.getKey().split("\t");
+			if (!sa.reglages.equals(sb.reglages)) {
+				System.out.printf("%-36s %-26s non comparées : réglages différents (%s / %s)%n", cle[0], cle[1],
+						sa.reglages.isEmpty() ? "inconnus" : sa.reglages, sb.reglages.isEmpty() ? "inconnus" : sb.reglages);
+				continue;
+			}
+			communes++;
+			int n = sa.tempsMs.size();
+
+			// rapports B / A : latence moyenne et nœuds par seconde, recalculés sur chaque tirage
+			double[] latence = new double[TIRAGES], debit = new double[TIRAGES];
+			int[] indices = new int[n];
+			for (int t = 0; t < TIRAGES; t++) {
+				for (int i = 0; i < n; i++)
+					indices[i] = rnd.nextInt(n);
+				latence[t] = rapportLatence(sa, sb, indices);
+				debit[t] = rapportDebit(sa, sb, indices);
+			}
+			int[] tous = new int[n];
+			for (int i = 0; i < n; i++)
+				tous[i] = i;
+			double l = rapportLatence(sa, sb, tous), d = rapportDebit(sa, sb, tous);
+			double[] il = intervalle(latence), id = intervalle(debit);
+			double lBas = il[0], lHaut = il[1], dBas = id[0], dHaut = id[1];
+
+			List<String> verdict = new ArrayList<>();
+			if (lBas > 1 && l > 1 + seuil) verdict.add("RÉGRESSION latence");
+			if (!Double.isNaN(d) && dHaut < 1 && d < 1 - seuil) verdict.add("RÉGRESSION nœuds/s");
+			regressions += verdict.size();
+			if (lHaut < 1 && l < 1 - seuil) verdict.add("amélioration latence");
+			if (!Double.isNaN(d) && dBas > 1 && d > 1 + seuil) verdict.add("amélioration nœuds/s");
+			if (sa.echecs != sb.echecs) verdict.add("échecs " + sa.echecs + " → " + sb.echecs);
+			if (!sa.jvm.equals(sb.jvm)) verdict.add("JVM différente");
+
+			System.out.printf(Locale.ROOT, "%-36s %-26s %8s %21s %8s %21s  %s%n", cle[0], cle[1],
+					Double.isNaN(l) ? "-" : String.format(Locale.ROOT, "%.3fx", l),
+					Double.isNaN(l) ? "-" : String.format(Locale.ROOT, "[%7.3fx ; %7.3fx]", lBas, lHaut),
+					Double.isNaN(d) ? "-" : String.format(Locale.ROOT, "%.3fx", d),
+					Double.isNaN(d) ? "-" : String.format(Locale.ROOT, "[%7.3fx ; %7.3fx]", dBas, dHaut),
+					verdict.isEmpty() ? "stable" : String.join(", ", verdict));
+		}
+		if (communes == 0)
+			System.out.println("Aucune série commune : les exécutions n’ont ni les mêmes joueurs ni les mêmes corpus");
+		return regressions;
+	}
+
+	/**
+	 * Intervalle à 95 % des rapports tirés, sans les tirages indéfinis (NaN), qui fausseraient les rangs après le tri
+	 * NaN si aucun tirage n’est défini
+	 */
+	private static double[] intervalle(double[] tirages) {
+		double[] v = Arrays.stream(tirages).filter(x -> !Double.isNaN(x)).sorted().toArray();
+		if (v.length == 0) return new double[] { Double.NaN, Double.NaN };
+		return new double[] { v[(int) (0.025 * v.length)], v[Math.max(0, (int) (0.975 * v.length) - 1)] };
+	}
+
+	/**
+	 * Vrai si le cube i a une latence dans les deux séries
+	 */
+	private static boolean mesure(Serie a, Serie b, int i) {
+		return !Double.isNaN(a.tempsMs.get(i)) && !Double.isNaN(b.tempsMs.get(i));
+	}
+
+	/**
+	 * Rapport des latences moyennes sur les cubes mesurés dans les deux séries, NaN s’il n’y en a aucun
+	 */
+	private static double rapportLatence(Serie a, Serie b, int[] indices) {
+		double ta = 0, tb = 0;
+		for (int i : indices) {
+			if (!mesure(a, b, i)) continue;
+			ta += a.tempsMs.get(i);
+			tb += b.tempsMs.get(i);
+		}
+		return ta == 0 ? Double.NaN : tb / ta;
+	}
+
+	/**
+	 * Rapport des nœuds par seconde, NaN si l’un des joueurs ne compte pas ses nœuds
+	 */
+	private static double rapportDebit(Serie a, Serie b, int[] indices) {
+		double na = 0, nb = 0, ta = 0, tb = 0;
+		for (int i : indices) {
+			if (!mesure(a, b, i)) continue;
+			na += a.noeuds.get(i);
+			nb += b.noeuds.get(i);
+			ta += a.tempsMs.get(i);
+			tb += b.tempsMs.get(i);
+		}
+		if (na == 0 || nb == 0) return Double.NaN;
+		return (nb / tb) / (na / ta);
+	}
+}
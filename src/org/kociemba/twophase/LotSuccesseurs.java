@@ -0,0 +1,184 @@
+package org.kociemba.twophase;
+
+/**
+ * Lot des successeurs d’un nœud, stocké en structure de tableaux (SoA)
+ * Chaque pièce occupe une ligne de LARGEUR octets, un octet par successeur (couloir) :
+ * cp[pos * LARGEUR + couloir] est le coin placé en pos dans le successeur couloir
+ *
+ * Les heuristiques sont calculées pour tout le lot à la fois, par des boucles sur les couloirs
+ * sans branchement ni allocation, à partir de tables de coûts précalculées. Ces boucles
+ * se prêtent à la vectorisation automatique du compilateur JIT
+ */
+final class LotSuccesseurs {
+
+	/**
+	 * Nombre de couloirs : un par mouvement
+	 */
+	static final int LARGEUR = RubikIA.NB_MOVES;
+
+	/**
+	 * Heuristiques disponibles pour l’évaluation par lot
+	 */
+	enum Noyau { MAL_PLACES, MANHATTAN, KORF }
+
+	/**
+	 * Effet de chaque mouvement sur les octets : le nouveau coin en i vient de MOVE_CP[m][i]
+	 * et son orientation augmente de MOVE_CO[m][i], de même pour les arêtes
+	 */
+	private static final byte[][] MOVE_CP = new byte[LARGEUR][8];
+	private static final byte[][] MOVE_CO = new byte[LARGEUR][8];
+	private static final byte[][] MOVE_EP = new byte[LARGEUR][12];
+	private static final byte[][] MOVE_EO = new byte[LARGEUR][12];
+
+	/**
+	 * Coût d’une pièce selon sa position, son identité et son orientation
+	 * COUT_COIN[pos][coin * 3 + ori], COUT_ARETE[pos][arete * 2 + ori]
+	 */
+	private static final byte[][] COUT_COIN_MP = new byte[8][24];
+	private static final byte[][] COUT_ARETE_MP = new byte[12][24];
+	private static final byte[][] COUT_COIN_MH = new byte[8][24];
+	private static final byte[][] COUT_ARETE_MH = new byte[12][24];
+
+	static {
+		for (int m = 0; m < LARGEUR; m++) {
+			CubieCube c = new CubieCube();
+			RubikIA.applyMove18(c, m);
+			for (int i = 0; i < 8; i++) {
+				MOVE_CP[m][i] = (byte) c.cp[i].ordinal();
+				MOVE_CO[m][i] = c.co[i];
+			}
+			for (int i = 0; i < 12; i++) {
+				MOVE_EP[m][i] = (byte) c.ep[i].ordinal();
+				MOVE_EO[m][i] = c.eo[i];
+			}
+		}
+		for (int pos = 0; pos < 8; pos++)
+			for (int coin = 0; coin < 8; coin++)
+				for (int ori = 0; ori < 3; ori++) {
+					int mal = (coin != pos ? 1 : 0) + (ori != 0 ? 1 : 0);
+					COUT_COIN_MP[pos][coin * 3 + ori] = (byte) mal;
+					COUT_COIN_MH[pos][coin * 3 + ori] =
+							(byte) (RubikIA.DIST_COINS[pos][coin] + (ori != 0 ? 1 : 0));
+				}
+		for (int pos = 0; pos < 12; pos++)
+			for (int arete = 0; arete < 12; arete++)
+				for (int ori = 0; ori < 2; ori++) {
+					int mal = (arete != pos ? 1 : 0) + (ori != 0 ? 1 : 0);
+					COUT_ARETE_MP[pos][arete * 2 + ori] = (byte) mal;
+					COUT_ARETE_MH[pos][arete * 2 + ori] =
+							(byte) (RubikIA.DIST_ARETES[pos][arete] + (ori != 0 ? 1 : 0));
+				}
+	}
+
+	final byte[] cp = new byte[8 * LARGEUR];
+	final byte[] co = new byte[8 * LARGEUR];
+	final byte[] ep = new byte[12 * LARGEUR];
+	final byte[] eo = new byte[12 * LARGEUR];
+
+	/**
+	 * Mouvement ayant produit chaque couloir, et nombre de couloirs remplis
+	 */
+	final int[] coups = new int[LARGEUR];
+	int taille;
+
+	/**
+	 * Tampons de calcul de l’heuristique, réutilisés d’un appel à l’autre
+	 */
+	private final int[] sommeA = new int[LARGEUR];
+	private final int[] sommeB = new int[LARGEUR];
+
+	/**
+	 * Place le cube c seul dans le couloir 0, sans coup précédent
+	 */
+	void charger(CubieCube c) {
+		taille = 1;
+		coups[0] = -1;
+		for (int i = 0; i < 8; i++) {
+			cp[i * LARGEUR] = (byte) c.cp[i].ordinal();
+			co[i * LARGEUR] = c.co[i];
+		}
+		for (int i = 0; i < 12; i++) {
+			ep[i * LARGEUR] = (byte) c.ep[i].ordinal();
+			eo[i * LARGEUR] = c.eo[i];
+		}
+	}
+
+	/**
+	 * Remplit le lot avec les successeurs du couloir p d’un autre lot, sans passer par CubieCube
+	 */
+	void remplir(LotSuccesseurs parent, int p) {
+		int lastMove = parent.coups[p];
+		taille = 0;
+		for (int m = 0; m < LARGEUR; m++) {
+			if (lastMove != -1 && RubikIA.MOVE_FACE[m] == RubikIA.MOVE_FACE[lastMove]) continue;
+			int k = taille++;
+			coups[k] = m;
+			byte[] mcp = MOVE_CP[m], mco = MOVE_CO[m], mep = MOVE_EP[m], meo = MOVE_EO[m];
+			for (int i = 0; i < 8; i++) {
+				int src = mcp[i] * LARGEUR + p;
+				cp[i * LARGEUR + k] = parent.cp[src];
+				co[i * LARGEUR + k] = (byte) ((parent.co[src] + mco[i]) % 3);
+			}
+			for (int i = 0; i < 12; i++) {
+				int src = mep[i] * LARGEUR + p;
+				ep[i * LARGEUR + k] = parent.ep[src];
+				eo[i * LARGEUR + k] = (byte) (parent.eo[src] ^ meo[i]);
+			}
+		}
+	}
+
+	/**
+	 * Calcule l’heuristique choisie pour tous les couloirs du lot
+	 */
+	void evaluer(Noyau noyau, int[] h) {
+		switch (noyau) {
+		case MAL_PLACES:
+			sommer(COUT_COIN_MP, COUT_ARETE_MP, sommeA);
+			for (int k = 0; k < taille; k++)
+				h[k] = sommeA[k] / 8;
+			break;
+		case MANHATTAN:
+			sommer(COUT_COIN_MH, COUT_ARETE_MH, sommeA);
+			for (int k = 0; k < taille; k++)
+				h[k] = sommeA[k] / 8;
+			break;
+		default:
+			sommer(COUT_COIN_MP, COUT_ARETE_MP, sommeA);
+			sommer(COUT_COIN_MH, COUT_ARETE_MH, sommeB);
+			for (int k = 0; k < taille; k++)
+				h[k] = Math.max(sommeA[k], sommeB[k]) / 8;
+		}
+	}
+
+	/**
+	 * Somme des coûts des pièces, couloir par couloir
+	 */
+	private void sommer(byte[][] coutCoin, byte[][] coutArete, int[] somme) {
+		int n = taille;
+		for (int k = 0; k < n; k++)
+			somme[k] = 0;
+		for (int pos = 0; pos < 8; pos++) {
+			byte[] t = coutCoin[pos];
+			int base = pos * LARGEUR;
+			for (int k = 0; k < n; k++)
+				somme[k] += t[cp[base + k] * 3 + co[base + k]];
+		}
+		for (int pos = 0; pos < 12; pos++) {
+			byte[] t = coutArete[pos];
+			int base = pos * LARGEUR;
+			for (int k = 0; k < n; k++)
+				somme[k] += t[ep[base + k] * 2 + eo[base + k]];
+		}
+	}
+
+	/**
+	 * Indique si le successeur du couloir k est le cube résolu
+	 */
+	boolean estResolu(int k) {
+		for (int i = 0; i < 8; i++)
+			if (cp[i * LARGEUR + k] != i || co[i * LARGEUR + k] != 0) return false;
+		for (int i = 0; i < 12; i++)
+			if (ep[i * LARGEUR + k] != i || eo[i * LARGEUR + k] != 0) return false;
+		return true;
+	}
+}
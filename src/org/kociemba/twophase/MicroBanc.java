@@ -0,0 +1,486 @@
+package org.kociemba.twophase;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Banc de micro-mesures dans l’esprit de JMH, sans dépendance extérieure
+ * Chaque mesure enchaîne des itérations d’échauffement (le temps que le JIT compile le code)
+ * puis des itérations mesurées de durée fixe. Le score est le temps moyen par opération,
+ * avec l’erreur à 99,9 % calculée comme JMH (loi de Student sur les itérations)
+ *
+ * Les valeurs calculées sont versées dans un puits, pour que le JIT ne supprime pas le calcul
+ * Une mesure peut avoir une préparation, exécutée avant chaque appel et exclue du temps mesuré
+ *
+ * Comme JMH, chaque mesure tourne par défaut dans une JVM neuve (fork) : toutes les opérations passent par
+ * le même appel à Operation.executer, qui deviendrait mégamorphe si les mesures se suivaient dans une seule JVM,
+ * et le score d’une mesure dépendrait alors de celles lancées avant elle. La JVM fille relance la classe principale
+ * avec les mêmes options de la JVM, un filtre sur le nom exact et l’option interne -scores fichier,
+ * où elle écrit ses scores. Avec -f 0, tout est mesuré dans la JVM courante : les scores ne sont plus comparables
+ * à ceux de JMH
+ *
+ * Options (mêmes noms que JMH) : -wi itérations d’échauffement, -i itérations mesurées,
+ * -w et -r durée d’une itération en millisecondes, -f nombre de JVM neuves par mesure (1 par défaut),
+ * -rf json|csv format du rapport, -rff fichier du rapport, puis une expression régulière qui filtre
+ * les noms des mesures
+ */
+public final class MicroBanc {
+
+	/**
+	 * Opération mesurée ; i numérote les appels, pour parcourir un corpus
+	 */
+	public interface Operation {
+		void executer(int i, Puits puits) throws Exception;
+	}
+
+	/**
+	 * Préparation de l’appel i, exclue du temps mesuré
+	 */
+	public interface Preparation {
+		void preparer(int i) throws Exception;
+	}
+
+	/**
+	 * Puits qui consomme les résultats des opérations (équivalent du Blackhole de JMH)
+	 */
+	public static final class Puits {
+		private long accumulateur;
+		private volatile long publie;
+
+		public void consommer(long v) {
+			accumulateur = 31 * accumulateur + v;
+		}
+
+		public void consommer(double v) {
+			consommer(Double.doubleToRawLongBits(v));
+		}
+
+		public void consommer(Object o) {
+			consommer(o == null ? 0 : (long) System.identityHashCode(o));
+		}
+
+		void publier() {
+			publie = accumulateur;
+		}
+	}
+
+	private static final class Mesure {
+		final String nom;
+		final Map<String, String> parametres;
+		final Preparation preparation;
+		final Operation operation;
+
+		Mesure(String nom, Map<String, String> parametres, Preparation preparation, Operation operation) {
+			this.nom = nom;
+			this.parametres = parametres;
+			this.preparation = preparation;
+			this.operation = operation;
+		}
+	}
+
+	/**
+	 * Résultat d’une mesure : temps moyen par opération de chaque itération mesurée, en nanosecondes
+	 */
+	public static final class Resultat {
+		public final String nom;
+		public final Map<String, String> parametres;
+		public final double[] scores;
+		public final double moyenne;
+		public final double erreur;
+
+		Resultat(String nom, Map<String, String> parametres, double[] scores) {
+			this.nom = nom;
+			this.parametres = parametres;
+			this.scores = scores;
+			double s = 0;
+			for (double x : scores)
+				s += x;
+			moyenne = s / scores.length;
+			double v = 0;
+			for (double x : scores)
+				v += (x - moyenne) * (x - moyenne);
+			erreur = scores.length < 2 ? Double.NaN
+					: student(scores.length - 1) * Math.sqrt(v / (scores.length - 1) / scores.length);
+		}
+	}
+
+	/**
+	 * Quantiles à 99,95 % de la loi de Student pour 1 à 30 degrés de liberté (intervalle bilatéral à 99,9 %)
+	 */
+	private static final double[] STUDENT = { 636.62, 31.60, 12.92, 8.61, 6.87, 5.96, 5.41, 5.04, 4.78, 4.59, 4.44,
+			4.32, 4.22, 4.14, 4.07, 4.01, 3.97, 3.92, 3.88, 3.85, 3.82, 3.79, 3.77, 3.75, 3.73, 3.71, 3.69, 3.67, 3.66,
+			3.65 };
+
+	private static double student(int degres) {
+		return degres <= STUDENT.length ? STUDENT[degres - 1] : 3.29;
+	}
+
+	/**
+	 * Graine et taille du corpus de cubes aléatoires, longueur des mélanges donnés aux joueurs
+	 */
+	static final long GRAINE = 42;
+	static final int CORPUS = 1024;
+	static final int CORPUS_RESOLUTION = 16;
+	static final int PROFONDEUR_JOUEURS = 6;
+
+	private final Class<?> principale;
+	private final List<Mesure> mesures = new ArrayList<>();
+	private int forks = 1;
+	private int echauffements = 3;
+	private int iterations = 5;
+	private long dureeEchauffementMs = 1000;
+	private long dureeMesureMs = 1000;
+
+	/**
+	 * Banc dont les mesures sont construites par le main de la classe principale,
+	 * relancé dans une JVM neuve pour chaque mesure
+	 */
+	public MicroBanc(Class<?> principale) {
+		this.principale = principale;
+	}
+
+	/**
+	 * Ajoute une mesure sans paramètre
+	 */
+	public void ajouter(String nom, Operation operation) {
+		ajouter(nom, Collections.emptyMap(), null, operation);
+	}
+
+	/**
+	 * Ajoute une mesure ; les paramètres décrivent le corpus et apparaissent dans les rapports
+	 * La préparation (éventuellement null) est appelée avant chaque opération, hors du temps mesuré
+	 */
+	public void ajouter(String nom, Map<String, String> parametres, Preparation preparation, Operation operation) {
+		mesures.add(new Mesure(nom, parametres, preparation, operation));
+	}
+
+	/**
+	 * Lance les mesures sélectionnées par les options (voir la description de la classe),
+	 * affiche un résumé et écrit le rapport demandé
+	 */
+	public List<Resultat> lancer(String[] args) throws Exception {
+		String format = null, fichier = null, fichierScores = null;
+		Pattern filtre = null;
+		for (int k = 0; k < args.length; k++) {
+			switch (args[k]) {
+			case "-wi": echauffements = Integer.parseInt(args[++k]); break;
+			case "-i": iterations = Integer.parseInt(args[++k]); break;
+			case "-w": dureeEchauffementMs = Long.parseLong(args[++k]); break;
+			case "-r": dureeMesureMs = Long.parseLong(args[++k]); break;
+			case "-f": forks = Integer.parseInt(args[++k]); break;
+			case "-scores": fichierScores = args[++k]; break;
+			case "-rf": format = args[++k].toLowerCase(); break;
+			case "-rff": fichier = args[++k]; break;
+			default: filtre = Pattern.compile(args[k]);
+			}
+		}
+		if (iterations <= 0)
+			throw new IllegalArgumentException("nombre d’itérations invalide : " + iterations);
+		if (forks < 0)
+			throw new IllegalArgumentException("nombre de forks invalide : " + forks);
+		if (fichierScores != null) {
+			ecrireScores(Paths.get(fichierScores), filtre);
+			return Collections.emptyList();
+		}
+		if (forks == 0)
+			System.out.println("⚠️  -f 0 : toutes les mesures dans cette JVM, chaque score dépend des mesures précédentes\n");
+		if (format != null && !format.equals("json") && !format.equals("csv"))
+			throw new IllegalArgumentException("format de rapport inconnu : " + format);
+		if (format == null && fichier != null)
+			format = fichier.endsWith(".csv") ? "csv" : "json";
+		if (format != null && fichier == null)
+			fichier = "microbanc." + format;
+
+		List<Resultat> resultats = new ArrayList<>();
+		Puits puits = new Puits();
+		for (Mesure m : mesures) {
+			if (filtre != null && !filtre.matcher(m.nom).find()) continue;
+			System.out.println("# " + m.nom + (m.parametres.isEmpty() ? "" : " " + m.parametres));
+			resultats.add(new Resultat(m.nom, m.parametres, forks == 0 ? mesurer(m, puits) : mesurerEnForks(m)));
+		}
+
+		System.out.println();
+		System.out.printf(Locale.ROOT, "%-48s %6s %16s %14s%n", "Mesure", "Itér.", "Score", "Erreur");
+		for (Resultat r : resultats)
+			System.out.printf(Locale.ROOT, "%-48s %6d %16s %14s%n", r.nom, r.scores.length, unites(r.moyenne),
+					Double.isNaN(r.erreur) ? "-" : "± " + unites(r.erreur));
+
+		if (format != null) {
+			try (Writer w = new FileWriter(fichier)) {
+				if (format.equals("json")) ecrireJson(w, resultats);
+				else ecrireCsv(w, resultats);
+			}
+			System.out.println("\nRapport écrit dans " + fichier);
+		}
+		return resultats;
+	}
+
+	/**
+	 * Échauffement puis itérations mesurées dans la JVM courante ; renvoie le score de chaque itération
+	 */
+	private double[] mesurer(Mesure m, Puits puits) throws Exception {
+		int[] appel = { 0 };
+		for (int k = 0; k < echauffements; k++)
+			System.out.println("  échauffement " + (k + 1) + " : " + unites(iteration(m, dureeEchauffementMs, appel, puits)));
+		double[] scores = new double[iterations];
+		for (int k = 0; k < iterations; k++) {
+			scores[k] = iteration(m, dureeMesureMs, appel, puits);
+			System.out.println("  itération " + (k + 1) + " : " + unites(scores[k]));
+		}
+		puits.publier();
+		return scores;
+	}
+
+	/**
+	 * Mesure m dans forks JVM neuves successives, scores mis bout à bout
+	 */
+	private double[] mesurerEnForks(Mesure m) throws IOException, InterruptedException {
+		double[] scores = new double[forks * iterations];
+		for (int f = 0; f < forks; f++) {
+			System.out.println("  fork " + (f + 1) + " sur " + forks);
+			Path resultat = Files.createTempFile("microbanc", ".txt");
+			try {
+				List<String> commande = new ArrayList<>();
+				commande.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+				commande.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+				commande.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), principale.getName(),
+						"-wi", Integer.toString(echauffements), "-i", Integer.toString(iterations),
+						"-w", Long.toString(dureeEchauffementMs), "-r", Long.toString(dureeMesureMs),
+						"-scores", resultat.toString(), "^" + Pattern.quote(m.nom) + "$"));
+				int code = new ProcessBuilder(commande).inheritIO().start().waitFor();
+				if (code != 0)
+					throw new IllegalStateException(m.nom + " : la JVM fille s’est terminée avec le code " + code);
+				List<String> lignes = Files.readAllLines(resultat, StandardCharsets.UTF_8);
+				if (lignes.size() != iterations)
+					throw new IllegalStateException(m.nom + " : " + lignes.size() + " scores reçus de la JVM fille au lieu de "
+							+ iterations);
+				for (int k = 0; k < iterations; k++)
+					scores[f * iterations + k] = Double.parseDouble(lignes.get(k));
+			} finally {
+				Files.deleteIfExists(resultat);
+			}
+		}
+		return scores;
+	}
+
+	/**
+	 * Côté JVM fille : mesure l’unique mesure désignée par le filtre et écrit ses scores, un par ligne
+	 */
+	private void ecrireScores(Path f, Pattern filtre) throws Exception {
+		List<Mesure> choisies = new ArrayList<>();
+		for (Mesure m : mesures)
+			if (filtre != null && filtre.matcher(m.nom).find()) choisies.add(m);
+		if (choisies.size() != 1)
+			throw new IllegalArgumentException("-scores attend une seule mesure, " + choisies.size() + " trouvées");
+		StringBuilder sb = new StringBuilder();
+		for (double x : mesurer(choisies.get(0), new Puits()))
+			sb.append(x).append('\n');
+		Files.write(f, sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Une itération d’au moins dureeMs millisecondes ; renvoie le temps moyen par opération en nanosecondes
+	 * Sans préparation, les opérations sont chronométrées par lots dont la taille double tant qu’un lot
+	 * dure moins de 100 µs, pour que le coût de System.nanoTime reste négligeable
+	 */
+	private double iteration(Mesure m, long dureeMs, int[] appel, Puits puits) throws Exception {
+		long duree = dureeMs * 1_000_000L;
+		long operations = 0, temps = 0;
+		long debut = System.nanoTime();
+		if (m.preparation == null) {
+			int lot = 1;
+			do {
+				long t0 = System.nanoTime();
+				for (int k = 0; k < lot; k++)
+					m.operation.executer(appel[0]++, puits);
+				long t = System.nanoTime() - t0;
+				temps += t;
+				operations += lot;
+				if (t < 100_000 && lot < (1 << 20)) lot *= 2;
+			} while (System.nanoTime() - debut < duree);
+		} else {
+			do {
+				m.preparation.preparer(appel[0]);
+				long t0 = System.nanoTime();
+				m.operation.executer(appel[0]++, puits);
+				temps += System.nanoTime() - t0;
+				operations++;
+			} while (System.nanoTime() - debut < duree);
+		}
+		return (double) temps / operations;
+	}
+
+	private static String unites(double ns) {
+		if (ns < 1e3) return String.format(Locale.ROOT, "%.2f ns/op", ns);
+		if (ns < 1e6) return String.format(Locale.ROOT, "%.3f us/op", ns / 1e3);
+		if (ns < 1e9) return String.format(Locale.ROOT, "%.3f ms/op", ns / 1e6);
+		return String.format(Locale.ROOT, "%.3f s/op", ns / 1e9);
+	}
+
+	/**
+	 * Rapport JSON au format de JMH (mode avgt, scores en ns/op), lisible par les outils de suivi de JMH
+	 */
+	private void ecrireJson(Writer w, List<Resultat> resultats) throws IOException {
+		w.write("[\n");
+		for (int k = 0; k < resultats.size(); k++) {
+			Resultat r = resultats.get(k);
+			w.write("    {\n");
+			w.write("        \"jmhVersion\" : \"microbanc\",\n");
+			w.write("        \"benchmark\" : " + Format.json(r.nom) + ",\n");
+			w.write("        \"mode\" : \"avgt\",\n");
+			w.write("        \"threads\" : 1,\n");
+			w.write("        \"forks\" : " + forks + ",\n");
+			w.write("        \"jdkVersion\" : " + Format.json(System.getProperty("java.version")) + ",\n");
+			w.write("        \"warmupIterations\" : " + echauffements + ",\n");
+			w.write("        \"warmupTime\" : \"" + dureeEchauffementMs + " ms\",\n");
+			w.write("        \"measurementIterations\" : " + iterations + ",\n");
+			w.write("        \"measurementTime\" : \"" + dureeMesureMs + " ms\",\n");
+			if (!r.parametres.isEmpty()) {
+				w.write("        \"params\" : {\n");
+				int n = 0;
+				for (Map.Entry<String, String> e : r.parametres.entrySet())
+					w.write("            " + Format.json(e.getKey()) + " : " + Format.json(e.getValue())
+							+ (++n < r.parametres.size() ? ",\n" : "\n"));
+				w.write("        },\n");
+			}
+			w.write("        \"primaryMetric\" : {\n");
+			w.write("            \"score\" : " + nombre(r.moyenne) + ",\n");
+			w.write("            \"scoreError\" : " + nombre(r.erreur) + ",\n");
+			w.write("            \"scoreConfidence\" : [ " + nombre(r.moyenne - r.erreur) + ", "
+					+ nombre(r.moyenne + r.erreur) + " ],\n");
+			w.write("            \"scoreUnit\" : \"ns/op\",\n");
+			// une liste de scores par fork, comme JMH
+			StringBuilder brut = new StringBuilder();
+			for (int i = 0; i < r.scores.length; i++) {
+				if (i % iterations == 0) brut.append(i == 0 ? "[ " : " ], [ ");
+				else brut.append(", ");
+				brut.append(nombre(r.scores[i]));
+			}
+			w.write("            \"rawData\" : [ " + brut + " ] ]\n");
+			w.write("        },\n");
+			w.write("        \"secondaryMetrics\" : {}\n");
+			w.write(k + 1 < resultats.size() ? "    },\n" : "    }\n");
+		}
+		w.write("]\n");
+	}
+
+	/**
+	 * Rapport CSV au format de JMH, avec une colonne par paramètre
+	 */
+	private void ecrireCsv(Writer w, List<Resultat> resultats) throws IOException {
+		Set<String> cles = new TreeSet<>();
+		for (Resultat r : resultats)
+			cles.addAll(r.parametres.keySet());
+		StringBuilder entete = new StringBuilder(
+				"\"Benchmark\",\"Mode\",\"Threads\",\"Samples\",\"Score\",\"Score Error (99.9%)\",\"Unit\"");
+		for (String c : cles)
+			entete.append(",\"Param: ").append(c).append('"');
+		w.write(entete + "\n");
+		for (Resultat r : resultats) {
+			StringBuilder ligne = new StringBuilder();
+			ligne.append(Format.csv(r.nom)).append(",\"avgt\",1,").append(r.scores.length)
+					.append(',').append(nombre(r.moyenne)).append(',').append(Double.isNaN(r.erreur) ? "NaN" : nombre(r.erreur))
+					.append(",\"ns/op\"");
+			for (String c : cles)
+				ligne.append(',').append(r.parametres.getOrDefault(c, ""));
+			w.write(ligne + "\n");
+		}
+	}
+
+	/**
+	 * Nombre au format de JMH, qui écrit NaN entre guillemets
+	 */
+	private static String nombre(double x) {
+		return Double.isNaN(x) ? "\"NaN\"" : Format.nombre(x, 3);
+	}
+
+	/**
+	 * Mesures du modèle du cube, des tables de coordonnées, des heuristiques et des moteurs,
+	 * sur des corpus tirés avec une graine fixe
+	 */
+	public static void main(String[] args) throws Exception {
+		MicroBanc banc = new MicroBanc(MicroBanc.class);
+		Random rnd = new Random(GRAINE);
+		int masque = CORPUS - 1;
+		String[] facelets = new String[CORPUS];
+		CubieCube[] cubes = new CubieCube[CORPUS];
+		CoordCube[] coords = new CoordCube[CORPUS];
+		int[] phase1 = new int[CORPUS], coinsPhase2 = new int[CORPUS], tranchePhase2 = new int[CORPUS],
+				pariteePhase2 = new int[CORPUS];
+		for (int i = 0; i < CORPUS; i++) {
+			facelets[i] = Tools.randomCube(rnd);
+			cubes[i] = new FaceCube(facelets[i]).toCubieCube();
+			coords[i] = new CoordCube(cubes[i]);
+			phase1[i] = CoordCube.N_SLICE1 * cubes[i].getTwist() + cubes[i].getFRtoBR() / 24;
+			coinsPhase2[i] = rnd.nextInt(CoordCube.N_URFtoDLF);
+			tranchePhase2[i] = rnd.nextInt(CoordCube.N_SLICE2);
+			pariteePhase2[i] = rnd.nextInt(CoordCube.N_PARITY);
+		}
+		Map<String, String> corpus = new LinkedHashMap<>();
+		corpus.put("graine", Long.toString(GRAINE));
+		corpus.put("cubes", Integer.toString(CORPUS));
+
+		// modèle du cube
+		CubieCube produit = new CubieCube();
+		banc.ajouter("CubieCube.multiply", corpus, null, (i, p) -> {
+			produit.multiply(cubes[i & masque]);
+			p.consommer(produit.cp[0].ordinal());
+		});
+		banc.ajouter("CubieCube.copy", corpus, null, (i, p) -> p.consommer(cubes[i & masque].copy()));
+		banc.ajouter("CubieCube.getTwist", corpus, null, (i, p) -> p.consommer(cubes[i & masque].getTwist()));
+		banc.ajouter("CubieCube.getURFtoDLF", corpus, null, (i, p) -> p.consommer(cubes[i & masque].getURFtoDLF()));
+		banc.ajouter("FaceCube.toCubieCube", corpus, null,
+				(i, p) -> p.consommer(new FaceCube(facelets[i & masque]).toCubieCube()));
+
+		// tables de coordonnées
+		banc.ajouter("CoordCube.move", corpus, null, (i, p) -> {
+			CoordCube c = coords[i & masque];
+			c.move(i % CoordCube.N_MOVE);
+			p.consommer(c.twist + c.flip + c.FRtoBR + c.URFtoDLF);
+		});
+		banc.ajouter("CoordCube.getPruning", corpus, null,
+				(i, p) -> p.consommer(CoordCube.getPruning(CoordCube.Slice_Twist_Prun(), phase1[i & masque])));
+		banc.ajouter("CoordCube.getCornerPruning", corpus, null, (i, p) -> p.consommer(CoordCube
+				.getCornerPruning(coinsPhase2[i & masque], tranchePhase2[i & masque], pariteePhase2[i & masque])));
+
+		// heuristiques
+		RubikIA ia = new RubikIA();
+		for (Map.Entry<String, ToIntFunction<CubieCube>> e : ia.heuristiques().entrySet()) {
+			ToIntFunction<CubieCube> h = e.getValue();
+			banc.ajouter("RubikIA." + e.getKey(), corpus, null, (i, p) -> p.consommer(h.applyAsInt(cubes[i & masque])));
+		}
+
+		// solveurs sur des cubes aléatoires
+		Map<String, String> resolution = new LinkedHashMap<>(corpus);
+		resolution.put("cubes", Integer.toString(CORPUS_RESOLUTION));
+		resolution.put("profondeurMax", "21");
+		banc.ajouter("Search.solution", resolution, null,
+				(i, p) -> p.consommer(Search.solution(facelets[i % CORPUS_RESOLUTION], 21, 60, false)));
+		banc.ajouter("Thistlethwaite.solution", corpus, null,
+				(i, p) -> p.consommer(Thistlethwaite.solution(facelets[i & masque], false)));
+
+		// joueurs de RubikIA sur des mélanges courts
+		CubieCube[] melanges = Tools.randomCubes(CORPUS_RESOLUTION, PROFONDEUR_JOUEURS, rnd);
+		Map<String, String> joueurs = new LinkedHashMap<>(resolution);
+		joueurs.remove("profondeurMax");
+		joueurs.put("profondeurMelange", Integer.toString(PROFONDEUR_JOUEURS));
+		for (Map.Entry<String, Function<CubieCube, RubikIA.Result>> e : ia.joueurs().entrySet()) {
+			Function<CubieCube, RubikIA.Result> j = e.getValue();
+			banc.ajouter("RubikIA." + e.getKey(), joueurs, null,
+					(i, p) -> p.consommer(j.apply(melanges[i % CORPUS_RESOLUTION]).coups));
+		}
+
+		banc.lancer(args);
+		System.exit(0);
+	}
+}
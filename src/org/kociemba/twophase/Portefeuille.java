@@ -0,0 +1,232 @@
+package org.kociemba.twophase;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Mode portefeuille : les moteurs choisis partent en même temps sur le même cube, chacun sur son thread
+ * La première solution valide ouvre une fenêtre de grâce pendant laquelle un moteur plus lent peut
+ * encore rendre une solution plus courte ; à la fin de la fenêtre (ou quand tous les moteurs ont fini),
+ * la plus courte est gardée et les autres moteurs sont annulés
+ *
+ * L’annulation est coopérative : les threads perdants sont interrompus et chaque moteur le constate
+ * au même endroit que son délai (RubikIA.arreter, Search, MCTS)
+ */
+public final class Portefeuille {
+
+	/**
+	 * Moteurs du portefeuille par défaut : rapides sur des cubes quelconques, ou optimaux sur les mélanges courts
+	 */
+	static final String MOTEURS = "joueur18_Search|joueur16_IDA_TwoPhaseCoins|joueur17_Thistlethwaite|joueur10_Faisceau";
+
+	/**
+	 * Fenêtre de grâce par défaut, en millisecondes
+	 */
+	static final long GRACE_MS = 100;
+
+	/**
+	 * Course d’un moteur : durée jusqu’à sa fin ou à son arrêt après annulation
+	 */
+	public static final class Course {
+		public final String nom;
+		private final long debutNs;
+		private volatile long finNs;
+		private volatile RubikIA.Result resultat;
+		private volatile boolean annulee;
+
+		Course(String nom, long debutNs) {
+			this.nom = nom;
+			this.debutNs = debutNs;
+		}
+
+		/**
+		 * Résultat du moteur, null s’il a été annulé ou a levé une exception
+		 */
+		public RubikIA.Result resultat() {
+			return resultat;
+		}
+
+		public boolean annulee() {
+			return annulee;
+		}
+
+		/**
+		 * Temps pendant lequel le moteur a tourné (jusqu’à maintenant s’il ne s’est pas encore arrêté)
+		 */
+		public double dureeSec() {
+			long fin = finNs;
+			return ((fin != 0 ? fin : System.nanoTime()) - debutNs) / 1e9;
+		}
+	}
+
+	/**
+	 * Issue d’une course : solution retenue (null si aucun moteur n’a réussi), moteur gagnant,
+	 * latence jusqu’à la décision et course de chaque moteur
+	 */
+	public static final class Resultat {
+		public final RubikIA.Result solution;
+		public final String gagnant;
+		public final double tempsSec;
+		public final List<Course> courses;
+
+		Resultat(RubikIA.Result solution, String gagnant, double tempsSec, List<Course> courses) {
+			this.solution = solution;
+			this.gagnant = gagnant;
+			this.tempsSec = tempsSec;
+			this.courses = courses;
+		}
+	}
+
+	private final Map<String, Function<CubieCube, RubikIA.Result>> moteurs;
+	private final long graceNs;
+
+	/**
+	 * Portefeuille des moteurs donnés (par nom), avec une fenêtre de grâce en millisecondes
+	 * (0 : la première solution valide gagne)
+	 */
+	public Portefeuille(Map<String, Function<CubieCube, RubikIA.Result>> moteurs, long graceMs) {
+		if (moteurs.isEmpty())
+			throw new IllegalArgumentException("portefeuille vide");
+		this.moteurs = new LinkedHashMap<>(moteurs);
+		this.graceNs = TimeUnit.MILLISECONDS.toNanos(graceMs);
+	}
+
+	/**
+	 * Portefeuille des joueurs de ia dont le nom correspond à l’expression régulière
+	 */
+	static Portefeuille choisir(RubikIA ia, String moteurs, long graceMs) {
+		Map<String, Function<CubieCube, RubikIA.Result>> choisis = BancCorpus.joueurs(ia, Pattern.compile(moteurs));
+		// tous les moteurs courent en même temps
+		ia.partagerCoeurs(choisis.size());
+		return new Portefeuille(choisis, graceMs);
+	}
+
+	/**
+	 * Lance la course sur c et renvoie dès que la solution est décidée, sans attendre l’arrêt des perdants
+	 */
+	public Resultat resoudre(CubieCube c) {
+		ExecutorService pool = Executors.newFixedThreadPool(moteurs.size(), r -> {
+			Thread t = new Thread(r, "portefeuille");
+			t.setDaemon(true);
+			return t;
+		});
+		LinkedBlockingQueue<Course> arrivees = new LinkedBlockingQueue<>();
+		List<Course> courses = new ArrayList<>();
+		long t0 = System.nanoTime();
+		for (Map.Entry<String, Function<CubieCube, RubikIA.Result>> m : moteurs.entrySet()) {
+			Course course = new Course(m.getKey(), t0);
+			Function<CubieCube, RubikIA.Result> moteur = m.getValue();
+			CubieCube cube = c.copy();
+			courses.add(course);
+			pool.execute(() -> {
+				try {
+					course.resultat = moteur.apply(cube);
+				} catch (RuntimeException | StackOverflowError e) {
+					course.resultat = null;
+				} finally {
+					course.finNs = System.nanoTime();
+					arrivees.add(course);
+				}
+			});
+		}
+
+		Course meilleure = null;
+		long echeance = Long.MAX_VALUE;
+		int recues = 0;
+		try {
+			while (recues < courses.size()) {
+				Course a;
+				if (echeance == Long.MAX_VALUE) {
+					a = arrivees.take();
+				} else {
+					a = arrivees.poll(echeance - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (a == null) break;
+				}
+				recues++;
+				if (!valide(a, c)) continue;
+				if (meilleure == null) {
+					meilleure = a;
+					if (graceNs == 0) break;
+					echeance = System.nanoTime() + graceNs;
+				} else if (a.resultat.coups < meilleure.resultat.coups) {
+					meilleure = a;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		double temps = (System.nanoTime() - t0) / 1e9;
+
+		for (Course course : courses)
+			if (course.finNs == 0) course.annulee = true;
+		pool.shutdownNow();
+
+		return meilleure == null ? new Resultat(null, null, temps, courses)
+				: new Resultat(meilleure.resultat, meilleure.nom, temps, courses);
+	}
+
+	private static boolean valide(Course a, CubieCube c) {
+		RubikIA.Result r = a.resultat;
+		return r != null && r.succes && RubikIA.verifierSolution(c, r.coups == 0 ? "" : r.solution);
+	}
+
+	/**
+	 * Courses sur des cubes tirés avec une graine fixe, avec le bilan des victoires de chaque moteur
+	 * Options : -moteurs expression régulière, -grace fenêtre en millisecondes, -n nombre de cubes,
+	 * -graine graine du tirage, -melange longueur des mélanges (sans cette option : cubes aléatoires)
+	 */
+	public static void main(String[] args) {
+		String moteurs = MOTEURS;
+		long grace = GRACE_MS;
+		int n = 10, melange = -1;
+		long graine = BancCorpus.GRAINE;
+		for (int k = 0; k < args.length; k++) {
+			switch (args[k]) {
+			case "-moteurs": moteurs = args[++k]; break;
+			case "-grace": grace = Long.parseLong(args[++k]); break;
+			case "-n": n = Integer.parseInt(args[++k]); break;
+			case "-graine": graine = Long.parseLong(args[++k]); break;
+			case "-melange": melange = Integer.parseInt(args[++k]); break;
+			default: throw new IllegalArgumentException("option inconnue : " + args[k]);
+			}
+		}
+
+		RubikIA ia = new RubikIA();
+		System.out.println("⏳ Construction des tables...");
+		ia.preparer();
+		Portefeuille portefeuille = choisir(ia, moteurs, grace);
+		System.out.println("🏁 Portefeuille : " + String.join(", ", portefeuille.moteurs.keySet())
+				+ " (grâce " + grace + " ms)\n");
+
+		CubieCube[] cubes = Tools.randomCubes(n, melange, new Random(graine));
+		Map<String, Integer> victoires = new TreeMap<>();
+		double total = 0;
+		for (int i = 0; i < n; i++) {
+			CubieCube c = cubes[i];
+			Resultat r = portefeuille.resoudre(c);
+			total += r.tempsSec;
+			if (r.solution == null) {
+				System.out.printf("Cube %d : aucune solution (%.3fs)\n", i + 1, r.tempsSec);
+			} else {
+				victoires.merge(r.gagnant, 1, Integer::sum);
+				System.out.printf("Cube %d : %s, %d coups en %.3fs\n", i + 1, r.gagnant, r.solution.coups, r.tempsSec);
+			}
+			for (Course course : r.courses) {
+				RubikIA.Result res = course.resultat();
+				System.out.printf("   %-38s %8.3fs  %s\n", course.nom, course.dureeSec(),
+						course.annulee() ? "annulé"
+								: res == null ? "erreur"
+								: res.succes ? res.coups + " coups" : "échec");
+			}
+		}
+		System.out.printf("\nLatence moyenne : %.3fs\n", total / n);
+		for (Map.Entry<String, Integer> v : victoires.entrySet())
+			System.out.println("   " + v.getKey() + " : " + v.getValue() + " victoire(s)");
+		System.exit(0);
+	}
+}
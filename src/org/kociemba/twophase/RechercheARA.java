@@ -0,0 +1,247 @@
+package org.kociemba.twophase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Anytime Repairing A* (ARA*, Likhachev, Gordon et Thrun 2003)
+ * La recherche commence avec un poids ε élevé pour trouver vite une solution, puis diminue ε
+ * et réutilise les nœuds déjà développés pour publier des solutions de plus en plus courtes,
+ * jusqu’à l’échéance ou jusqu’à ε = 1 (solution optimale)
+ *
+ * Les heuristiques admissibles du cube sont trop plates pour qu’un simple poids ε · h trouve
+ * une première solution : la priorité vaut g + h + (ε - 1) · guide, où guide est une estimation
+ * non admissible. Pour ε = 1 on retrouve exactement A* avec l’heuristique admissible h
+ *
+ * Chaque solution publiée porte sa borne de sous-optimalité prouvée g(but) / min(g + h)
+ * sur les nœuds ouverts et incohérents : la longueur optimale n’est jamais inférieure à ce minimum
+ */
+final class RechercheARA {
+
+	/**
+	 * Poids initial, pas de diminution, et nombre maximal d’états mémorisés
+	 */
+	static final double EPSILON_INITIAL = 3.0;
+	static final double PAS_EPSILON = 0.5;
+	static final int ETATS_MAX = 3_000_000;
+
+	/**
+	 * État mémorisé : coût depuis le départ, heuristiques et prédécesseur
+	 * version sert à ignorer les entrées périmées de la file de priorité
+	 */
+	private static final class Noeud {
+		final CubieCube cube;
+		final long cle;
+		final int h;
+		final int guide;
+		int g;
+		int lastMove;
+		Noeud parent;
+		int version;
+		boolean ouvert, ferme, incoherent;
+
+		Noeud(CubieCube cube, long cle, int h, int guide) {
+			this.cube = cube;
+			this.cle = cle;
+			this.h = h;
+			this.guide = guide;
+		}
+	}
+
+	/**
+	 * Entrée de la file de priorité
+	 */
+	private static final class Entree {
+		final Noeud noeud;
+		final double f;
+		final int version;
+
+		Entree(Noeud n, double f) {
+			noeud = n;
+			this.f = f;
+			version = n.version;
+		}
+	}
+
+	private final ToIntFunction<CubieCube> h;
+	private final ToIntFunction<CubieCube> guide;
+	private final Map<Long, Noeud> etats = new HashMap<>();
+	private PriorityQueue<Entree> ouverts = nouvelleFile();
+	private final List<Noeud> incoherents = new ArrayList<>();
+
+	private double epsilon = EPSILON_INITIAL;
+	private Noeud but;
+	private long noeuds;
+	private long reexpansions;
+	private boolean abandon;
+
+	/**
+	 * Prépare une recherche avec l’heuristique admissible h et l’estimation guide
+	 */
+	RechercheARA(ToIntFunction<CubieCube> h, ToIntFunction<CubieCube> guide) {
+		this.h = h;
+		this.guide = guide;
+	}
+
+	/**
+	 * Lance la recherche et publie chaque amélioration via publier
+	 * Renvoie la meilleure solution trouvée avant l’échéance (en nanosecondes)
+	 */
+	RubikIA.Result lancer(String nom, CubieCube start, long echeanceNs, Consumer<RubikIA.Result> publier) {
+		long t0 = System.nanoTime();
+
+		Noeud depart = new Noeud(start, start.zobrist(), h.applyAsInt(start), 0);
+		depart.lastMove = -1;
+		etats.put(depart.cle, depart);
+		if (RubikIA.isSolved(start)) {
+			RubikIA.Result r = new RubikIA.Result(nom, "(déjà résolu)", 0, 0.0, 1, true);
+			r.epsilon = 1.0;
+			publier.accept(r);
+			return r;
+		}
+		ouvrir(depart);
+
+		RubikIA.Result meilleur = null;
+		while (true) {
+			ameliorerChemin(t0, echeanceNs);
+			// sur abandon, une solution déjà atteinte est publiée avec la borne courante plutôt que perdue
+			if (abandon && but == null) break;
+
+			double borne = Math.max(1.0, but.g / (double) minOuvertsOuIncoherents());
+			if (meilleur == null || but.g < meilleur.coups || borne < meilleur.epsilon) {
+				meilleur = resultat(nom, t0, borne);
+				publier.accept(meilleur);
+			}
+			if (abandon || borne <= 1.0 || epsilon == 1.0) break;
+
+			// nouvelle itération : ε diminue, les nœuds incohérents sont rouverts
+			epsilon = Math.max(1.0, epsilon - PAS_EPSILON);
+			PriorityQueue<Entree> file = nouvelleFile();
+			for (Entree e : ouverts)
+				if (e.version == e.noeud.version && e.noeud.ouvert)
+					file.add(new Entree(e.noeud, priorite(e.noeud)));
+			for (Noeud n : incoherents) {
+				n.incoherent = false;
+				if (!n.ouvert) {
+					n.ouvert = true;
+					n.version++;
+					file.add(new Entree(n, priorite(n)));
+				}
+			}
+			incoherents.clear();
+			ouverts = file;
+			for (Noeud n : etats.values())
+				n.ferme = false;
+		}
+
+		if (meilleur != null)
+			return meilleur;
+		RubikIA.Result echec = new RubikIA.Result(nom, "", 0, (System.nanoTime() - t0) / 1e9, noeuds, false);
+		echec.reexpansions = reexpansions;
+		echec.memoirePic = etats.size();
+		return echec;
+	}
+
+	/**
+	 * Développe les nœuds de plus petite priorité tant qu’ils peuvent améliorer la solution courante
+	 */
+	private void ameliorerChemin(long t0, long echeanceNs) {
+		CubieCube c = new CubieCube();
+		while (!ouverts.isEmpty()) {
+			Entree e = ouverts.peek();
+			if (e.version != e.noeud.version || !e.noeud.ouvert) {
+				ouverts.poll();
+				continue;
+			}
+			if (but != null && priorite(but) <= e.f)
+				return;
+
+			if (RubikIA.arreter(t0, echeanceNs) || etats.size() > ETATS_MAX) {
+				abandon = true;
+				return;
+			}
+
+			ouverts.poll();
+			Noeud n = e.noeud;
+			n.ouvert = false;
+			n.ferme = true;
+			noeuds++;
+
+			for (int mv = 0; mv < RubikIA.NB_MOVES; mv++) {
+				if (n.lastMove != -1 && RubikIA.MOVE_FACE[mv] == RubikIA.MOVE_FACE[n.lastMove]) continue;
+
+				c.set(n.cube);
+				long cle = c.moveZobrist(mv, n.cle);
+				Noeud s = etats.get(cle);
+				if (s == null) {
+					CubieCube cube = c.copy();
+					s = new Noeud(cube, cle, h.applyAsInt(cube), guide.applyAsInt(cube));
+					s.g = Integer.MAX_VALUE;
+					etats.put(cle, s);
+				}
+				if (s.g <= n.g + 1) continue;
+
+				if (s.g != Integer.MAX_VALUE) reexpansions++;
+				s.g = n.g + 1;
+				s.parent = n;
+				s.lastMove = mv;
+				if (RubikIA.isSolved(s.cube))
+					but = s;
+
+				if (!s.ferme) {
+					ouvrir(s);
+				} else if (!s.incoherent) {
+					s.incoherent = true;
+					incoherents.add(s);
+				}
+			}
+		}
+	}
+
+	private void ouvrir(Noeud n) {
+		n.ouvert = true;
+		n.version++;
+		ouverts.add(new Entree(n, priorite(n)));
+	}
+
+	private double priorite(Noeud n) {
+		return n.g + n.h + (epsilon - 1) * n.guide;
+	}
+
+	/**
+	 * Plus petite valeur g + h parmi les nœuds ouverts et incohérents
+	 * Elle minore la longueur optimale, d’où la borne g(but) / min
+	 */
+	private int minOuvertsOuIncoherents() {
+		int min = but.g;
+		for (Entree e : ouverts)
+			if (e.version == e.noeud.version && e.noeud.ouvert)
+				min = Math.min(min, e.noeud.g + e.noeud.h);
+		for (Noeud n : incoherents)
+			min = Math.min(min, n.g + n.h);
+		return Math.max(1, min);
+	}
+
+	private RubikIA.Result resultat(String nom, long t0, double borne) {
+		List<Integer> chemin = new ArrayList<>();
+		for (Noeud n = but; n.parent != null; n = n.parent)
+			chemin.add(0, n.lastMove);
+		int[] coups = chemin.stream().mapToInt(i -> i).toArray();
+		RubikIA.Result r = new RubikIA.Result(String.format("%s ε=%.2f", nom, borne),
+				RubikIA.pathToString(coups, coups.length), coups.length,
+				(System.nanoTime() - t0) / 1e9, noeuds, true);
+		r.epsilon = borne;
+		r.reexpansions = reexpansions;
+		r.memoirePic = etats.size();
+		return r;
+	}
+
+	private static PriorityQueue<Entree> nouvelleFile() {
+		return new PriorityQueue<>((a, b) -> Double.compare(a.f, b.f));
+	}
+}
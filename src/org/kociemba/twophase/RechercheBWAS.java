@@ -0,0 +1,162 @@
+package org.kociemba.twophase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * A* pondéré par lots (BWAS, Agostinelli et al. 2019), guidé par le réseau ReseauHeuristique
+ * À chaque itération, les lot meilleurs nœuds ouverts sont développés ensemble et tous leurs
+ * fils sont évalués en un seul appel au réseau : le coût de l’inférence est ainsi amorti
+ *
+ * La priorité vaut poids · g + h ; avec un poids inférieur à 1 la recherche privilégie
+ * les états proches du but. La solution n’est pas forcément optimale
+ */
+final class RechercheBWAS {
+
+	/**
+	 * Nombre maximal d’états mémorisés avant abandon
+	 */
+	static final int ETATS_MAX = 3_000_000;
+
+	/**
+	 * État développé ou en attente : cube, coût depuis le départ et prédécesseur
+	 */
+	private static final class Noeud {
+		final CubieCube cube;
+		final long cle;
+		final int g;
+		final int lastMove;
+		final Noeud parent;
+		final float f;
+
+		Noeud(CubieCube cube, long cle, int g, int lastMove, Noeud parent, float f) {
+			this.cube = cube;
+			this.cle = cle;
+			this.g = g;
+			this.lastMove = lastMove;
+			this.parent = parent;
+			this.f = f;
+		}
+	}
+
+	private final ReseauHeuristique reseau;
+	private final int lot;
+	private final float poids;
+	private final long delaiNs;
+	private final long noeudsMax;
+
+	/**
+	 * Tampons du lot de fils : entrées et sorties du réseau (propres à cette recherche),
+	 * nœuds en attente d’évaluation
+	 */
+	private final ReseauHeuristique.Tampons tampons;
+	private final Noeud[] parents;
+	private final CubieCube[] fils;
+	private final long[] cles;
+	private final int[] coups;
+
+	/**
+	 * Prépare une recherche développant lot nœuds par itération avec le poids donné
+	 * Le réseau peut être partagé : chaque recherche évalue dans ses propres tampons
+	 * La recherche s’arrête après delaiNs nanosecondes ou noeudsMax nœuds
+	 */
+	RechercheBWAS(ReseauHeuristique reseau, int lot, float poids, long delaiNs, long noeudsMax) {
+		if (lot <= 0)
+			throw new IllegalArgumentException("taille de lot invalide : " + lot);
+		this.reseau = reseau;
+		this.lot = lot;
+		this.poids = poids;
+		this.delaiNs = delaiNs;
+		this.noeudsMax = noeudsMax;
+		int n = lot * RubikIA.NB_MOVES;
+		tampons = new ReseauHeuristique.Tampons(n);
+		parents = new Noeud[n];
+		fils = new CubieCube[n];
+		cles = new long[n];
+		coups = new int[n];
+	}
+
+	/**
+	 * Lance la recherche depuis start et renvoie le résultat
+	 */
+	RubikIA.Result lancer(String nom, CubieCube start) {
+		long t0 = System.nanoTime();
+		long noeuds = 0;
+
+		if (RubikIA.isSolved(start))
+			return new RubikIA.Result(nom, "(déjà résolu)", 0, 0.0, 1, true);
+
+		// meilleur g connu pour chaque état, indexé par clé de Zobrist
+		Map<Long, Integer> vus = new HashMap<>();
+		PriorityQueue<Noeud> ouverts = new PriorityQueue<>((a, b) -> Float.compare(a.f, b.f));
+		Noeud depart = new Noeud(start, start.zobrist(), 0, -1, null, 0f);
+		ouverts.add(depart);
+		vus.put(depart.cle, 0);
+
+		while (!ouverts.isEmpty()) {
+			if (RubikIA.arreter(t0, delaiNs) || noeuds > noeudsMax
+					|| vus.size() > ETATS_MAX)
+				break;
+
+			// génération des fils des lot meilleurs nœuds
+			int n = 0;
+			int developpes = 0;
+			while (developpes < lot && !ouverts.isEmpty()) {
+				Noeud p = ouverts.poll();
+				if (vus.get(p.cle) < p.g) continue;
+				developpes++;
+				noeuds++;
+
+				for (int mv = 0; mv < RubikIA.NB_MOVES; mv++) {
+					if (p.lastMove != -1 && RubikIA.MOVE_FACE[mv] == RubikIA.MOVE_FACE[p.lastMove]) continue;
+
+					CubieCube c = p.cube.copy();
+					long cle = c.moveZobrist(mv, p.cle);
+					if (RubikIA.isSolved(c)) {
+						Noeud but = new Noeud(c, cle, p.g + 1, mv, p, 0f);
+						RubikIA.Result r = resultat(nom, but, t0, noeuds);
+						r.memoirePic = vus.size();
+						return r;
+					}
+
+					Integer g = vus.get(cle);
+					if (g != null && g <= p.g + 1) continue;
+					vus.put(cle, p.g + 1);
+
+					ReseauHeuristique.coder(c, tampons.idx, n * ReseauHeuristique.ACTIFS);
+					fils[n] = c;
+					cles[n] = cle;
+					parents[n] = p;
+					coups[n] = mv;
+					n++;
+				}
+			}
+
+			// une seule inférence pour tout le lot
+			reseau.evaluer(tampons, n);
+			float[] h = tampons.sortie;
+			for (int i = 0; i < n; i++) {
+				int g = parents[i].g + 1;
+				ouverts.add(new Noeud(fils[i], cles[i], g, coups[i], parents[i], poids * g + Math.max(0f, h[i])));
+				fils[i] = null;
+				parents[i] = null;
+			}
+		}
+
+		RubikIA.Result r = new RubikIA.Result(nom, "", 0, (System.nanoTime() - t0) / 1e9, noeuds, false);
+		r.memoirePic = vus.size();
+		return r;
+	}
+
+	private RubikIA.Result resultat(String nom, Noeud but, long t0, long noeuds) {
+		List<Integer> chemin = new ArrayList<>();
+		for (Noeud n = but; n.parent != null; n = n.parent)
+			chemin.add(0, n.lastMove);
+		int[] p = chemin.stream().mapToInt(i -> i).toArray();
+		return new RubikIA.Result(nom, RubikIA.pathToString(p, p.length), p.length,
+				(System.nanoTime() - t0) / 1e9, noeuds, true);
+	}
+}
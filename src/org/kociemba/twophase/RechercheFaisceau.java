@@ -0,0 +1,189 @@
+package org.kociemba.twophase;
+
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * Recherche en faisceau (beam search) pour obtenir vite une solution, sans garantie d’optimalité
+ * À chaque profondeur, seuls les largeur meilleurs états selon l’heuristique sont conservés :
+ * la mémoire et le temps par niveau sont bornés, contrairement à A* glouton
+ *
+ * Les faisceaux sont stockés sous forme compacte (CubieCube.pack) dans des tampons primitifs
+ * réutilisés d’un niveau à l’autre, et les doublons d’un même faisceau sont éliminés
+ * grâce à leur clé de Zobrist
+ */
+final class RechercheFaisceau {
+
+	/**
+	 * Profondeur maximale avant abandon
+	 */
+	static final int PROFONDEUR_MAX = 40;
+
+	private static final int TAILLE = CubieCube.PACKED_SIZE;
+
+	private final ToIntFunction<CubieCube> h;
+	private final int largeur;
+	private final long delaiNs;
+
+	/**
+	 * Faisceau courant et suivant : états compacts et clés de Zobrist
+	 */
+	private byte[] etats;
+	private byte[] etatsSuivants;
+	private long[] cles;
+	private long[] clesSuivantes;
+	private final int[] derniersCoups;
+
+	/**
+	 * Candidats d’un niveau : (h << 32 | numéro) pour le tri, et clé de chaque candidat
+	 * Le numéro d’un candidat vaut parent * 18 + coup
+	 */
+	private final long[] candidats;
+	private final long[] clesCandidats;
+
+	/**
+	 * Ensemble des clés déjà retenues dans le faisceau suivant (adressage ouvert)
+	 * Une case est occupée si son tampon vaut la génération courante
+	 */
+	private final long[] ensemble;
+	private final int[] generation;
+	private int generationCourante;
+
+	/**
+	 * Historique pour reconstruire la solution : parent et coup de chaque état, par profondeur
+	 */
+	private final int[][] parents;
+	private final byte[][] coupsHist;
+
+	/**
+	 * Prépare une recherche de largeur donnée guidée par l’heuristique h, arrêtée après delaiNs nanosecondes
+	 */
+	RechercheFaisceau(ToIntFunction<CubieCube> h, int largeur, long delaiNs) {
+		if (largeur <= 0)
+			throw new IllegalArgumentException("largeur invalide : " + largeur);
+		this.h = h;
+		this.largeur = largeur;
+		this.delaiNs = delaiNs;
+		etats = new byte[largeur * TAILLE];
+		etatsSuivants = new byte[largeur * TAILLE];
+		cles = new long[largeur];
+		clesSuivantes = new long[largeur];
+		derniersCoups = new int[largeur];
+		candidats = new long[largeur * RubikIA.NB_MOVES];
+		clesCandidats = new long[largeur * RubikIA.NB_MOVES];
+		int n = Integer.highestOneBit(largeur) << 2;
+		ensemble = new long[n];
+		generation = new int[n];
+		parents = new int[PROFONDEUR_MAX][largeur];
+		coupsHist = new byte[PROFONDEUR_MAX][largeur];
+	}
+
+	/**
+	 * Lance la recherche depuis start
+	 */
+	RubikIA.Result lancer(String nom, CubieCube start) {
+		long t0 = System.nanoTime();
+		long noeuds = 0;
+
+		if (RubikIA.isSolved(start))
+			return resultat(new RubikIA.Result(nom, "(déjà résolu)", 0, 0.0, 1, true));
+
+		start.pack(etats, 0);
+		cles[0] = start.zobrist();
+		derniersCoups[0] = -1;
+		int taille = 1;
+
+		CubieCube c = new CubieCube();
+		for (int prof = 0; prof < PROFONDEUR_MAX; prof++) {
+
+			// génération et évaluation de tous les fils du faisceau
+			int n = 0;
+			for (int p = 0; p < taille; p++) {
+				for (int mv = 0; mv < RubikIA.NB_MOVES; mv++) {
+					int last = derniersCoups[p];
+					if (last != -1 && RubikIA.MOVE_FACE[mv] == RubikIA.MOVE_FACE[last]) continue;
+
+					c.unpack(etats, p * TAILLE);
+					long cle = c.moveZobrist(mv, cles[p]);
+					noeuds++;
+
+					if (RubikIA.isSolved(c)) {
+						parents[prof][0] = p;
+						coupsHist[prof][0] = (byte) mv;
+						int[] chemin = cheminVers(prof);
+						return resultat(new RubikIA.Result(nom, RubikIA.pathToString(chemin, prof + 1), prof + 1,
+								(System.nanoTime() - t0) / 1e9, noeuds, true));
+					}
+
+					int num = p * RubikIA.NB_MOVES + mv;
+					candidats[n] = ((long) h.applyAsInt(c) << 32) | num;
+					clesCandidats[num] = cle;
+					n++;
+				}
+			}
+
+			if (RubikIA.arreter(t0, delaiNs))
+				break;
+
+			// sélection des meilleurs candidats distincts
+			Arrays.sort(candidats, 0, n);
+			generationCourante++;
+			int suivant = 0;
+			for (int i = 0; i < n && suivant < largeur; i++) {
+				int num = (int) candidats[i];
+				long cle = clesCandidats[num];
+				if (!ajouter(cle)) continue;
+
+				int p = num / RubikIA.NB_MOVES, mv = num % RubikIA.NB_MOVES;
+				c.unpack(etats, p * TAILLE);
+				RubikIA.applyMove18(c, mv);
+				c.pack(etatsSuivants, suivant * TAILLE);
+				clesSuivantes[suivant] = cle;
+				parents[prof][suivant] = p;
+				coupsHist[prof][suivant] = (byte) mv;
+				suivant++;
+			}
+
+			for (int i = 0; i < suivant; i++)
+				derniersCoups[i] = coupsHist[prof][i];
+			byte[] tb = etats; etats = etatsSuivants; etatsSuivants = tb;
+			long[] tc = cles; cles = clesSuivantes; clesSuivantes = tc;
+			taille = suivant;
+		}
+
+		return resultat(new RubikIA.Result(nom, "", 0, (System.nanoTime() - t0) / 1e9, noeuds, false));
+	}
+
+	/**
+	 * Ajoute une clé à l’ensemble du niveau courant, renvoie false si elle y était déjà
+	 */
+	private boolean ajouter(long cle) {
+		int masque = ensemble.length - 1;
+		int i = (int) (cle ^ (cle >>> 32)) & masque;
+		while (generation[i] == generationCourante) {
+			if (ensemble[i] == cle) return false;
+			i = (i + 1) & masque;
+		}
+		generation[i] = generationCourante;
+		ensemble[i] = cle;
+		return true;
+	}
+
+	/**
+	 * Remonte l’historique depuis l’état 0 de la profondeur prof jusqu’à la racine
+	 */
+	private int[] cheminVers(int prof) {
+		int[] chemin = new int[prof + 1];
+		int idx = 0;
+		for (int d = prof; d >= 0; d--) {
+			chemin[d] = coupsHist[d][idx];
+			idx = parents[d][idx];
+		}
+		return chemin;
+	}
+
+	private RubikIA.Result resultat(RubikIA.Result r) {
+		r.memoirePic = 2L * largeur;
+		return r;
+	}
+}
@@ -0,0 +1,106 @@
+package org.kociemba.twophase;
+
+/**
+ * IDA* dont les nœuds sont développés par lots (LotSuccesseurs)
+ * Tous les fils d’un nœud sont générés puis évalués en une seule passe, directement
+ * à partir du couloir du parent : aucun CubieCube n’est créé pendant la recherche
+ *
+ * L’ordre de parcours et le décompte des nœuds sont ceux de l’IDA* de RubikIA,
+ * ce qui permet de comparer directement le temps par nœud des deux versions
+ */
+final class RechercheIDALot {
+
+	/**
+	 * Profondeur maximale explorée (nombre de lots préalloués)
+	 */
+	private static final int PROFONDEUR_MAX = 40;
+
+	private final LotSuccesseurs.Noyau noyau;
+	private final long delaiNs;
+	private final long noeudsMax;
+
+	/**
+	 * Lot et valeurs heuristiques de chaque profondeur ; lots[0] contient la racine
+	 */
+	private final LotSuccesseurs[] lots = new LotSuccesseurs[PROFONDEUR_MAX + 1];
+	private final int[][] hs = new int[PROFONDEUR_MAX + 1][LotSuccesseurs.LARGEUR];
+
+	private final int[] chemin = new int[PROFONDEUR_MAX];
+	private int longueur;
+	private long t0;
+	private long noeuds;
+
+	/**
+	 * Prépare une recherche évaluant ses lots avec le noyau donné, limitée en temps et en nœuds
+	 */
+	RechercheIDALot(LotSuccesseurs.Noyau noyau, long delaiNs, long noeudsMax) {
+		this.noyau = noyau;
+		this.delaiNs = delaiNs;
+		this.noeudsMax = noeudsMax;
+		for (int g = 0; g <= PROFONDEUR_MAX; g++)
+			lots[g] = new LotSuccesseurs();
+	}
+
+	/**
+	 * Lance la recherche depuis start et renvoie le résultat
+	 */
+	RubikIA.Result lancer(String nom, CubieCube start) {
+		t0 = System.nanoTime();
+		noeuds = 0;
+
+		if (RubikIA.isSolved(start))
+			return new RubikIA.Result(nom, "(déjà résolu)", 0, 0.0, 1, true);
+
+		lots[0].charger(start);
+		lots[0].evaluer(noyau, hs[0]);
+		int bound = hs[0][0];
+
+		while (true) {
+			noeuds++;
+			int t = dfs(0, 0, bound);
+			double temps = (System.nanoTime() - t0) / 1e9;
+			if (t == -1)
+				return new RubikIA.Result(nom, RubikIA.pathToString(chemin, longueur), longueur, temps, noeuds, true);
+			if (t == Integer.MAX_VALUE)
+				return new RubikIA.Result(nom, "", 0, temps, noeuds, false);
+			bound = t;
+		}
+	}
+
+	/**
+	 * Développe le couloir p du lot de profondeur g (déjà compté et sous la borne)
+	 * Renvoie -1 si la solution est trouvée, sinon le plus petit f dépassant la borne
+	 */
+	private int dfs(int g, int p, int bound) {
+		if (g == PROFONDEUR_MAX)
+			return Integer.MAX_VALUE;
+
+		LotSuccesseurs lot = lots[g + 1];
+		int[] h = hs[g + 1];
+		lot.remplir(lots[g], p);
+		lot.evaluer(noyau, h);
+
+		int min = Integer.MAX_VALUE;
+		for (int k = 0; k < lot.taille; k++) {
+			if (RubikIA.arreter(t0, delaiNs) || noeuds > noeudsMax)
+				return Integer.MAX_VALUE;
+
+			int f = g + 1 + h[k];
+			if (f > bound) {
+				min = Math.min(min, f);
+				continue;
+			}
+
+			noeuds++;
+			chemin[g] = lot.coups[k];
+			if (lot.estResolu(k)) {
+				longueur = g + 1;
+				return -1;
+			}
+			int t = dfs(g + 1, k, bound);
+			if (t == -1) return -1;
+			min = Math.min(min, t);
+		}
+		return min;
+	}
+}
@@ -0,0 +1,255 @@
+package org.kociemba.twophase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
+
+/**
+ * Recherche arborescente Monte-Carlo (MCTS) parallèle
+ * Plusieurs threads partagent un même arbre : chacun descend selon UCT, développe une feuille,
+ * joue un déroulement aléatoire noté par l’heuristique puis remonte la récompense
+ *
+ * Les compteurs de visites et de valeur sont atomiques (aucun verrou). Une perte virtuelle
+ * est ajoutée aux nœuds traversés le temps d’un déroulement : les autres threads
+ * les trouvent moins attractifs et explorent d’autres branches
+ *
+ * La recherche s’arrête dès qu’un thread rencontre l’état résolu ; la solution n’est pas optimale
+ * Le temps CPU et les octets alloués par les threads de la recherche sont versés dans le résultat :
+ * le thread appelant ne fait qu’attendre, CompteurRessources seul n’en verrait presque rien
+ */
+final class RechercheMCTS {
+
+	/**
+	 * Coups joués par déroulement, constante d’exploration UCT, poids de la perte virtuelle,
+	 * visites d’une feuille avant son développement et nombre maximal de nœuds de l’arbre
+	 */
+	static final int LONGUEUR_DEROULEMENT = 8;
+	static final double EXPLORATION = 0.5;
+	static final int PERTE_VIRTUELLE = 3;
+	static final int SEUIL_DEVELOPPEMENT = 4;
+	static final int NOEUDS_MAX = 1_000_000;
+
+	/**
+	 * Valeur heuristique à partir de laquelle la récompense est nulle
+	 */
+	private static final double H_MAX = 22.0;
+
+	/**
+	 * Précision de la valeur cumulée, stockée en virgule fixe dans un AtomicLong
+	 */
+	private static final double ECHELLE = 1e6;
+
+	/**
+	 * Nœud de l’arbre partagé ; ses fils sont publiés en une fois par compareAndSet
+	 */
+	private static final class Noeud {
+		final CubieCube cube;
+		final Noeud parent;
+		final int lastMove;
+		final int profondeur;
+		final AtomicInteger visites = new AtomicInteger();
+		final AtomicLong valeur = new AtomicLong();
+		final AtomicReference<Noeud[]> enfants = new AtomicReference<>();
+
+		Noeud(CubieCube cube, Noeud parent, int lastMove) {
+			this.cube = cube;
+			this.parent = parent;
+			this.lastMove = lastMove;
+			this.profondeur = parent == null ? 0 : parent.profondeur + 1;
+		}
+	}
+
+	private final ToIntFunction<CubieCube> h;
+	private final int nbThreads;
+
+	private final AtomicLong deroulements = new AtomicLong();
+	private final AtomicInteger taille = new AtomicInteger();
+	private final AtomicReference<int[]> solution = new AtomicReference<>();
+	private final AtomicLong cpuThreadsNs = new AtomicLong();
+	private final AtomicLong octetsThreads = new AtomicLong();
+	private volatile boolean arret;
+	private long t0;
+	private long echeanceNs;
+
+	/**
+	 * Prépare une recherche à nbThreads threads, récompensée par l’heuristique h
+	 * h doit pouvoir être appelée depuis plusieurs threads à la fois
+	 */
+	RechercheMCTS(ToIntFunction<CubieCube> h, int nbThreads) {
+		if (nbThreads <= 0)
+			throw new IllegalArgumentException("nombre de threads invalide : " + nbThreads);
+		this.h = h;
+		this.nbThreads = nbThreads;
+	}
+
+	/**
+	 * Lance la recherche depuis start jusqu’à la première solution ou jusqu’à l’échéance
+	 */
+	RubikIA.Result lancer(String nom, CubieCube start, long echeanceNs) {
+		this.t0 = System.nanoTime();
+		this.echeanceNs = echeanceNs;
+
+		if (RubikIA.isSolved(start))
+			return new RubikIA.Result(nom, "(déjà résolu)", 0, 0.0, 1, true);
+
+		Noeud racine = new Noeud(start, null, -1);
+		taille.set(1);
+
+		List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < nbThreads; i++) {
+			Thread t = new Thread(() -> {
+				long cpu0 = CompteurRessources.cpu(), alloue0 = CompteurRessources.alloue();
+				try {
+					travailler(racine);
+				} finally {
+					cpuThreadsNs.addAndGet(CompteurRessources.cpu() - cpu0);
+					octetsThreads.addAndGet(CompteurRessources.alloue() - alloue0);
+				}
+			}, "mcts-" + i);
+			t.setDaemon(true);
+			threads.add(t);
+			t.start();
+		}
+		for (Thread t : threads) {
+			try {
+				t.join();
+			} catch (InterruptedException e) {
+				arret = true;
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		double temps = (System.nanoTime() - t0) / 1e9;
+		int[] chemin = solution.get();
+		RubikIA.Result r = chemin != null
+				? new RubikIA.Result(nom, RubikIA.pathToString(chemin, chemin.length), chemin.length, temps, taille.get(), true)
+				: new RubikIA.Result(nom, "", 0, temps, taille.get(), false);
+		r.memoirePic = taille.get();
+		r.rolloutsParSec = temps > 0 ? deroulements.get() / temps : 0;
+		r.tempsCpuSec = cpuThreadsNs.get() / 1e9;
+		r.octetsAlloues = octetsThreads.get();
+		return r;
+	}
+
+	/**
+	 * Boucle d’un thread : sélection, développement, déroulement, rétropropagation
+	 */
+	private void travailler(Noeud racine) {
+		Random rnd = ThreadLocalRandom.current();
+		CubieCube c = new CubieCube();
+		int[] coups = new int[LONGUEUR_DEROULEMENT];
+
+		while (!arret) {
+			if (System.nanoTime() - t0 > echeanceNs || taille.get() > NOEUDS_MAX) {
+				arret = true;
+				break;
+			}
+
+			// sélection avec perte virtuelle
+			Noeud n = racine;
+			n.visites.addAndGet(PERTE_VIRTUELLE);
+			Noeud[] fils;
+			while ((fils = n.enfants.get()) != null) {
+				n = choisir(n, fils);
+				n.visites.addAndGet(PERTE_VIRTUELLE);
+			}
+
+			// une feuille assez visitée est développée, sinon le déroulement part d’elle
+			Noeud feuille = n;
+			if (n.parent == null || n.visites.get() - PERTE_VIRTUELLE >= SEUIL_DEVELOPPEMENT) {
+				fils = developper(n);
+				if (fils == null) return;
+				feuille = fils[rnd.nextInt(fils.length)];
+				feuille.visites.addAndGet(PERTE_VIRTUELLE);
+			}
+
+			// déroulement aléatoire, noté par la meilleure valeur heuristique rencontrée
+			c.set(feuille.cube);
+			int meilleur = h.applyAsInt(c);
+			int last = feuille.lastMove;
+			for (int i = 0; i < LONGUEUR_DEROULEMENT && meilleur > 0; i++) {
+				int mv;
+				do {
+					mv = rnd.nextInt(RubikIA.NB_MOVES);
+				} while (RubikIA.MOVE_FACE[mv] == RubikIA.MOVE_FACE[last]);
+				RubikIA.applyMove18(c, mv);
+				coups[i] = mv;
+				last = mv;
+				if (RubikIA.isSolved(c)) {
+					publier(feuille, coups, i + 1);
+					return;
+				}
+				meilleur = Math.min(meilleur, h.applyAsInt(c));
+			}
+			deroulements.incrementAndGet();
+
+			// rétropropagation : la perte virtuelle est retirée et la vraie visite comptée
+			long recompense = (long) (Math.max(0.0, 1.0 - meilleur / H_MAX) * ECHELLE);
+			for (Noeud m = feuille; m != null; m = m.parent) {
+				m.visites.addAndGet(1 - PERTE_VIRTUELLE);
+				m.valeur.addAndGet(recompense);
+			}
+		}
+	}
+
+	/**
+	 * Fils de plus grande valeur UCT ; un fils jamais visité est choisi en priorité
+	 */
+	private Noeud choisir(Noeud n, Noeud[] fils) {
+		double logN = Math.log(Math.max(1, n.visites.get()));
+		Noeud meilleur = null;
+		double meilleurScore = Double.NEGATIVE_INFINITY;
+		for (Noeud f : fils) {
+			int v = f.visites.get();
+			if (v == 0) return f;
+			double score = f.valeur.get() / ECHELLE / v + EXPLORATION * Math.sqrt(logN / v);
+			if (score > meilleurScore) {
+				meilleurScore = score;
+				meilleur = f;
+			}
+		}
+		return meilleur;
+	}
+
+	/**
+	 * Crée les fils de n, ou renvoie ceux qu’un autre thread a publiés entre-temps
+	 * Renvoie null si l’un des fils est l’état résolu (la solution est alors publiée)
+	 */
+	private Noeud[] developper(Noeud n) {
+		Noeud[] fils = new Noeud[n.lastMove == -1 ? RubikIA.NB_MOVES : RubikIA.NB_MOVES - 3];
+		int k = 0;
+		for (int mv = 0; mv < RubikIA.NB_MOVES; mv++) {
+			if (n.lastMove != -1 && RubikIA.MOVE_FACE[mv] == RubikIA.MOVE_FACE[n.lastMove]) continue;
+			CubieCube c = n.cube.copy();
+			RubikIA.applyMove18(c, mv);
+			fils[k] = new Noeud(c, n, mv);
+			if (RubikIA.isSolved(c)) {
+				publier(fils[k], new int[0], 0);
+				return null;
+			}
+			k++;
+		}
+		if (n.enfants.compareAndSet(null, fils)) {
+			taille.addAndGet(fils.length);
+			return fils;
+		}
+		return n.enfants.get();
+	}
+
+	/**
+	 * Enregistre la première solution trouvée : chemin jusqu’à n suivi des coups du déroulement
+	 */
+	private void publier(Noeud n, int[] suite, int longueur) {
+		int[] chemin = new int[n.profondeur + longueur];
+		for (Noeud m = n; m.parent != null; m = m.parent)
+			chemin[m.profondeur - 1] = m.lastMove;
+		System.arraycopy(suite, 0, chemin, n.profondeur, longueur);
+		solution.compareAndSet(null, chemin);
+		arret = true;
+	}
+}
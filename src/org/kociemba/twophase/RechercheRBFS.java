@@ -0,0 +1,144 @@
+package org.kociemba.twophase;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Recherche Best-First Récursive (RBFS, Korf 1993)
+ * Comme A*, elle développe toujours le nœud de plus petit f, mais elle ne garde en mémoire
+ * que le chemin courant et les frères de ses nœuds : la mémoire reste linéaire en profondeur
+ *
+ * Chaque nœud oublié mémorise la meilleure valeur F trouvée sous lui, ce qui évite
+ * de réexplorer tout l’arbre à chaque itération comme le fait IDA*
+ *
+ * Les successeurs sont écrits dans des tampons préalloués, un par profondeur
+ */
+final class RechercheRBFS {
+
+	/**
+	 * Profondeur maximale explorée (taille des tampons)
+	 */
+	private static final int PROFONDEUR_MAX = 40;
+
+	private static final int INFINI = Integer.MAX_VALUE;
+
+	private final ToIntFunction<CubieCube> h;
+	private final long delaiNs;
+	private final long noeudsMax;
+
+	/**
+	 * Tampons des successeurs : enfants[g][i] est le i-ème fils du nœud courant de profondeur g
+	 * fStatique = g + h, fStocke = valeur F remontée par RBFS
+	 */
+	private final CubieCube[][] enfants = new CubieCube[PROFONDEUR_MAX][RubikIA.NB_MOVES];
+	private final int[][] fStatique = new int[PROFONDEUR_MAX][RubikIA.NB_MOVES];
+	private final int[][] fStocke = new int[PROFONDEUR_MAX][RubikIA.NB_MOVES];
+	private final int[][] coups = new int[PROFONDEUR_MAX][RubikIA.NB_MOVES];
+
+	private final int[] chemin = new int[PROFONDEUR_MAX];
+	private int longueur;
+	private boolean trouve;
+	private boolean abandon;
+
+	private long t0;
+	private long noeuds;
+	private long reexpansions;
+	private long memoire;
+	private long memoirePic;
+
+	/**
+	 * Prépare une recherche RBFS guidée par l’heuristique h, limitée en temps et en nœuds
+	 */
+	RechercheRBFS(ToIntFunction<CubieCube> h, long delaiNs, long noeudsMax) {
+		this.h = h;
+		this.delaiNs = delaiNs;
+		this.noeudsMax = noeudsMax;
+		for (int g = 0; g < PROFONDEUR_MAX; g++)
+			for (int i = 0; i < RubikIA.NB_MOVES; i++)
+				enfants[g][i] = new CubieCube();
+	}
+
+	/**
+	 * Lance la recherche depuis start et renvoie le résultat
+	 */
+	RubikIA.Result lancer(String nom, CubieCube start) {
+		t0 = System.nanoTime();
+		noeuds = reexpansions = memoire = memoirePic = 0;
+		trouve = abandon = false;
+
+		int f0 = h.applyAsInt(start);
+		rbfs(start, 0, f0, f0, INFINI, -1);
+
+		double temps = (System.nanoTime() - t0) / 1e9;
+		RubikIA.Result r = trouve
+				? new RubikIA.Result(nom, RubikIA.pathToString(chemin, longueur), longueur, temps, noeuds, true)
+				: new RubikIA.Result(nom, "", 0, temps, noeuds, false);
+		r.reexpansions = reexpansions;
+		r.memoirePic = memoirePic;
+		return r;
+	}
+
+	/**
+	 * Développe le nœud c de profondeur g, de valeur statique f et de valeur stockée F,
+	 * tant que ses meilleurs fils restent sous la borne
+	 * Renvoie la nouvelle valeur F du nœud
+	 */
+	private int rbfs(CubieCube c, int g, int f, int F, int borne, int lastMove) {
+
+		if (RubikIA.arreter(t0, delaiNs) || noeuds > noeudsMax) {
+			abandon = true;
+			return INFINI;
+		}
+
+		if (RubikIA.isSolved(c)) {
+			trouve = true;
+			longueur = g;
+			return F;
+		}
+		if (g == PROFONDEUR_MAX)
+			return INFINI;
+
+		noeuds++;
+		if (F > f) reexpansions++;
+
+		CubieCube[] fils = enfants[g];
+		int[] fs = fStatique[g], fF = fStocke[g], mv = coups[g];
+		int n = 0;
+		for (int m = 0; m < RubikIA.NB_MOVES; m++) {
+			if (lastMove != -1 && RubikIA.MOVE_FACE[m] == RubikIA.MOVE_FACE[lastMove]) continue;
+
+			fils[n].set(c);
+			RubikIA.applyMove18(fils[n], m);
+			fs[n] = g + 1 + h.applyAsInt(fils[n]);
+			// un nœud déjà développé transmet à ses fils la valeur héritée
+			fF[n] = (f < F) ? Math.max(F, fs[n]) : fs[n];
+			mv[n] = m;
+			n++;
+		}
+		memoire += n;
+		memoirePic = Math.max(memoirePic, memoire);
+
+		while (true) {
+			int meilleur = 0, second = INFINI;
+			for (int i = 1; i < n; i++) {
+				if (fF[i] < fF[meilleur]) {
+					second = fF[meilleur];
+					meilleur = i;
+				} else if (fF[i] < second) {
+					second = fF[i];
+				}
+			}
+			if (fF[meilleur] > borne || fF[meilleur] == INFINI) {
+				memoire -= n;
+				return fF[meilleur];
+			}
+
+			chemin[g] = mv[meilleur];
+			fF[meilleur] = rbfs(fils[meilleur], g + 1, fs[meilleur], fF[meilleur],
+					Math.min(borne, second), mv[meilleur]);
+			if (trouve || abandon) {
+				memoire -= n;
+				return fF[meilleur];
+			}
+		}
+	}
+}
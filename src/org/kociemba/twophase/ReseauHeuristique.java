@@ -0,0 +1,329 @@
+package org.kociemba.twophase;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.ToIntFunction;
+
+/**
+ * Heuristique apprise : petit perceptron multicouche qui estime la distance à l’état résolu
+ * (dans l’esprit de DeepCubeA, Agostinelli et al. 2019, en beaucoup plus petit)
+ *
+ * Entrée : codage « un parmi n » de chaque pièce selon sa position, son identité et son orientation
+ * (8 × 24 pour les coins, 12 × 24 pour les arêtes), soit 20 entrées actives sur 480.
+ * La première couche se réduit donc à la somme de 20 lignes de poids
+ *
+ * Le réseau est entraîné sur des mélanges aléatoires dont la profondeur sert de cible,
+ * puis enregistré dans un fichier de poids compact. L’évaluation se fait par lots
+ * dans des tampons préalloués, sans aucune allocation
+ *
+ * Les poids ne changent plus après le chargement : un même réseau peut être partagé par plusieurs threads.
+ * Les tampons d’activation appartiennent à l’appelant (une recherche par lots les alloue une fois),
+ * et applyAsInt utilise des tampons propres à chaque thread
+ */
+final class ReseauHeuristique implements ToIntFunction<CubieCube> {
+
+	/**
+	 * Dimensions du réseau
+	 */
+	static final int ENTREES = 8 * 24 + 12 * 24;
+	static final int ACTIFS = 8 + 12;
+	static final int CACHE1 = 64;
+	static final int CACHE2 = 32;
+
+	/**
+	 * Fichier de poids par défaut, modifiable par la propriété système rubikia.reseau
+	 */
+	static final String FICHIER_DEFAUT = System.getProperty("rubikia.reseau", "reseau_heuristique.bin");
+
+	/**
+	 * Paramètres de l’entraînement par défaut
+	 */
+	static final int PROFONDEUR_MAX_MELANGE = 20;
+	static final int ETAPES = 4000;
+	static final int TAILLE_LOT_ENTRAINEMENT = 256;
+
+	private static final int MAGIQUE = 0x52484D31;
+
+	/**
+	 * Poids : w1[entree * CACHE1 + j], w2[i * CACHE2 + j], w3[j]
+	 */
+	private final float[] w1 = new float[ENTREES * CACHE1];
+	private final float[] b1 = new float[CACHE1];
+	private final float[] w2 = new float[CACHE1 * CACHE2];
+	private final float[] b2 = new float[CACHE2];
+	private final float[] w3 = new float[CACHE2];
+	private final float[] b3 = new float[1];
+
+	/**
+	 * Tampons d’évaluation d’un lot : indices d’entrée, activations des deux couches cachées et sorties
+	 * Chaque thread qui évalue doit avoir les siens
+	 */
+	static final class Tampons {
+		final int capacite;
+		final int[] idx;
+		final float[] a1;
+		final float[] a2;
+		final float[] sortie;
+
+		/**
+		 * Tampons pour des lots de capacite états au plus
+		 */
+		Tampons(int capacite) {
+			if (capacite <= 0)
+				throw new IllegalArgumentException("capacité invalide : " + capacite);
+			this.capacite = capacite;
+			idx = new int[capacite * ACTIFS];
+			a1 = new float[capacite * CACHE1];
+			a2 = new float[capacite * CACHE2];
+			sortie = new float[capacite];
+		}
+	}
+
+	/**
+	 * Tampons d’un seul état pour applyAsInt, un jeu par thread
+	 */
+	private final ThreadLocal<Tampons> tamponsUnique = ThreadLocal.withInitial(() -> new Tampons(1));
+
+	/**
+	 * Crée un réseau aux poids nuls
+	 */
+	ReseauHeuristique() {
+	}
+
+	/* ======================= CODAGE ======================= */
+
+	/**
+	 * Écrit les 20 indices d’entrée actifs du cube c à partir de idx[off]
+	 */
+	static void coder(CubieCube c, int[] idx, int off) {
+		for (int pos = 0; pos < 8; pos++)
+			idx[off + pos] = pos * 24 + c.cp[pos].ordinal() * 3 + c.co[pos];
+		for (int pos = 0; pos < 12; pos++)
+			idx[off + 8 + pos] = 8 * 24 + pos * 24 + c.ep[pos].ordinal() * 2 + c.eo[pos];
+	}
+
+	/* ======================= ÉVALUATION ======================= */
+
+	/**
+	 * Évalue les n états codés par coder dans t.idx (20 indices chacun, consécutifs)
+	 * et écrit les distances estimées dans t.sortie
+	 */
+	void evaluer(Tampons t, int n) {
+		if (n > t.capacite)
+			throw new IllegalArgumentException("lot trop grand : " + n + " > " + t.capacite);
+		propager(t.idx, n, t.a1, t.a2, t.sortie);
+	}
+
+	/**
+	 * Distance estimée arrondie, jamais négative, pour un seul état
+	 */
+	@Override
+	public int applyAsInt(CubieCube c) {
+		Tampons t = tamponsUnique.get();
+		coder(c, t.idx, 0);
+		evaluer(t, 1);
+		return Math.max(0, Math.round(t.sortie[0]));
+	}
+
+	/**
+	 * Passe avant sur un lot, activations écrites dans z1 et z2 (après ReLU)
+	 * La couche 2 est un produit ligne par ligne sans découpage en blocs : w2 (8 Ko) tient déjà dans le cache L1.
+	 * Les tampons z1, z2 et sortie sont ceux de l’appelant, jamais des champs du réseau partagé
+	 */
+	private void propager(int[] idx, int n, float[] z1, float[] z2, float[] sortie) {
+		// couche 1 : somme des lignes de poids des entrées actives
+		for (int s = 0; s < n; s++) {
+			int o = s * CACHE1;
+			System.arraycopy(b1, 0, z1, o, CACHE1);
+			for (int k = 0; k < ACTIFS; k++) {
+				int ligne = idx[s * ACTIFS + k] * CACHE1;
+				for (int j = 0; j < CACHE1; j++)
+					z1[o + j] += w1[ligne + j];
+			}
+			for (int j = 0; j < CACHE1; j++)
+				z1[o + j] = Math.max(0f, z1[o + j]);
+		}
+
+		// couche 2 : produit matriciel (n × CACHE1) · (CACHE1 × CACHE2)
+		for (int s = 0; s < n; s++) {
+			int o = s * CACHE2;
+			System.arraycopy(b2, 0, z2, o, CACHE2);
+			for (int i = 0; i < CACHE1; i++) {
+				float a = z1[s * CACHE1 + i];
+				int ligne = i * CACHE2;
+				for (int j = 0; j < CACHE2; j++)
+					z2[o + j] += a * w2[ligne + j];
+			}
+			for (int j = 0; j < CACHE2; j++)
+				z2[o + j] = Math.max(0f, z2[o + j]);
+		}
+
+		// sortie linéaire
+		for (int s = 0; s < n; s++) {
+			float y = b3[0];
+			int o = s * CACHE2;
+			for (int j = 0; j < CACHE2; j++)
+				y += z2[o + j] * w3[j];
+			sortie[s] = y;
+		}
+	}
+
+	/* ======================= ENTRAÎNEMENT ======================= */
+
+	/**
+	 * Entraîne un nouveau réseau par régression sur des mélanges aléatoires :
+	 * la cible est le nombre de coups du mélange (de 1 à PROFONDEUR_MAX_MELANGE)
+	 * Optimisation Adam sur l’erreur quadratique, lots de TAILLE_LOT_ENTRAINEMENT exemples
+	 */
+	static ReseauHeuristique entrainer(long graine, int etapes) {
+		ReseauHeuristique r = new ReseauHeuristique();
+		Random rnd = new Random(graine);
+		r.initialiser(rnd);
+
+		int b = TAILLE_LOT_ENTRAINEMENT;
+		float[][] params = {r.w1, r.b1, r.w2, r.b2, r.w3, r.b3};
+		float[][] grads = new float[params.length][];
+		float[][] m = new float[params.length][];
+		float[][] v = new float[params.length][];
+		for (int p = 0; p < params.length; p++) {
+			grads[p] = new float[params[p].length];
+			m[p] = new float[params[p].length];
+			v[p] = new float[params[p].length];
+		}
+		float[] gw1 = grads[0], gb1 = grads[1], gw2 = grads[2], gb2 = grads[3], gw3 = grads[4], gb3 = grads[5];
+
+		int[] idx = new int[b * ACTIFS];
+		float[] cible = new float[b];
+		float[] y = new float[b];
+		float[] z1 = new float[b * CACHE1];
+		float[] z2 = new float[b * CACHE2];
+		float[] d1 = new float[CACHE1];
+		float[] d2 = new float[CACHE2];
+		CubieCube c = new CubieCube();
+
+		final float taux = 1e-3f, beta1 = 0.9f, beta2 = 0.999f, eps = 1e-8f;
+		for (int t = 1; t <= etapes; t++) {
+			for (int s = 0; s < b; s++) {
+				int profondeur = 1 + rnd.nextInt(PROFONDEUR_MAX_MELANGE);
+				Tools.randomScramble(c, profondeur, rnd);
+				coder(c, idx, s * ACTIFS);
+				cible[s] = profondeur;
+			}
+			r.propager(idx, b, z1, z2, y);
+
+			for (float[] g : grads)
+				Arrays.fill(g, 0f);
+			for (int s = 0; s < b; s++) {
+				float dy = (y[s] - cible[s]) / b;
+				gb3[0] += dy;
+				for (int j = 0; j < CACHE2; j++) {
+					gw3[j] += dy * z2[s * CACHE2 + j];
+					d2[j] = z2[s * CACHE2 + j] > 0 ? dy * r.w3[j] : 0f;
+					gb2[j] += d2[j];
+				}
+				for (int i = 0; i < CACHE1; i++) {
+					float a = z1[s * CACHE1 + i];
+					int ligne = i * CACHE2;
+					float somme = 0f;
+					for (int j = 0; j < CACHE2; j++) {
+						gw2[ligne + j] += a * d2[j];
+						somme += r.w2[ligne + j] * d2[j];
+					}
+					d1[i] = a > 0 ? somme : 0f;
+					gb1[i] += d1[i];
+				}
+				for (int k = 0; k < ACTIFS; k++) {
+					int ligne = idx[s * ACTIFS + k] * CACHE1;
+					for (int i = 0; i < CACHE1; i++)
+						gw1[ligne + i] += d1[i];
+				}
+			}
+
+			float corr1 = 1f - (float) Math.pow(beta1, t);
+			float corr2 = 1f - (float) Math.pow(beta2, t);
+			for (int p = 0; p < params.length; p++) {
+				float[] w = params[p], g = grads[p], mp = m[p], vp = v[p];
+				for (int i = 0; i < w.length; i++) {
+					mp[i] = beta1 * mp[i] + (1 - beta1) * g[i];
+					vp[i] = beta2 * vp[i] + (1 - beta2) * g[i] * g[i];
+					w[i] -= taux * (mp[i] / corr1) / ((float) Math.sqrt(vp[i] / corr2) + eps);
+				}
+			}
+		}
+		return r;
+	}
+
+	/**
+	 * Initialisation de He pour les couches ReLU
+	 */
+	private void initialiser(Random rnd) {
+		for (int i = 0; i < w1.length; i++)
+			w1[i] = (float) (rnd.nextGaussian() * Math.sqrt(2.0 / ACTIFS));
+		for (int i = 0; i < w2.length; i++)
+			w2[i] = (float) (rnd.nextGaussian() * Math.sqrt(2.0 / CACHE1));
+		for (int i = 0; i < w3.length; i++)
+			w3[i] = (float) (rnd.nextGaussian() * Math.sqrt(1.0 / CACHE2));
+	}
+
+	/* ======================= FICHIER DE POIDS ======================= */
+
+	/**
+	 * Enregistre les poids : en-tête (magique, dimensions) puis les flottants de chaque couche
+	 */
+	void sauver(File f) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))) {
+			out.writeInt(MAGIQUE);
+			out.writeInt(ENTREES);
+			out.writeInt(CACHE1);
+			out.writeInt(CACHE2);
+			for (float[] t : new float[][] {w1, b1, w2, b2, w3, b3})
+				for (float x : t)
+					out.writeFloat(x);
+		}
+	}
+
+	/**
+	 * Relit un fichier écrit par sauver ; les dimensions doivent correspondre à celles de la classe
+	 */
+	static ReseauHeuristique charger(File f) throws IOException {
+		ReseauHeuristique r = new ReseauHeuristique();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+			if (in.readInt() != MAGIQUE || in.readInt() != ENTREES
+					|| in.readInt() != CACHE1 || in.readInt() != CACHE2)
+				throw new IOException("fichier de poids incompatible : " + f);
+			for (float[] t : new float[][] {r.w1, r.b1, r.w2, r.b2, r.w3, r.b3})
+				for (int i = 0; i < t.length; i++)
+					t[i] = in.readFloat();
+		}
+		return r;
+	}
+
+	/**
+	 * Charge le fichier par défaut, ou entraîne un réseau et l’enregistre s’il est absent ou illisible
+	 */
+	static ReseauHeuristique parDefaut() {
+		File f = new File(FICHIER_DEFAUT);
+		if (f.isFile()) {
+			try {
+				return charger(f);
+			} catch (IOException e) {
+				System.out.println("Poids illisibles (" + e.getMessage() + "), nouvel entraînement");
+			}
+		}
+		ReseauHeuristique r = entrainer(0x5DEECE66DL, ETAPES);
+		try {
+			r.sauver(f);
+		} catch (IOException e) {
+			System.out.println("Impossible d'enregistrer les poids : " + e.getMessage());
+		}
+		return r;
+	}
+}
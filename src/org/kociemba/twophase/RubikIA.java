@@ -1,6 +1,8 @@
 package org.kociemba.twophase;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.ToIntFunction;
 
 /**
@@ -23,6 +25,55 @@ public class RubikIA {
 		public final long noeuds;
 		public final boolean succes;
 
+		/**
+		 * Métriques complémentaires, renseignées seulement par les moteurs concernés
+		 * reexpansions : nœuds développés à nouveau après avoir été oubliés
+		 * memoirePic : nombre maximal de nœuds conservés en même temps
+		 */
+		public long reexpansions;
+		public long memoirePic;
+
+		/**
+		 * Borne de sous-optimalité des moteurs anytime : la solution fait au plus
+		 * epsilon fois la longueur optimale (0 si le moteur n’en donne pas)
+		 */
+		public double epsilon;
+
+		/**
+		 * Débit des moteurs Monte-Carlo, en déroulements par seconde (0 pour les autres)
+		 */
+		public double rolloutsParSec;
+
+		/**
+		 * Nombre de nœuds prévu avant le lancement (0 si aucune prévision n’a été faite)
+		 */
+		public double noeudsPrevus;
+
+		/**
+		 * Compteurs de Search (deux phases) : les nœuds sont ceux des deux phases,
+		 * dont noeudsPhase2 pour la phase 2, lancée appelsPhase2 fois ; coupures compte les nœuds
+		 * écartés par les tables d’élagage (0 pour les autres moteurs)
+		 */
+		public long appelsPhase2;
+		public long noeudsPhase2;
+		public long coupures;
+
+		/**
+		 * Compteurs du cache d’heuristique (voir CacheHeuristique) : valeurs relues
+		 * et valeurs calculées (0 pour les moteurs sans cache)
+		 */
+		public long succesCache;
+		public long echecsCache;
+
+		/**
+		 * Ressources mesurées sur le thread du joueur (voir CompteurRessources) :
+		 * temps CPU, octets alloués et part du temps de GC, nuls si la résolution n’a pas été mesurée
+		 * Un moteur qui lance ses propres threads (MCTS) y verse leur temps CPU et leurs octets avant la mesure
+		 */
+		public double tempsCpuSec;
+		public long octetsAlloues;
+		public double tempsGcSec;
+
 		/**
 		 * Crée un objet résultat contenant les performances d’un algorithme
 		 */
@@ -51,7 +102,7 @@ public class RubikIA {
 	 * Associe chaque mouvement à une face du cube
 	 * Permet d’éviter des mouvements inutiles successifs sur la même face
 	 */
-	private static final int[] MOVE_FACE = {
+	static final int[] MOVE_FACE = {
 			0,0,0, 1,1,1, 2,2,2, 3,3,3, 4,4,4, 5,5,5
 	};
 
@@ -72,26 +123,83 @@ public class RubikIA {
 	/**
 	 * Nombre total de mouvements autorisés
 	 */
-	private static final int NB_MOVES = 18;
+	static final int NB_MOVES = 18;
 
 	/**
-	 * Limites de temps pour les algorithmes IDA* et A*
+	 * Limites de temps par défaut pour les algorithmes IDA* et A*
 	 */
-	private static final long TIMEOUT_IDA_NS   = (long)(20e9);
-	private static final long TIMEOUT_ASTAR_NS = (long)(30e9);
+	static final long TIMEOUT_IDA_NS   = (long)(20e9);
+	static final long TIMEOUT_ASTAR_NS = (long)(30e9);
 
 	/**
-	 * Limites du nombre de nœuds explorés pour éviter les explosions combinatoires
+	 * Vrai quand une recherche lancée à t0 doit s’arrêter : délai dépassé,
+	 * ou thread interrompu (annulation coopérative, par exemple par le portefeuille)
 	 */
-	private static final long NODE_CAP_IDA   = 50_000_000L;
-	private static final long NODE_CAP_ASTAR = 100_000_000L;
+	static boolean arreter(long t0, long delaiNs) {
+		return System.nanoTime() - t0 > delaiNs || Thread.currentThread().isInterrupted();
+	}
+
+	/**
+	 * Limites par défaut du nombre de nœuds explorés pour éviter les explosions combinatoires
+	 */
+	static final long NODE_CAP_IDA   = 50_000_000L;
+	static final long NODE_CAP_ASTAR = 100_000_000L;
+
+	/**
+	 * Limites des joueurs de cette instance, initialisées aux valeurs par défaut
+	 * La ligne de commande de la compétition les change sur sa propre instance, avant le lancement des joueurs :
+	 * les autres instances (portefeuille, bancs, application) gardent les leurs
+	 */
+	long delaiIdaNs = TIMEOUT_IDA_NS;
+	long delaiAStarNs = TIMEOUT_ASTAR_NS;
+	long noeudsMaxIda = NODE_CAP_IDA;
+	long noeudsMaxAStar = NODE_CAP_ASTAR;
+
+	/**
+	 * Nombre d’entrées du cache d’heuristique utilisé par les joueurs « (cache) »
+	 */
+	private static final int CAPACITE_CACHE = 1 << 20;
+
+	/**
+	 * Nombre d’états conservés par niveau dans la recherche en faisceau
+	 */
+	private static final int LARGEUR_FAISCEAU = 2000;
+
+	/**
+	 * Paramètres de BWAS : nœuds développés par inférence du réseau et poids de g
+	 */
+	private static final int LOT_BWAS = 100;
+	private static final float POIDS_BWAS = 0.8f;
+
+	/**
+	 * Threads de la recherche MCTS : un par cœur quand elle tourne seule (voir partagerCoeurs)
+	 */
+	private int threadsMCTS = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Réserve à MCTS sa part des cœurs quand simultanees résolutions tournent déjà en même temps,
+	 * pour qu’elle ne lance pas un thread par cœur en plus de ceux du pool
+	 */
+	void partagerCoeurs(int simultanees) {
+		threadsMCTS = Math.max(1, Runtime.getRuntime().availableProcessors() / Math.max(1, simultanees));
+	}
+
+	/**
+	 * Réseau de l’heuristique apprise, chargé (ou entraîné) au premier usage
+	 */
+	private static ReseauHeuristique reseau;
+
+	/**
+	 * Base de fin de partie, construite au premier usage
+	 */
+	private static BasePerimetre perimetre;
 
 	/* ======================= TEST BUT ======================= */
 
 	/**
 	 * Vérifie si le cube est dans l’état résolu
 	 */
-	private boolean isSolved(CubieCube c) {
+	static boolean isSolved(CubieCube c) {
 		for (int i = 0; i < 8; i++) {
 			if (c.cp[i].ordinal() != i || c.co[i] != 0) return false;
 		}
@@ -123,7 +231,7 @@ public class RubikIA {
 	 * Table de distances minimales entre positions des coins
 	 * Elle est utilisée pour calculer une heuristique plus précise
 	 */
-	private static final int[][] DIST_COINS = {
+	static final int[][] DIST_COINS = {
 	    {0,2,2,2,1,2,3,2},
 	    {2,0,2,2,2,1,2,3},
 	    {2,2,0,2,3,2,1,2},
@@ -137,7 +245,7 @@ public class RubikIA {
 	/**
 	 * Table de distances minimales entre positions des arêtes
 	 */
-	private static final int[][] DIST_ARETES = {
+	static final int[][] DIST_ARETES = {
 	    {0,1,1,1,2,2,2,2,1,2,2,1},
 	    {1,0,1,1,2,2,2,2,1,1,2,2},
 	    {1,1,0,1,2,2,2,2,2,1,1,2},
@@ -180,6 +288,134 @@ public class RubikIA {
 	    return Math.max(hManhattan(c), hMalPlaces(c));
 	}
 
+	/**
+	 * Table des distances exactes de la permutation des coins (8! états, 18 mouvements)
+	 * Elle n'est construite qu'au premier appel de hTwoPhaseTables
+	 */
+	private static final class TablePermCoins {
+		static final byte[] DIST = construire();
+
+		private static byte[] construire() {
+			int n = CoordCube.N_URFtoDLB;
+			int[][] move = new int[n][NB_MOVES];
+			CubieCube a = new CubieCube();
+			for (int i = 0; i < n; i++) {
+				a.setURFtoDLB(i);
+				for (int j = 0; j < 6; j++) {
+					for (int k = 0; k < 3; k++) {
+						a.cornerMultiply(CubieCube.moveCube[j]);
+						move[i][3 * j + k] = a.getURFtoDLB();
+					}
+					a.cornerMultiply(CubieCube.moveCube[j]);
+				}
+			}
+
+			byte[] dist = new byte[n];
+			Arrays.fill(dist, (byte) -1);
+			dist[0] = 0;
+			int done = 1;
+			for (int depth = 0; done < n; depth++) {
+				for (int i = 0; i < n; i++) {
+					if (dist[i] != depth) continue;
+					for (int mv = 0; mv < NB_MOVES; mv++) {
+						int suivant = move[i][mv];
+						if (dist[suivant] == -1) {
+							dist[suivant] = (byte) (depth + 1);
+							done++;
+						}
+					}
+				}
+			}
+			return dist;
+		}
+	}
+
+	/**
+	 * Heuristique issue des tables d'élagage de la phase 1 de Kociemba
+	 * La distance au sous-groupe H et la distance de permutation des coins
+	 * minorent toutes les deux la solution complète, on garde le maximum
+	 */
+	private int hTwoPhaseTables(CubieCube c) {
+		int slice = c.getFRtoBR() / 24;
+		int hTwist = CoordCube.getPruning(CoordCube.Slice_Twist_Prun(),
+				CoordCube.N_SLICE1 * c.getTwist() + slice);
+		int hFlip = CoordCube.getPruning(CoordCube.Slice_Flip_Prun(),
+				CoordCube.N_SLICE1 * c.getFlip() + slice);
+		int hCoins = TablePermCoins.DIST[c.getURFtoDLB()];
+		return Math.max(Math.max(hTwist, hFlip), hCoins);
+	}
+
+	/**
+	 * Table exacte des distances des coins (cube 2x2x2), construite au premier usage
+	 */
+	private static final class TableCoins {
+		static final TableCoins2x2 TABLE = new TableCoins2x2(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Heuristique deux phases renforcée par la distance exacte des coins
+	 */
+	private int hTwoPhaseCoins(CubieCube c) {
+		return Math.max(hTwoPhaseTables(c), TableCoins.TABLE.distance(c));
+	}
+
+	/**
+	 * Estimation (non admissible) de la longueur d’une solution deux phases :
+	 * distance au sous-groupe H plus une dizaine de coups, puis distance de phase 2 dans H
+	 * En profil compact (-Dkociemba.tables=compact), les tables de phase 2 sont lues sans valeur parente :
+	 * chaque appel dans H redescend la table modulo 3, soit environ 1 µs de lecture au lieu de quelques dizaines de ns
+	 */
+	private int hGuideDeuxPhases(CubieCube c) {
+		int FRtoBR = c.getFRtoBR();
+		int slice = FRtoBR / 24;
+		int hTwist = CoordCube.getPruning(CoordCube.Slice_Twist_Prun(),
+				CoordCube.N_SLICE1 * c.getTwist() + slice);
+		int hFlip = CoordCube.getPruning(CoordCube.Slice_Flip_Prun(),
+				CoordCube.N_SLICE1 * c.getFlip() + slice);
+		int phase1 = Math.max(hTwist, hFlip);
+		if (phase1 > 0)
+			return phase1 + 10;
+		int parity = c.cornerParity();
+		int hCoins = CoordCube.getCornerPruning(c.getURFtoDLF(), FRtoBR, parity);
+		int hAretes = CoordCube.getEdgePruning(c.getURtoDF(), FRtoBR, parity);
+		return Math.max(hCoins, hAretes);
+	}
+
+	/**
+	 * Heuristique de classement pour la recherche en faisceau (non admissible)
+	 * Elle suit la logique deux phases : tant que le sous-groupe H n’est pas atteint,
+	 * la distance de phase 1 domine, ensuite ce sont les tables de la phase 2
+	 * Le nombre de pièces mal placées ou mal orientées départage les égalités
+	 * Dans H, même coût qu’hGuideDeuxPhases en profil compact
+	 */
+	private int hFaisceau(CubieCube c) {
+		int pieces = 0;
+		for (int i = 0; i < 8; i++) {
+			if (c.cp[i].ordinal() != i) pieces += 2;
+			if (c.co[i] != 0) pieces++;
+		}
+		for (int i = 0; i < 12; i++) {
+			if (c.ep[i].ordinal() != i) pieces += 2;
+			if (c.eo[i] != 0) pieces++;
+		}
+
+		int FRtoBR = c.getFRtoBR();
+		int slice = FRtoBR / 24;
+		int hTwist = CoordCube.getPruning(CoordCube.Slice_Twist_Prun(),
+				CoordCube.N_SLICE1 * c.getTwist() + slice);
+		int hFlip = CoordCube.getPruning(CoordCube.Slice_Flip_Prun(),
+				CoordCube.N_SLICE1 * c.getFlip() + slice);
+		int phase1 = Math.max(hTwist, hFlip);
+		if (phase1 > 0)
+			return 1000 + 100 * phase1 + 10 * (hTwist + hFlip) + pieces;
+
+		// dans H, les coordonnées de la phase 2 sont définies
+		int parity = c.cornerParity();
+		int hCoins = CoordCube.getCornerPruning(c.getURFtoDLF(), FRtoBR, parity);
+		int hAretes = CoordCube.getEdgePruning(c.getURtoDF(), FRtoBR, parity);
+		return 10 * Math.max(hCoins, hAretes) + pieces;
+	}
+
 	/* ======================= SUCCESSEURS ======================= */
 
 	/**
@@ -216,21 +452,55 @@ public class RubikIA {
 		int depth;
 		int[] path;
 		long nodes;
+		BasePerimetre perimetre;
+		long delaiNs;
+		long noeudsMax;
+	}
+
+	/**
+	 * État d’une recherche IDA* avec les limites de cette instance
+	 */
+	private IdaState etatIDA() {
+		IdaState s = new IdaState();
+		s.delaiNs = delaiIdaNs;
+		s.noeudsMax = noeudsMaxIda;
+		return s;
 	}
 
 	/**
 	 * Lance l’algorithme IDA* avec une heuristique donnée
 	 */
 	private Result lancerIDA(String nom, CubieCube start, ToIntFunction<CubieCube> h) {
+		return lancerIDA(nom, start, h, etatIDA());
+	}
+
+	/**
+	 * Lance IDA* en s’arrêtant dès que le périmètre est atteint (perimetre peut être null)
+	 * Hors du périmètre, la distance vaut au moins sa profondeur + 1 : l’heuristique est relevée d’autant
+	 */
+	private Result lancerIDA(String nom, CubieCube start, ToIntFunction<CubieCube> h, BasePerimetre perimetre) {
+		IdaState s = etatIDA();
+		s.perimetre = perimetre;
+		return lancerIDA(nom, start, h, s);
+	}
+
+	/**
+	 * Lance IDA* avec les limites et le périmètre de s
+	 */
+	private Result lancerIDA(String nom, CubieCube start, ToIntFunction<CubieCube> h, IdaState s) {
 		long t0 = System.nanoTime();
+		BasePerimetre perimetre = s.perimetre;
 
 		if (isSolved(start)) {
 			return new Result(nom, "(déjà résolu)", 0, 0.0, 1, true);
 		}
 
-		IdaState s = new IdaState();
 		int[] path = new int[40];
 		int bound = h.applyAsInt(start);
+		if (perimetre != null) {
+			int d = perimetre.distance(start.zobrist());
+			bound = d >= 0 ? d : Math.max(bound, perimetre.profondeur() + 1);
+		}
 
 		while (true) {
 			int t = idaDFS(start, 0, bound, -1, path, h, s, t0);
@@ -253,10 +523,29 @@ public class RubikIA {
 			int[] path, ToIntFunction<CubieCube> h,
 			IdaState s, long t0) {
 
-		if (System.nanoTime() - t0 > TIMEOUT_IDA_NS || s.nodes > NODE_CAP_IDA)
+		if (arreter(t0, s.delaiNs) || s.nodes > s.noeudsMax)
 			return Integer.MAX_VALUE;
 
-		int f = g + h.applyAsInt(c);
+		int hc = h.applyAsInt(c);
+		if (s.perimetre != null) {
+			int d = s.perimetre.distance(c.zobrist());
+			if (d >= 0) {
+				// distance exacte : la fin de la solution se lit dans la table
+				if (g + d > bound) return g + d;
+				int[] fin = s.perimetre.finir(c);
+				if (fin != null) {
+					s.nodes++;
+					s.depth = g + d;
+					s.path = Arrays.copyOf(path, g + d);
+					System.arraycopy(fin, 0, s.path, g, d);
+					return -1;
+				}
+			} else {
+				hc = Math.max(hc, s.perimetre.profondeur() + 1);
+			}
+		}
+
+		int f = g + hc;
 		if (f > bound) return f;
 
 		s.nodes++;
@@ -308,7 +597,7 @@ public class RubikIA {
 
 		while (!open.isEmpty()) {
 
-			if (System.nanoTime() - t0 > TIMEOUT_ASTAR_NS || nodes > NODE_CAP_ASTAR)
+			if (arreter(t0, delaiAStarNs) || nodes > noeudsMaxAStar)
 				return new Result(nom, "", 0,
 						(System.nanoTime() - t0) / 1e9, nodes, false);
 
@@ -343,7 +632,7 @@ public class RubikIA {
 	/**
 	 * Convertit une suite de mouvements en chaîne lisible
 	 */
-	private String pathToString(int[] p, int len) {
+	static String pathToString(int[] p, int len) {
 		StringBuilder sb = new StringBuilder();
 		for (int i = 0; i < len; i++) {
 			if (i > 0) sb.append(" ");
@@ -352,6 +641,34 @@ public class RubikIA {
 		return sb.toString();
 	}
 
+	/**
+	 * Vérifie qu’une solution (mouvements séparés par des espaces) ramène c à l’état résolu
+	 */
+	static boolean verifierSolution(CubieCube c, String solution) {
+		int[] coups = lireCoups(solution);
+		if (coups == null) return false;
+		CubieCube a = c.copy();
+		for (int mv : coups)
+			applyMove18(a, mv);
+		return isSolved(a);
+	}
+
+	/**
+	 * Lit une suite de mouvements en notation standard (U, R2, F'...) séparés par des espaces
+	 * Renvoie null si un mouvement est inconnu
+	 */
+	static int[] lireCoups(String texte) {
+		String t = texte.trim();
+		if (t.isEmpty()) return new int[0];
+		String[] mots = t.split("\\s+");
+		int[] coups = new int[mots.length];
+		for (int i = 0; i < mots.length; i++) {
+			coups[i] = Arrays.asList(MOVE_NAMES).indexOf(mots[i]);
+			if (coups[i] < 0) return null;
+		}
+		return coups;
+	}
+
 	/**
 	 * Convertit une liste de mouvements en tableau
 	 */
@@ -396,4 +713,270 @@ public class RubikIA {
 		return lancerAStar("A* + hMalPlaces", c.copy(), this::hMalPlaces, false);
 	}
 
+	/**
+	 * Lance IDA* avec l’heuristique issue des tables d'élagage deux phases
+	 */
+	public Result joueur6_IDA_TwoPhaseTables(CubieCube c) {
+		return lancerIDA("IDA* + hTwoPhaseTables", c.copy(), this::hTwoPhaseTables);
+	}
+
+	/**
+	 * Lance A* avec l’heuristique issue des tables d'élagage deux phases
+	 */
+	public Result joueur7_AStar_TwoPhaseTables(CubieCube c) {
+		return lancerAStar("A* + hTwoPhaseTables", c.copy(), this::hTwoPhaseTables, false);
+	}
+
+	/**
+	 * Lance IDA* avec l’heuristique deux phases mémorisée dans un cache CLOCK
+	 * Les états revisités d’une itération à l’autre ne sont plus réévalués
+	 */
+	public Result joueur8_IDA_TwoPhaseTables_Cache(CubieCube c) {
+		CacheHeuristique cache = new CacheHeuristique(this::hTwoPhaseTables, CAPACITE_CACHE);
+		Result r = lancerIDA("IDA* + hTwoPhase (cache)", c.copy(), cache);
+		r.succesCache = cache.hits();
+		r.echecsCache = cache.misses();
+		return r;
+	}
+
+	/**
+	 * Lance RBFS (mémoire linéaire) avec l’heuristique deux phases
+	 */
+	public Result joueur9_RBFS_TwoPhaseTables(CubieCube c) {
+		return new RechercheRBFS(this::hTwoPhaseTables, delaiIdaNs, noeudsMaxIda).lancer("RBFS + hTwoPhaseTables", c.copy());
+	}
+
+	/**
+	 * Lance une recherche en faisceau de largeur donnée, classée par hFaisceau
+	 * La solution n’est pas forcément optimale mais la mémoire reste bornée
+	 */
+	public Result lancerFaisceau(CubieCube c, int largeur) {
+		return new RechercheFaisceau(this::hFaisceau, largeur, delaiAStarNs)
+				.lancer("Faisceau(" + largeur + ") + hFaisceau", c.copy());
+	}
+
+	/**
+	 * Lance la recherche en faisceau avec la largeur par défaut
+	 */
+	public Result joueur10_Faisceau(CubieCube c) {
+		return lancerFaisceau(c, LARGEUR_FAISCEAU);
+	}
+
+	/**
+	 * Lance ARA* avec l’heuristique deux phases jusqu’à l’échéance donnée
+	 * Chaque solution améliorée est transmise à publier avec sa borne ε
+	 */
+	public Result lancerARA(CubieCube c, long echeanceNs, Consumer<Result> publier) {
+		return new RechercheARA(this::hTwoPhaseTables, this::hGuideDeuxPhases).lancer("ARA* + hTwoPhase", c.copy(), echeanceNs, publier);
+	}
+
+	/**
+	 * Lance ARA* avec l’échéance de A* et renvoie la dernière solution publiée
+	 */
+	public Result joueur11_ARA_TwoPhaseTables(CubieCube c) {
+		return lancerARA(c, delaiAStarNs, r -> { });
+	}
+
+	/**
+	 * Lance IDA* avec l’heuristique Manhattan, en développant les nœuds par lots
+	 * Même parcours que joueur3_IDA_Manhattan : seul le temps par nœud change
+	 */
+	public Result joueur12_IDA_Manhattan_Lot(CubieCube c) {
+		return new RechercheIDALot(LotSuccesseurs.Noyau.MANHATTAN, delaiIdaNs, noeudsMaxIda).lancer("IDA* + hManhattan (lot)", c.copy());
+	}
+
+	/**
+	 * Lance A* pondéré par lots guidé par le réseau appris
+	 * Le chargement ou l’entraînement du réseau n’est pas compté dans le temps de résolution
+	 */
+	public Result joueur13_BWAS_Reseau(CubieCube c) {
+		return new RechercheBWAS(reseau(), LOT_BWAS, POIDS_BWAS, delaiAStarNs, noeudsMaxAStar).lancer("BWAS + hRéseau", c.copy());
+	}
+
+	/**
+	 * Lance la recherche Monte-Carlo parallèle, un thread par processeur disponible
+	 * (ou sa part des processeurs, voir partagerCoeurs)
+	 * Les déroulements sont notés par l’estimation deux phases
+	 */
+	public Result joueur14_MCTS(CubieCube c) {
+		int threads = threadsMCTS;
+		return new RechercheMCTS(this::hGuideDeuxPhases, threads)
+				.lancer("MCTS(" + threads + ") + hDeuxPhases", c.copy(), delaiIdaNs);
+	}
+
+	/**
+	 * Lance IDA* avec l’heuristique deux phases et la base de fin de partie :
+	 * les derniers niveaux de la recherche sont remplacés par une lecture dans la table
+	 * La construction de la base n’est pas comptée dans le temps de résolution
+	 */
+	public Result joueur15_IDA_TwoPhaseTables_Perimetre(CubieCube c) {
+		BasePerimetre p = perimetre();
+		return lancerIDA("IDA* + hTwoPhase + périmètre(" + p.profondeur() + ")", c.copy(), this::hTwoPhaseTables, p);
+	}
+
+	/**
+	 * Lance IDA* avec l’heuristique deux phases et la distance exacte des coins
+	 * La construction de la table des coins n’est pas comptée dans le temps de résolution
+	 */
+	public Result joueur16_IDA_TwoPhaseCoins(CubieCube c) {
+		TableCoins.TABLE.profondeurMax();
+		return lancerIDA("IDA* + hTwoPhase + coins", c.copy(), this::hTwoPhaseCoins);
+	}
+
+	/**
+	 * Mode coins seuls : résout optimalement les coins de c (comme un cube 2x2x2)
+	 * par descente sur la table exacte ; les arêtes sont ignorées
+	 */
+	public Result modeCoins(CubieCube c) {
+		long t0 = System.nanoTime();
+		int[] coups = TableCoins.TABLE.resoudre(c);
+		return new Result("Coins 2x2 (table exacte)", pathToString(coups, coups.length), coups.length,
+				(System.nanoTime() - t0) / 1e9, coups.length + 1, true);
+	}
+
+	/**
+	 * Lance l’algorithme de Thistlethwaite : quatre phases résolues par descente sur de petites tables
+	 * La construction des tables n’est pas comptée dans le temps de résolution
+	 */
+	public Result joueur17_Thistlethwaite(CubieCube c) {
+		Thistlethwaite.tableBytes();
+		long t0 = System.nanoTime();
+		int[] coups = Thistlethwaite.solve(c, null);
+		return new Result("Thistlethwaite (4 phases)", pathToString(coups, coups.length), coups.length,
+				(System.nanoTime() - t0) / 1e9, coups.length + 1, true);
+	}
+
+	/**
+	 * Lance l’algorithme deux phases de Kociemba (Search), celui de l’application, avec ses compteurs de nœuds
+	 * Solutions de 21 coups au plus ; le délai est celui des joueurs IDA*
+	 */
+	public Result joueur18_Search(CubieCube c) {
+		long t0 = System.nanoTime();
+		Search search = new Search();
+		long delaiMs = (delaiIdaNs + 999_999) / 1_000_000;
+		String s = search.solve(c.toFaceCube().to_String(), 21, delaiMs, false);
+		double temps = (System.nanoTime() - t0) / 1e9;
+		long noeuds = search.phase1Nodes + search.phase2Nodes;
+		Result r;
+		if (s.startsWith("Error")) {
+			r = new Result("Kociemba (Search)", s, 0, temps, noeuds, false);
+		} else {
+			s = s.trim();
+			r = new Result("Kociemba (Search)", s, s.isEmpty() ? 0 : s.split("\\s+").length, temps, noeuds, true);
+		}
+		r.appelsPhase2 = search.phase2Calls;
+		r.noeudsPhase2 = search.phase2Nodes;
+		r.coupures = search.cutoffs;
+		return r;
+	}
+
+	/**
+	 * Distance optimale de c (nombre minimal de quarts et demi-tours), -1 si la recherche dépasse noeudsMax nœuds
+	 * Recherche bidirectionnelle : IDA* avec l’heuristique deux phases et coins, qui s’arrête
+	 * dès qu’elle rejoint la base de fin de partie ; une distance dans le périmètre se lit directement
+	 * Seul le nombre de nœuds limite la recherche, pas le temps : le résultat ne dépend pas de la charge de la machine
+	 */
+	int distanceOptimale(CubieCube c, long noeudsMax) {
+		IdaState s = new IdaState();
+		s.perimetre = perimetre();
+		s.delaiNs = Long.MAX_VALUE;
+		s.noeudsMax = noeudsMax;
+		int d = s.perimetre.distance(c.zobrist());
+		if (d >= 0) return d;
+		TableCoins.TABLE.profondeurMax();
+		Result r = lancerIDA("distance optimale", c.copy(), this::hTwoPhaseCoins, s);
+		return r.succes ? r.coups : -1;
+	}
+
+	/**
+	 * Construit toutes les tables et bases partagées, pour qu’aucun joueur ne paie leur construction
+	 * ni n’attende qu’un autre joueur la termine
+	 */
+	void preparer() {
+		CubieCube resolu = new CubieCube();
+		for (ToIntFunction<CubieCube> h : heuristiques().values())
+			h.applyAsInt(resolu);
+		perimetre();
+		Thistlethwaite.tableBytes();
+		joueur18_Search(resolu);
+	}
+
+	/**
+	 * Heuristiques du projet, par nom (pour les bancs d’essai)
+	 */
+	Map<String, ToIntFunction<CubieCube>> heuristiques() {
+		Map<String, ToIntFunction<CubieCube>> h = new LinkedHashMap<>();
+		h.put("hMalPlaces", this::hMalPlaces);
+		h.put("hManhattan", this::hManhattan);
+		h.put("hKorf", this::hKorf);
+		h.put("hTwoPhaseTables", this::hTwoPhaseTables);
+		h.put("hTwoPhaseCoins", this::hTwoPhaseCoins);
+		h.put("hGuideDeuxPhases", this::hGuideDeuxPhases);
+		h.put("hFaisceau", this::hFaisceau);
+		h.put("hReseau", c -> reseau().applyAsInt(c));
+		return h;
+	}
+
+	/**
+	 * Joueurs du projet, par nom de méthode, dans l’ordre de leur numéro
+	 */
+	Map<String, Function<CubieCube, Result>> joueurs() {
+		Map<String, Function<CubieCube, Result>> j = new LinkedHashMap<>();
+		j.put("joueur1_IDA_Korf", this::joueur1_IDA_Korf);
+		j.put("joueur2_IDA_MalPlacees", this::joueur2_IDA_MalPlacees);
+		j.put("joueur3_IDA_Manhattan", this::joueur3_IDA_Manhattan);
+		j.put("joueur4_AStar_Manhattan", this::joueur4_AStar_Manhattan);
+		j.put("joueur5_AStar_MalPlacees", this::joueur5_AStar_MalPlacees);
+		j.put("joueur6_IDA_TwoPhaseTables", this::joueur6_IDA_TwoPhaseTables);
+		j.put("joueur7_AStar_TwoPhaseTables", this::joueur7_AStar_TwoPhaseTables);
+		j.put("joueur8_IDA_TwoPhaseTables_Cache", this::joueur8_IDA_TwoPhaseTables_Cache);
+		j.put("joueur9_RBFS_TwoPhaseTables", this::joueur9_RBFS_TwoPhaseTables);
+		j.put("joueur10_Faisceau", this::joueur10_Faisceau);
+		j.put("joueur11_ARA_TwoPhaseTables", this::joueur11_ARA_TwoPhaseTables);
+		j.put("joueur12_IDA_Manhattan_Lot", this::joueur12_IDA_Manhattan_Lot);
+		j.put("joueur13_BWAS_Reseau", this::joueur13_BWAS_Reseau);
+		j.put("joueur14_MCTS", this::joueur14_MCTS);
+		j.put("joueur15_IDA_TwoPhaseTables_Perimetre", this::joueur15_IDA_TwoPhaseTables_Perimetre);
+		j.put("joueur16_IDA_TwoPhaseCoins", this::joueur16_IDA_TwoPhaseCoins);
+		j.put("joueur17_Thistlethwaite", this::joueur17_Thistlethwaite);
+		j.put("joueur18_Search", this::joueur18_Search);
+		return j;
+	}
+
+	/**
+	 * Prévoit, sans le lancer, le nombre de nœuds de l’IDA* d’un joueur (1, 2, 3, 6, 8 ou 12)
+	 * pour chaque seuil jusqu’à profondeurMax, longueur d’une solution déjà connue
+	 * (par exemple celle du mélange). Le cache et les lots ne changent pas le nombre de nœuds
+	 */
+	EstimateurIDA.Prevision prevoirIDA(int joueur, CubieCube c, int profondeurMax) {
+		ToIntFunction<CubieCube> h;
+		switch (joueur) {
+		case 1: h = this::hKorf; break;
+		case 2: h = this::hMalPlaces; break;
+		case 3: case 12: h = this::hManhattan; break;
+		case 6: case 8: h = this::hTwoPhaseTables; break;
+		default: throw new IllegalArgumentException("pas de prévision pour le joueur " + joueur);
+		}
+		return new EstimateurIDA(h, EstimateurIDA.SONDAGES, 0x5DEECE66DL)
+				.prevoir(c, hTwoPhaseTables(c), profondeurMax);
+	}
+
+	/**
+	 * Renvoie la base de fin de partie partagée, construite au premier appel
+	 */
+	private static synchronized BasePerimetre perimetre() {
+		if (perimetre == null)
+			perimetre = new BasePerimetre(BasePerimetre.PROFONDEUR_DEFAUT);
+		return perimetre;
+	}
+
+	/**
+	 * Renvoie le réseau partagé, en le chargeant depuis son fichier au premier appel
+	 */
+	private static synchronized ReseauHeuristique reseau() {
+		if (reseau == null)
+			reseau = ReseauHeuristique.parDefaut();
+		return reseau;
+	}
+
 }
@@ -3,29 +3,40 @@ package org.kociemba.twophase;
 //++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 /**
  * Class Search implements the Two-Phase-Algorithm.
+ * The search state lives in a Search instance created for each call of {@link #solution}, so several threads may
+ * solve cubes at the same time.
  */
 public class Search {
 
-	static int[] ax = new int[31]; // The axis of the move
-	static int[] po = new int[31]; // The power of the move
+	final int[] ax = new int[31]; // The axis of the move
+	final int[] po = new int[31]; // The power of the move
 
-	static int[] flip = new int[31]; // phase1 coordinates
-	static int[] twist = new int[31];
-	static int[] slice = new int[31];
+	final int[] flip = new int[31]; // phase1 coordinates
+	final int[] twist = new int[31];
+	final int[] slice = new int[31];
 
-	static int[] parity = new int[31]; // phase2 coordinates
-	static int[] URFtoDLF = new int[31];
-	static int[] FRtoBR = new int[31];
-	static int[] URtoUL = new int[31];
-	static int[] UBtoDF = new int[31];
-	static int[] URtoDF = new int[31];
+	final int[] parity = new int[31]; // phase2 coordinates
+	final int[] URFtoDLF = new int[31];
+	final int[] FRtoBR = new int[31];
+	final int[] URtoUL = new int[31];
+	final int[] UBtoDF = new int[31];
+	final int[] URtoDF = new int[31];
 
-	static int[] minDistPhase1 = new int[31]; // IDA* distance do goal estimations
-	static int[] minDistPhase2 = new int[31];
+	final int[] minDistPhase1 = new int[31]; // IDA* distance do goal estimations
+	final int[] minDistPhase2 = new int[31];
+
+	final int[] cornerDistPhase2 = new int[31]; // exact values of the two phase2 pruning tables, needed to decode
+	final int[] edgeDistPhase2 = new int[31]; // the compact table profile (see CoordCube.Profile)
+
+	// search statistics of the last call of solve
+	long phase1Nodes; // phase1 nodes generated
+	long phase2Calls; // phase1 solutions handed to phase2
+	long phase2Nodes; // phase2 nodes generated
+	long cutoffs; // nodes not expanded because a pruning table bounds their distance beyond the depth limit
 
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	// generate the solution string from the array data
-	static String solutionToString(int length) {
+	String solutionToString(int length) {
 		String s = "";
 		for (int i = 0; i < length; i++) {
 			switch (ax[i]) {
@@ -66,7 +77,7 @@ public class Search {
 
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	// generate the solution string from the array data including a separator between phase1 and phase2 moves
-	static String solutionToString(int length, int depthPhase1) {
+	String solutionToString(int length, int depthPhase1) {
 		String s = "";
 		for (int i = 0; i < length; i++) {
 			switch (ax[i]) {
@@ -133,9 +144,15 @@ public class Search {
 	 *         Error 5: Twist error: One corner has to be twisted<br>
 	 *         Error 6: Parity error: Two corners or two edges have to be exchanged<br>
 	 *         Error 7: No solution exists for the given maxDepth<br>
-	 *         Error 8: Timeout, no solution within given time
+	 *         Error 8: Timeout, no solution within given time, or the calling thread was interrupted
 	 */
 	public static String solution(String facelets, int maxDepth, long timeOut, boolean useSeparator) {
+		return new Search().solve(facelets, maxDepth, timeOut << 10, useSeparator);
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// the search itself, on the arrays of this instance; the time limit is given in milliseconds
+	String solve(String facelets, int maxDepth, long timeOutMs, boolean useSeparator) {
 		int s;
 
 		// +++++++++++++++++++++check for wrong input +++++++++++++++++++++++++++++
@@ -157,6 +174,7 @@ public class Search {
 
 		// +++++++++++++++++++++++ initialization +++++++++++++++++++++++++++++++++
 		CoordCube c = new CoordCube(cc);
+		phase1Nodes = phase2Calls = phase2Nodes = cutoffs = 0;
 
 		po[0] = 0;
 		ax[0] = 0;
@@ -190,7 +208,7 @@ public class Search {
 					do {// increment axis
 						if (++ax[n] > 5) {
 
-							if (System.currentTimeMillis() - tStart > timeOut << 10)
+							if (System.currentTimeMillis() - tStart > timeOutMs || Thread.currentThread().isInterrupted())
 								return "Error 8";
 
 							if (n == 0) {
@@ -221,12 +239,15 @@ public class Search {
 			// +++++++++++++ compute new coordinates and new minDistPhase1 ++++++++++
 			// if minDistPhase1 =0, the H subgroup is reached
 			mv = 3 * ax[n] + po[n] - 1;
-			flip[n + 1] = CoordCube.flipMove[flip[n]][mv];
-			twist[n + 1] = CoordCube.twistMove[twist[n]][mv];
-			slice[n + 1] = CoordCube.FRtoBR_Move[slice[n] * 24][mv] / 24;
-			minDistPhase1[n + 1] = Math.max(CoordCube.getPruning(CoordCube.Slice_Flip_Prun, CoordCube.N_SLICE1 * flip[n + 1]
-					+ slice[n + 1]), CoordCube.getPruning(CoordCube.Slice_Twist_Prun, CoordCube.N_SLICE1 * twist[n + 1]
+			flip[n + 1] = CoordCube.flipMove()[flip[n]][mv];
+			twist[n + 1] = CoordCube.twistMove()[twist[n]][mv];
+			slice[n + 1] = CoordCube.FRtoBR_Move()[slice[n] * 24][mv] / 24;
+			minDistPhase1[n + 1] = Math.max(CoordCube.getPruning(CoordCube.Slice_Flip_Prun(), CoordCube.N_SLICE1 * flip[n + 1]
+					+ slice[n + 1]), CoordCube.getPruning(CoordCube.Slice_Twist_Prun(), CoordCube.N_SLICE1 * twist[n + 1]
 					+ slice[n + 1]));
+			phase1Nodes++;
+			if (minDistPhase1[n + 1] >= depthPhase1 - n)
+				cutoffs++;
 			// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 
 			if (minDistPhase1[n + 1] == 0 && n >= depthPhase1 - 5) {
@@ -244,30 +265,35 @@ public class Search {
 	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 	// Apply phase2 of algorithm and return the combined phase1 and phase2 depth. In phase2, only the moves
 	// U,D,R2,F2,L2 and B2 are allowed.
-	static int totalDepth(int depthPhase1, int maxDepth) {
+	int totalDepth(int depthPhase1, int maxDepth) {
 		int mv = 0, d1 = 0, d2 = 0;
 		int maxDepthPhase2 = Math.min(10, maxDepth - depthPhase1);// Allow only max 10 moves in phase2
+		phase2Calls++;
 		for (int i = 0; i < depthPhase1; i++) {
 			mv = 3 * ax[i] + po[i] - 1;
-			URFtoDLF[i + 1] = CoordCube.URFtoDLF_Move[URFtoDLF[i]][mv];
-			FRtoBR[i + 1] = CoordCube.FRtoBR_Move[FRtoBR[i]][mv];
+			URFtoDLF[i + 1] = CoordCube.URFtoDLF_Move()[URFtoDLF[i]][mv];
+			FRtoBR[i + 1] = CoordCube.FRtoBR_Move()[FRtoBR[i]][mv];
 			parity[i + 1] = CoordCube.parityMove[parity[i]][mv];
 		}
 
-		if ((d1 = CoordCube.getPruning(CoordCube.Slice_URFtoDLF_Parity_Prun,
-				(CoordCube.N_SLICE2 * URFtoDLF[depthPhase1] + FRtoBR[depthPhase1]) * 2 + parity[depthPhase1])) > maxDepthPhase2)
+		if ((d1 = CoordCube.getCornerPruning(URFtoDLF[depthPhase1], FRtoBR[depthPhase1], parity[depthPhase1])) > maxDepthPhase2) {
+			cutoffs++;
 			return -1;
+		}
 
 		for (int i = 0; i < depthPhase1; i++) {
 			mv = 3 * ax[i] + po[i] - 1;
-			URtoUL[i + 1] = CoordCube.URtoUL_Move[URtoUL[i]][mv];
-			UBtoDF[i + 1] = CoordCube.UBtoDF_Move[UBtoDF[i]][mv];
+			URtoUL[i + 1] = CoordCube.URtoUL_Move()[URtoUL[i]][mv];
+			UBtoDF[i + 1] = CoordCube.UBtoDF_Move()[UBtoDF[i]][mv];
 		}
-		URtoDF[depthPhase1] = CoordCube.MergeURtoULandUBtoDF[URtoUL[depthPhase1]][UBtoDF[depthPhase1]];
+		URtoDF[depthPhase1] = CoordCube.mergeURtoULandUBtoDF(URtoUL[depthPhase1], UBtoDF[depthPhase1]);
 
-		if ((d2 = CoordCube.getPruning(CoordCube.Slice_URtoDF_Parity_Prun,
-				(CoordCube.N_SLICE2 * URtoDF[depthPhase1] + FRtoBR[depthPhase1]) * 2 + parity[depthPhase1])) > maxDepthPhase2)
+		if ((d2 = CoordCube.getEdgePruning(URtoDF[depthPhase1], FRtoBR[depthPhase1], parity[depthPhase1])) > maxDepthPhase2) {
+			cutoffs++;
 			return -1;
+		}
+		cornerDistPhase2[depthPhase1] = d1;
+		edgeDistPhase2[depthPhase1] = d2;
 
 		if ((minDistPhase2[depthPhase1] = Math.max(d1, d2)) == 0)// already solved
 			return depthPhase1;
@@ -326,16 +352,19 @@ public class Search {
 			// +++++++++++++ compute new coordinates and new minDist ++++++++++
 			mv = 3 * ax[n] + po[n] - 1;
 
-			URFtoDLF[n + 1] = CoordCube.URFtoDLF_Move[URFtoDLF[n]][mv];
-			FRtoBR[n + 1] = CoordCube.FRtoBR_Move[FRtoBR[n]][mv];
+			URFtoDLF[n + 1] = CoordCube.URFtoDLF_Move()[URFtoDLF[n]][mv];
+			FRtoBR[n + 1] = CoordCube.FRtoBR_Move()[FRtoBR[n]][mv];
 			parity[n + 1] = CoordCube.parityMove[parity[n]][mv];
-			URtoDF[n + 1] = CoordCube.URtoDF_Move[URtoDF[n]][mv];
-
-			minDistPhase2[n + 1] = Math.max(CoordCube.getPruning(CoordCube.Slice_URtoDF_Parity_Prun, (CoordCube.N_SLICE2
-					* URtoDF[n + 1] + FRtoBR[n + 1])
-					* 2 + parity[n + 1]), CoordCube.getPruning(CoordCube.Slice_URFtoDLF_Parity_Prun, (CoordCube.N_SLICE2
-					* URFtoDLF[n + 1] + FRtoBR[n + 1])
-					* 2 + parity[n + 1]));
+			URtoDF[n + 1] = CoordCube.moveURtoDF(URtoDF[n], mv);
+
+			cornerDistPhase2[n + 1] = CoordCube.getCornerPruning(URFtoDLF[n + 1], FRtoBR[n + 1], parity[n + 1],
+					cornerDistPhase2[n]);
+			edgeDistPhase2[n + 1] = CoordCube.getEdgePruning(URtoDF[n + 1], FRtoBR[n + 1], parity[n + 1],
+					edgeDistPhase2[n]);
+			minDistPhase2[n + 1] = Math.max(cornerDistPhase2[n + 1], edgeDistPhase2[n + 1]);
+			phase2Nodes++;
+			if (minDistPhase2[n + 1] >= depthPhase1 + depthPhase2 - n)
+				cutoffs++;
 			// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
 
 		} while (minDistPhase2[n + 1] != 0);
@@ -0,0 +1,251 @@
+package org.kociemba.twophase;
+
+import static org.kociemba.twophase.Corner.*;
+import static org.kociemba.twophase.Edge.*;
+
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+// The 48 symmetries of the cube (24 rotations, each optionally combined with a reflection) on the cubie level.
+// Symmetry s is generated as S_URF3^a * S_F2^b * S_U4^c * S_LR2^d with s = 16 * a + 8 * b + 2 * c + d, so the even
+// indices are the proper rotations. Mirrored corners use the orientations 3, 4 and 5 (see CubieCube.cornerMultiply).
+//
+// Two cubes c and S^-1 * c * S have the same distance to the solved cube: a maneuver solving one of them is mapped
+// to a maneuver of the same length solving the other one by conjugating every move. Tables, caches and duplicate
+// checks can therefore store one representative per symmetry class, see canonical().
+class Symmetry {
+
+	static final int N_SYM = 48;
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// 120° clockwise rotation around the long diagonal URF-DBL
+	private static final Corner[] cpROT_URF3 = { URF, DFR, DLF, UFL, UBR, DRB, DBL, ULB };
+	private static final byte[] coROT_URF3 = { 1, 2, 1, 2, 2, 1, 2, 1 };
+	private static final Edge[] epROT_URF3 = { UF, FR, DF, FL, UB, BR, DB, BL, UR, DR, DL, UL };
+	private static final byte[] eoROT_URF3 = { 1, 0, 1, 0, 1, 0, 1, 0, 1, 1, 1, 1 };
+
+	// 180° rotation around the axis through the F and B centers
+	private static final Corner[] cpROT_F2 = { DLF, DFR, DRB, DBL, UFL, URF, UBR, ULB };
+	private static final byte[] coROT_F2 = { 0, 0, 0, 0, 0, 0, 0, 0 };
+	private static final Edge[] epROT_F2 = { DL, DF, DR, DB, UL, UF, UR, UB, FL, FR, BR, BL };
+	private static final byte[] eoROT_F2 = { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+
+	// 90° clockwise rotation around the axis through the U and D centers
+	private static final Corner[] cpROT_U4 = { UBR, URF, UFL, ULB, DRB, DFR, DLF, DBL };
+	private static final byte[] coROT_U4 = { 0, 0, 0, 0, 0, 0, 0, 0 };
+	private static final Edge[] epROT_U4 = { UB, UR, UF, UL, DB, DR, DF, DL, BR, FR, FL, BL };
+	private static final byte[] eoROT_U4 = { 0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1 };
+
+	// reflection at the plane through the U, D, F and B centers
+	private static final Corner[] cpMIRR_LR2 = { UFL, URF, UBR, ULB, DLF, DFR, DRB, DBL };
+	private static final byte[] coMIRR_LR2 = { 3, 3, 3, 3, 3, 3, 3, 3 };
+	private static final Edge[] epMIRR_LR2 = { UL, UF, UR, UB, DL, DF, DR, DB, FL, FR, BR, BL };
+	private static final byte[] eoMIRR_LR2 = { 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+
+	// the 48 symmetries as cubes
+	static final CubieCube[] symCube = new CubieCube[N_SYM];
+
+	// symCube[invIdx[s]] is the inverse of symCube[s]
+	static final int[] invIdx = new int[N_SYM];
+
+	// symCube[multSym[a][b]] = symCube[a] * symCube[b]
+	static final int[][] multSym = new int[N_SYM][N_SYM];
+
+	// conjMove[s][m] is the move S_s^-1 * m * S_s, so that a maneuver m1..mn solving S_s^-1 * c * S_s translates to the
+	// maneuver conjMove[invIdx[s]][m1]..conjMove[invIdx[s]][mn] solving c.
+	static final int[][] conjMove = new int[N_SYM][18];
+
+	// The symmetries and their inverses as plain arrays, used by the allocation free conjugation.
+	// Corner orientations are in 0..5, oriAdd is the composition of two orientations in the dihedral group D3.
+	private static final int[][] sCp = new int[N_SYM][8], sCo = new int[N_SYM][8];
+	private static final int[][] sEp = new int[N_SYM][12], sEo = new int[N_SYM][12];
+	private static final int[][] iCp = new int[N_SYM][8], iCo = new int[N_SYM][8];
+	private static final int[][] iEp = new int[N_SYM][12], iEo = new int[N_SYM][12];
+	private static final int[][] oriAdd = new int[6][6];
+	private static final Corner[] corners = Corner.values();
+	private static final Edge[] edges = Edge.values();
+
+	static {
+		CubieCube urf3 = new CubieCube(cpROT_URF3, coROT_URF3, epROT_URF3, eoROT_URF3);
+		CubieCube f2 = new CubieCube(cpROT_F2, coROT_F2, epROT_F2, eoROT_F2);
+		CubieCube u4 = new CubieCube(cpROT_U4, coROT_U4, epROT_U4, eoROT_U4);
+		CubieCube lr2 = new CubieCube(cpMIRR_LR2, coMIRR_LR2, epMIRR_LR2, eoMIRR_LR2);
+
+		CubieCube c = new CubieCube();
+		for (int a = 0, s = 0; a < 3; a++) {
+			for (int b = 0; b < 2; b++) {
+				for (int d = 0; d < 4; d++) {
+					for (int e = 0; e < 2; e++) {
+						symCube[s++] = c.copy();
+						c.multiply(lr2);
+					}
+					c.multiply(u4);
+				}
+				c.multiply(f2);
+			}
+			c.multiply(urf3);
+		}
+
+		for (int a = 0; a < N_SYM; a++)
+			for (int b = 0; b < N_SYM; b++) {
+				CubieCube ab = symCube[a].copy();
+				ab.multiply(symCube[b]);
+				multSym[a][b] = indexOf(ab);
+				if (multSym[a][b] == 0)
+					invIdx[a] = b;
+			}
+
+		CubieCube[] moves = new CubieCube[18];
+		for (int m = 0; m < 18; m++) {
+			moves[m] = new CubieCube();
+			for (int k = 0; k <= m % 3; k++)
+				moves[m].multiply(CubieCube.moveCube[m / 3]);
+		}
+		for (int s = 0; s < N_SYM; s++)
+			for (int m = 0; m < 18; m++) {
+				CubieCube x = symCube[invIdx[s]].copy();
+				x.multiply(moves[m]);
+				x.multiply(symCube[s]);
+				conjMove[s][m] = -1;
+				for (int m2 = 0; m2 < 18; m2++)
+					if (x.equals(moves[m2]))
+						conjMove[s][m] = m2;
+			}
+
+		for (int s = 0; s < N_SYM; s++) {
+			CubieCube x = symCube[s], y = symCube[invIdx[s]];
+			for (int i = 0; i < 8; i++) {
+				sCp[s][i] = x.cp[i].ordinal();
+				sCo[s][i] = x.co[i];
+				iCp[s][i] = y.cp[i].ordinal();
+				iCo[s][i] = y.co[i];
+			}
+			for (int i = 0; i < 12; i++) {
+				sEp[s][i] = x.ep[i].ordinal();
+				sEo[s][i] = x.eo[i];
+				iEp[s][i] = y.ep[i].ordinal();
+				iEo[s][i] = y.eo[i];
+			}
+		}
+
+		// same rules as in CubieCube.cornerMultiply
+		for (int oriA = 0; oriA < 6; oriA++)
+			for (int oriB = 0; oriB < 6; oriB++) {
+				int ori;
+				if (oriA < 3 && oriB < 3) {
+					ori = oriA + oriB;
+					if (ori >= 3)
+						ori -= 3;
+				} else if (oriA < 3) {
+					ori = oriA + oriB;
+					if (ori >= 6)
+						ori -= 3;
+				} else if (oriB < 3) {
+					ori = oriA - oriB;
+					if (ori < 3)
+						ori += 3;
+				} else {
+					ori = oriA - oriB;
+					if (ori < 0)
+						ori += 3;
+				}
+				oriAdd[oriA][oriB] = ori;
+			}
+	}
+
+	private static int indexOf(CubieCube c) {
+		for (int s = 0; s < N_SYM; s++)
+			if (c.equals(symCube[s]))
+				return s;
+		throw new IllegalStateException("the symmetries do not form a group");
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// out = S_s^-1 * c * S_s. c and out must not be the same cube.
+	static void conjugate(CubieCube c, int s, CubieCube out) {
+		int[] aCp = iCp[s], aCo = iCo[s], bCp = sCp[s], bCo = sCo[s];
+		for (int i = 0; i < 8; i++) {
+			int j = bCp[i];
+			int k = c.cp[j].ordinal();
+			out.cp[i] = corners[aCp[k]];
+			out.co[i] = (byte) oriAdd[oriAdd[aCo[k]][c.co[j]]][bCo[i]];
+		}
+		int[] aEp = iEp[s], aEo = iEo[s], bEp = sEp[s], bEo = sEo[s];
+		for (int i = 0; i < 12; i++) {
+			int j = bEp[i];
+			int k = c.ep[j].ordinal();
+			out.ep[i] = edges[aEp[k]];
+			out.eo[i] = (byte) ((aEo[k] + c.eo[j] + bEo[i]) & 1);
+		}
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Compute the representative of the symmetry class of c: the conjugate S_s^-1 * c * S_s which is the smallest in
+	// the lexicographic order of (cp, co, ep, eo). The representative is written to rep and s is returned.
+	// Each conjugate is compared while it is built, so most of the 48 candidates are rejected after a few cubies.
+	static int canonical(CubieCube c, CubieCube rep) {
+		int[] best = new int[40], cand = new int[40];
+		int bestSym = 0;
+		fill(c, best);
+		for (int s = 1; s < N_SYM; s++) {
+			int cmp = 0, i = 0;
+			int[] aCp = iCp[s], aCo = iCo[s], bCp = sCp[s], bCo = sCo[s];
+			int[] aEp = iEp[s], aEo = iEo[s], bEp = sEp[s], bEo = sEo[s];
+			for (; i < 8 && cmp <= 0; i++) {
+				cand[i] = aCp[c.cp[bCp[i]].ordinal()];
+				if (cmp == 0)
+					cmp = Integer.compare(cand[i], best[i]);
+			}
+			for (; i < 16 && cmp <= 0; i++) {
+				int j = bCp[i - 8];
+				cand[i] = oriAdd[oriAdd[aCo[c.cp[j].ordinal()]][c.co[j]]][bCo[i - 8]];
+				if (cmp == 0)
+					cmp = Integer.compare(cand[i], best[i]);
+			}
+			for (; i < 28 && cmp <= 0; i++) {
+				cand[i] = aEp[c.ep[bEp[i - 16]].ordinal()];
+				if (cmp == 0)
+					cmp = Integer.compare(cand[i], best[i]);
+			}
+			for (; i < 40 && cmp <= 0; i++) {
+				int j = bEp[i - 28];
+				cand[i] = (aEo[c.ep[j].ordinal()] + c.eo[j] + bEo[i - 28]) & 1;
+				if (cmp == 0)
+					cmp = Integer.compare(cand[i], best[i]);
+			}
+			if (cmp < 0) {
+				int[] t = best;
+				best = cand;
+				cand = t;
+				bestSym = s;
+			}
+		}
+		for (int i = 0; i < 8; i++) {
+			rep.cp[i] = corners[best[i]];
+			rep.co[i] = (byte) best[8 + i];
+		}
+		for (int i = 0; i < 12; i++) {
+			rep.ep[i] = edges[best[16 + i]];
+			rep.eo[i] = (byte) best[28 + i];
+		}
+		return bestSym;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Zobrist key of the representative of the symmetry class of c. Equal for all cubes of the same class.
+	static long canonicalZobrist(CubieCube c) {
+		CubieCube rep = new CubieCube();
+		canonical(c, rep);
+		return rep.zobrist();
+	}
+
+	// the cube c written as (cp, co, ep, eo)
+	private static void fill(CubieCube c, int[] out) {
+		for (int i = 0; i < 8; i++) {
+			out[i] = c.cp[i].ordinal();
+			out[8 + i] = c.co[i];
+		}
+		for (int i = 0; i < 12; i++) {
+			out[16 + i] = c.ep[i].ordinal();
+			out[28 + i] = c.eo[i];
+		}
+	}
+}
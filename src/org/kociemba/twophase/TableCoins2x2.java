@@ -0,0 +1,189 @@
+package org.kociemba.twophase;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Table exacte des distances du cube 2x2x2 (coins seuls)
+ * Un mouvement D, L ou B équivaut au mouvement de la face opposée suivi d’une rotation du cube :
+ * à rotation près, on peut donc garder le coin DRB immobile et n’utiliser que U, F et L
+ * Il reste 7! permutations (URFtoDLB < 5040) et 3^6 orientations (twist / 3), soit 3 674 160 états
+ *
+ * La table est construite par un parcours en largeur parallèle : chaque thread traite une tranche
+ * du niveau courant. Deux threads peuvent écrire la même case, mais toujours avec la même valeur
+ *
+ * Pour un cube complet, la distance de ses coins au 2x2 résolu minore le nombre de coups restants :
+ * c’est une heuristique admissible pour les moteurs du cube 3x3
+ */
+final class TableCoins2x2 {
+
+	static final int N_PERM = 5040;
+	static final int N_TWIST = 729;
+	static final int N_ETATS = N_PERM * N_TWIST;
+
+	/**
+	 * Mouvements des faces qui ne touchent pas DRB : U, F et L
+	 */
+	static final int[] COUPS = {0, 1, 2, 6, 7, 8, 12, 13, 14};
+
+	private static final int NON_VU = -1;
+
+	/**
+	 * Rotation qui amène en DRB, bien orienté, le coin DRB situé en position p avec l’orientation o
+	 */
+	private static final int[][] ROTATION = new int[8][3];
+
+	static {
+		for (int s = 0; s < Symmetry.N_SYM; s += 2) {
+			CubieCube r = Symmetry.symCube[s];
+			int p = r.cp[Corner.DRB.ordinal()].ordinal();
+			int o = (3 - r.co[Corner.DRB.ordinal()]) % 3;
+			ROTATION[p][o] = s;
+		}
+	}
+
+	private final short[][] permMove = new short[N_PERM][COUPS.length];
+	private final short[][] twistMove = new short[N_TWIST][COUPS.length];
+	private final byte[] dist = new byte[N_ETATS];
+	private int profondeurMax;
+
+	/**
+	 * Construit les tables de mouvements puis les distances avec nbThreads threads
+	 */
+	TableCoins2x2(int nbThreads) {
+		construireMouvements();
+		construireDistances(nbThreads);
+	}
+
+	private void construireMouvements() {
+		CubieCube a = new CubieCube();
+		for (int p = 0; p < N_PERM; p++) {
+			for (int k = 0; k < COUPS.length; k++) {
+				a.setURFtoDLB(p);
+				appliquer(a, COUPS[k]);
+				permMove[p][k] = (short) a.getURFtoDLB();
+			}
+		}
+		for (int t = 0; t < N_TWIST; t++) {
+			for (int k = 0; k < COUPS.length; k++) {
+				a.setTwist(twistComplet(t));
+				appliquer(a, COUPS[k]);
+				twistMove[t][k] = (short) (a.getTwist() / 3);
+			}
+		}
+	}
+
+	private void construireDistances(int nbThreads) {
+		Arrays.fill(dist, (byte) NON_VU);
+		dist[0] = 0;
+		int tranches = Math.max(1, nbThreads) * 16;
+		int tailleTranche = (N_ETATS + tranches - 1) / tranches;
+
+		for (int d = 0; ; d++) {
+			final byte courant = (byte) d, suivant = (byte) (d + 1);
+			boolean progres = IntStream.range(0, tranches).parallel().map(b -> {
+				int nouveaux = 0;
+				int fin = Math.min(N_ETATS, (b + 1) * tailleTranche);
+				for (int i = b * tailleTranche; i < fin; i++) {
+					if (dist[i] != courant) continue;
+					int p = i / N_TWIST, t = i % N_TWIST;
+					for (int k = 0; k < COUPS.length; k++) {
+						int j = permMove[p][k] * N_TWIST + twistMove[t][k];
+						if (dist[j] == NON_VU) {
+							dist[j] = suivant;
+							nouveaux++;
+						}
+					}
+				}
+				return nouveaux;
+			}).sum() > 0;
+			if (!progres) {
+				profondeurMax = d;
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Twist complet (7 chiffres) dont l’orientation de DRB est nulle
+	 */
+	private static short twistComplet(int t) {
+		int somme = 0;
+		for (int x = t; x > 0; x /= 3)
+			somme += x % 3;
+		return (short) (3 * t + (3 - somme % 3) % 3);
+	}
+
+	private static void appliquer(CubieCube a, int mv) {
+		for (int i = 0; i <= mv % 3; i++)
+			a.cornerMultiply(CubieCube.moveCube[mv / 3]);
+	}
+
+	/**
+	 * Indice de la table pour les coins de c, après la rotation qui ramène DRB en place
+	 * Renvoie aussi (dans rotation[0], si non null) l’indice de symétrie de cette rotation
+	 */
+	int index(CubieCube c, int[] rotation) {
+		int p = 0;
+		while (c.cp[p] != Corner.DRB) p++;
+		int s = ROTATION[p][c.co[p]];
+		if (rotation != null) rotation[0] = s;
+
+		CubieCube a = new CubieCube();
+		for (int i = 0; i < 8; i++) {
+			a.cp[i] = c.cp[i];
+			a.co[i] = c.co[i];
+		}
+		a.cornerMultiply(Symmetry.symCube[s]);
+		return a.getURFtoDLB() * N_TWIST + a.getTwist() / 3;
+	}
+
+	/**
+	 * Nombre minimal de coups pour résoudre les coins de c (à rotation du cube près)
+	 */
+	int distance(CubieCube c) {
+		return dist[index(c, null)];
+	}
+
+	/**
+	 * Solution optimale des coins de c par descente sur la table : à chaque étape,
+	 * un coup qui fait baisser la distance de 1. Les coups sont exprimés dans l’orientation de c
+	 * et ramènent ses coins à une rotation de l’état résolu
+	 */
+	int[] resoudre(CubieCube c) {
+		int[] rotation = new int[1];
+		int i = index(c, rotation);
+		int inverse = Symmetry.invIdx[rotation[0]];
+		int[] coups = new int[dist[i]];
+		for (int n = 0; n < coups.length; n++) {
+			int p = i / N_TWIST, t = i % N_TWIST;
+			for (int k = 0; k < COUPS.length; k++) {
+				int j = permMove[p][k] * N_TWIST + twistMove[t][k];
+				if (dist[j] == dist[i] - 1) {
+					// le coup joué sur le cube tourné correspond à son conjugué sur c
+					coups[n] = Symmetry.conjMove[inverse][COUPS[k]];
+					i = j;
+					break;
+				}
+			}
+		}
+		return coups;
+	}
+
+	/**
+	 * Plus grande distance de la table (11 pour le 2x2 en demi-tours)
+	 */
+	int profondeurMax() {
+		return profondeurMax;
+	}
+
+	/**
+	 * Nombre d’états atteints par le parcours
+	 */
+	int etatsAtteints() {
+		int n = 0;
+		for (byte d : dist)
+			if (d != NON_VU) n++;
+		return n;
+	}
+}
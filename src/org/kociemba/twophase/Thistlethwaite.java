@@ -0,0 +1,383 @@
+package org.kociemba.twophase;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+
+//++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+/**
+ * Class Thistlethwaite implements the four-phase algorithm of Morwen Thistlethwaite (1981), a low-memory
+ * alternative to {@link Search}. The cube is brought through the nested subgroups
+ *
+ * G0 = &lt;U,R,F,D,L,B&gt; &gt; G1 = &lt;U,R,F2,D,L,B2&gt; &gt; G2 = &lt;U,R2,F2,D,L2,B2&gt; &gt; G3 = &lt;U2,R2,F2,D2,L2,B2&gt; &gt; I
+ *
+ * Each phase has an exact distance table over the cosets of the next subgroup, so a phase is solved optimally by
+ * plain table descent, without any search. The tables need about 2.7 MB and are built in a fraction of a second.
+ * Solutions are about 30 moves on average and never longer than 45 (7 + 10 + 13 + 15).
+ *
+ * All tables are read-only after class initialization, so the solver may be used from several threads at once.
+ */
+public class Thistlethwaite {
+
+	// ++++++++++++++++++++++++++++++++ moves allowed in each phase +++++++++++++++++++++++++++++++++++++++++++++++++++
+	static final int[] MOVES1 = { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17 };
+	static final int[] MOVES2 = { 0, 1, 2, 3, 4, 5, 7, 9, 10, 11, 12, 13, 14, 16 };
+	static final int[] MOVES3 = { 0, 1, 2, 4, 7, 9, 10, 11, 13, 16 };
+	static final int[] MOVES4 = { 1, 4, 7, 10, 13, 16 };
+
+	// ++++++++++++++++++++++++++++++++ coordinate sizes ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	static final int N_FLIP = 2048;// 2^11 edge flips, phase 1
+	static final int N_TWIST = 2187;// 3^7 corner twists, phase 2
+	static final int N_SLICE = 495;// 12 choose 4 positions of the E-slice edges, phase 2
+	static final int N_COSET = 420;// cosets of the corner permutations modulo the 96 half turn permutations, phase 3
+	static final int N_COMBO = 70;// 8 choose 4 positions of the M-slice edges, phase 3
+	static final int N_HALF = 96;// corner permutations generated by half turns, phase 4
+	static final int N_PERM4 = 24;// 4! permutations of the edges inside one slice, phase 4
+
+	// the three slices as lists of edge positions; a solved edge sits at the position of the same ordinal
+	private static final int[][] SLICE_POS = { { 1, 3, 5, 7 }, { 0, 2, 4, 6 }, { 8, 9, 10, 11 } };
+
+	// +++++++++++++++++++++++++++++++++++++++ move tables ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	static final short[][] flipMove = new short[N_FLIP][MOVES1.length];
+	static final short[][] twistMove = new short[N_TWIST][MOVES2.length];
+	static final short[][] sliceMove = new short[N_SLICE][MOVES2.length];
+	static final short[][] cosetMove = new short[N_COSET][MOVES3.length];
+	static final byte[][] comboMove = new byte[N_COMBO][MOVES3.length];
+	static final byte[][] halfMove = new byte[N_HALF][MOVES4.length];
+	static final byte[][][] perm4Move = new byte[3][N_PERM4][MOVES4.length];
+
+	// ++++++++++++++++++++++++++++++ coordinate conversion tables ++++++++++++++++++++++++++++++++++++++++++++++++++++
+	static final short[] cornerCoset = new short[CoordCube.N_URFtoDLB];// corner permutation -> coset, phase 3
+	static final byte[] halfIndex = new byte[CoordCube.N_URFtoDLB];// corner permutation -> index in phase 4, or -1
+	static final byte[] comboRank = new byte[256];// bitmask of the M-slice edge positions -> combination
+	static final byte[] perm4Rank = new byte[256];// base 4 digits of a slice permutation -> permutation index
+	static final int[][] perm4 = new int[N_PERM4][];// permutation index -> slice permutation
+
+	// ++++++++++++++++++++++++++++++ distance tables +++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	static final byte[] dist1 = new byte[N_FLIP];
+	static final byte[] dist2 = new byte[N_TWIST * N_SLICE];
+	static final byte[] dist3 = new byte[N_COSET * N_COMBO];
+	static final byte[] dist4 = new byte[N_HALF * N_PERM4 * N_PERM4 * N_PERM4];
+
+	static {
+		CubieCube a = new CubieCube();
+
+		// +++++++++++++++++++++++++++++++++++++++++ phase 1 ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+		for (short i = 0; i < N_FLIP; i++)
+			for (int k = 0; k < MOVES1.length; k++) {
+				a.setFlip(i);
+				move(a, MOVES1[k]);
+				flipMove[i][k] = a.getFlip();
+			}
+		distances(dist1, MOVES1.length, (i, k) -> flipMove[i][k], 0);
+
+		// +++++++++++++++++++++++++++++++++++++++++ phase 2 ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+		for (short i = 0; i < N_TWIST; i++)
+			for (int k = 0; k < MOVES2.length; k++) {
+				a.setTwist(i);
+				move(a, MOVES2[k]);
+				twistMove[i][k] = a.getTwist();
+			}
+		for (short i = 0; i < N_SLICE; i++)
+			for (int k = 0; k < MOVES2.length; k++) {
+				a.setFRtoBR((short) (24 * i));
+				move(a, MOVES2[k]);
+				sliceMove[i][k] = (short) (a.getFRtoBR() / 24);
+			}
+		distances(dist2, MOVES2.length, Thistlethwaite::next2, 0);
+
+		// +++++++++++++++++++++++++++++++++++++++++ phase 3 ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+		// the 96 corner permutations of G3, generated by half turns from the identity
+		Arrays.fill(halfIndex, (byte) -1);
+		int[] half = new int[N_HALF];
+		int n = 0;
+		halfIndex[0] = 0;
+		half[n++] = 0;
+		for (int i = 0; i < n; i++)
+			for (int k = 0; k < MOVES4.length; k++) {
+				a.setURFtoDLB(half[i]);
+				move(a, MOVES4[k]);
+				int p = a.getURFtoDLB();
+				if (halfIndex[p] < 0) {
+					halfIndex[p] = (byte) n;
+					half[n++] = p;
+				}
+			}
+
+		// A solution w for the cube x only depends on the coset H*x of its corner permutation, since x*w lies in H if
+		// and only if h*x*w does for every h in H.
+		Arrays.fill(cornerCoset, (short) -1);
+		int[] representative = new int[N_COSET];
+		CubieCube b = new CubieCube();
+		n = 0;
+		for (int x = 0; x < CoordCube.N_URFtoDLB; x++) {
+			if (cornerCoset[x] >= 0)
+				continue;
+			representative[n] = x;
+			for (int h : half) {
+				a.setURFtoDLB(h);
+				b.setURFtoDLB(x);
+				a.cornerMultiply(b);
+				cornerCoset[a.getURFtoDLB()] = (short) n;
+			}
+			n++;
+		}
+		for (int i = 0; i < N_COSET; i++)
+			for (int k = 0; k < MOVES3.length; k++) {
+				a.setURFtoDLB(representative[i]);
+				move(a, MOVES3[k]);
+				cosetMove[i][k] = cornerCoset[a.getURFtoDLB()];
+			}
+
+		int[] comboMask = new int[N_COMBO];
+		n = 0;
+		for (int m = 0; m < 256; m++)
+			if (Integer.bitCount(m) == 4) {
+				comboRank[m] = (byte) n;
+				comboMask[n++] = m;
+			}
+		for (int i = 0; i < N_COMBO; i++)
+			for (int k = 0; k < MOVES3.length; k++) {
+				a = new CubieCube();
+				int m = 0, s = 0;
+				for (int j = 0; j < 8; j++)
+					a.ep[j] = Edge.values()[((comboMask[i] >> j) & 1) != 0 ? SLICE_POS[0][m++] : SLICE_POS[1][s++]];
+				move(a, MOVES3[k]);
+				comboMove[i][k] = comboRank[combo(a)];
+			}
+		distances(dist3, MOVES3.length, Thistlethwaite::next3, phase3(new CubieCube()));
+
+		// +++++++++++++++++++++++++++++++++++++++++ phase 4 ++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+		for (int i = 0; i < N_HALF; i++)
+			for (int k = 0; k < MOVES4.length; k++) {
+				a.setURFtoDLB(half[i]);
+				move(a, MOVES4[k]);
+				halfMove[i][k] = halfIndex[a.getURFtoDLB()];
+			}
+
+		n = 0;
+		for (int d = 0; d < 256; d++) {
+			int[] p = { d & 3, (d >> 2) & 3, (d >> 4) & 3, (d >> 6) & 3 };
+			if ((1 << p[0] | 1 << p[1] | 1 << p[2] | 1 << p[3]) == 15) {
+				perm4Rank[d] = (byte) n;
+				perm4[n++] = p;
+			}
+		}
+		for (int s = 0; s < 3; s++)
+			for (int i = 0; i < N_PERM4; i++)
+				for (int k = 0; k < MOVES4.length; k++) {
+					a = new CubieCube();
+					for (int j = 0; j < 4; j++)
+						a.ep[SLICE_POS[s][j]] = Edge.values()[SLICE_POS[s][perm4[i][j]]];
+					move(a, MOVES4[k]);
+					perm4Move[s][i][k] = (byte) slicePermutation(a, s);
+				}
+		distances(dist4, MOVES4.length, Thistlethwaite::next4, phase4(new CubieCube()));
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Apply the move 3*axis+power-1 of the 18 face turns to the cube
+	static void move(CubieCube c, int mv) {
+		for (int i = 0; i <= mv % 3; i++)
+			c.multiply(CubieCube.moveCube[mv / 3]);
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Breadth first search from the goal over a coordinate, following the transitions of the given moves
+	private static void distances(byte[] dist, int nMoves, IntBinaryOperator next, int goal) {
+		Arrays.fill(dist, (byte) -1);
+		int[] queue = new int[dist.length];
+		int head = 0, tail = 0;
+		dist[goal] = 0;
+		queue[tail++] = goal;
+		while (head < tail) {
+			int i = queue[head++];
+			for (int k = 0; k < nMoves; k++) {
+				int j = next.applyAsInt(i, k);
+				if (dist[j] < 0) {
+					dist[j] = (byte) (dist[i] + 1);
+					queue[tail++] = j;
+				}
+			}
+		}
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Coordinates of phases 2 to 4 and their transitions under the k-th move of the phase
+	static int phase2(CubieCube c) {
+		return c.getTwist() * N_SLICE + c.getFRtoBR() / 24;
+	}
+
+	static int next2(int i, int k) {
+		return twistMove[i / N_SLICE][k] * N_SLICE + sliceMove[i % N_SLICE][k];
+	}
+
+	static int phase3(CubieCube c) {
+		return cornerCoset[c.getURFtoDLB()] * N_COMBO + comboRank[combo(c)];
+	}
+
+	static int next3(int i, int k) {
+		return cosetMove[i / N_COMBO][k] * N_COMBO + comboMove[i % N_COMBO][k];
+	}
+
+	static int phase4(CubieCube c) {
+		int h = halfIndex[c.getURFtoDLB()];
+		return ((h * N_PERM4 + slicePermutation(c, 0)) * N_PERM4 + slicePermutation(c, 1)) * N_PERM4
+				+ slicePermutation(c, 2);
+	}
+
+	static int next4(int i, int k) {
+		int e = i % N_PERM4, s = i / N_PERM4 % N_PERM4, m = i / (N_PERM4 * N_PERM4) % N_PERM4;
+		int h = i / (N_PERM4 * N_PERM4 * N_PERM4);
+		return ((halfMove[h][k] * N_PERM4 + perm4Move[0][m][k]) * N_PERM4 + perm4Move[1][s][k]) * N_PERM4
+				+ perm4Move[2][e][k];
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Bitmask of the U and D layer positions holding an M-slice edge (UF, UB, DF, DB)
+	private static int combo(CubieCube c) {
+		int m = 0;
+		for (int j = 0; j < 8; j++)
+			if ((c.ep[j].ordinal() & 1) != 0)
+				m |= 1 << j;
+		return m;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Index of the permutation of the edges of slice s, for a cube whose edges all lie in their home slice
+	private static int slicePermutation(CubieCube c, int s) {
+		int d = 0;
+		for (int j = 3; j >= 0; j--) {
+			int e = c.ep[SLICE_POS[s][j]].ordinal();
+			int x = 0;
+			while (SLICE_POS[s][x] != e)
+				x++;
+			d = 4 * d + x;
+		}
+		return perm4Rank[d];
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Follow the distance table from coordinate i down to 0, writing the moves into out from position n.
+	// Returns the new number of moves in out.
+	private static int descend(byte[] dist, int i, int[] moves, IntBinaryOperator next, int[] out, int n) {
+		while (dist[i] > 0) {
+			for (int k = 0; k < moves.length; k++) {
+				int j = next.applyAsInt(i, k);
+				if (dist[j] == dist[i] - 1) {
+					out[n++] = moves[k];
+					i = j;
+					break;
+				}
+			}
+		}
+		return n;
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Solve a valid cube. Returns the moves 3*axis+power-1 and, in phaseEnd (if not null), the number of moves at the
+	// end of each phase. Consecutive turns of the same face at the phase boundaries are merged.
+	static int[] solve(CubieCube cc, int[] phaseEnd) {
+		CubieCube c = cc.copy();
+		int[] out = new int[45];
+		int[] ends = new int[4];
+		int n = 0;
+
+		n = descend(dist1, c.getFlip(), MOVES1, (i, k) -> flipMove[i][k], out, n);
+		ends[0] = n;
+		for (int i = 0; i < n; i++)
+			move(c, out[i]);
+
+		n = descend(dist2, phase2(c), MOVES2, Thistlethwaite::next2, out, n);
+		ends[1] = n;
+		for (int i = ends[0]; i < n; i++)
+			move(c, out[i]);
+
+		n = descend(dist3, phase3(c), MOVES3, Thistlethwaite::next3, out, n);
+		ends[2] = n;
+		for (int i = ends[1]; i < n; i++)
+			move(c, out[i]);
+
+		n = descend(dist4, phase4(c), MOVES4, Thistlethwaite::next4, out, n);
+		ends[3] = n;
+
+		// merge consecutive turns of the same face, which may only meet across a phase boundary
+		int[] merged = new int[n];
+		int m = 0, phase = 0;
+		for (int i = 0; i < n; i++) {
+			while (i == ends[phase])
+				ends[phase++] = m;
+			int mv = out[i];
+			if (m > 0 && merged[m - 1] / 3 == mv / 3) {
+				int power = (merged[m - 1] % 3 + mv % 3 + 2) % 4;
+				if (power == 0)
+					m--;
+				else
+					merged[m - 1] = 3 * (mv / 3) + power - 1;
+				for (int p = 0; p < phase; p++)
+					ends[p] = Math.min(ends[p], m);
+			} else
+				merged[m++] = mv;
+		}
+		while (phase < 4)
+			ends[phase++] = m;
+		if (phaseEnd != null)
+			System.arraycopy(ends, 0, phaseEnd, 0, 4);
+		return Arrays.copyOf(merged, m);
+	}
+
+	/**
+	 * Computes a Thistlethwaite solution for a given cube.
+	 *
+	 * @param facelets
+	 *          is the cube definition string, see {@link Facelet} for the format.
+	 *
+	 * @param useSeparator
+	 *          determines if a " . " separates the four phases of the solver string.
+	 *
+	 * @return The solution string or an error code, with the same codes as {@link Search#solution}:<br>
+	 *         Error 1: There is not exactly one facelet of each colour<br>
+	 *         Error 2: Not all 12 edges exist exactly once<br>
+	 *         Error 3: Flip error: One edge has to be flipped<br>
+	 *         Error 4: Not all corners exist exactly once<br>
+	 *         Error 5: Twist error: One corner has to be twisted<br>
+	 *         Error 6: Parity error: Two corners or two edges have to be exchanged
+	 */
+	public static String solution(String facelets, boolean useSeparator) {
+		int[] count = new int[6];
+		try {
+			for (int i = 0; i < 54; i++)
+				count[Color.valueOf(facelets.substring(i, i + 1)).ordinal()]++;
+		} catch (Exception e) {
+			return "Error 1";
+		}
+		for (int i = 0; i < 6; i++)
+			if (count[i] != 9)
+				return "Error 1";
+
+		CubieCube cc = new FaceCube(facelets).toCubieCube();
+		int s;
+		if ((s = cc.verify()) != 0)
+			return "Error " + Math.abs(s);
+
+		int[] phaseEnd = new int[4];
+		int[] moves = solve(cc, phaseEnd);
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0, phase = 0; i < moves.length; i++) {
+			sb.append("URFDLB".charAt(moves[i] / 3)).append(new String[] { " ", "2 ", "' " }[moves[i] % 3]);
+			while (phase < 3 && i == phaseEnd[phase] - 1) {
+				if (useSeparator)
+					sb.append(". ");
+				phase++;
+			}
+		}
+		return sb.toString();
+	}
+
+	// ++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++
+	// Memory used by the move, conversion and distance tables, in bytes
+	static long tableBytes() {
+		return 2L * (N_FLIP * MOVES1.length + (N_TWIST + N_SLICE) * MOVES2.length + N_COSET * MOVES3.length)
+				+ (long) N_COMBO * MOVES3.length + (long) (N_HALF + 3 * N_PERM4) * MOVES4.length
+				+ 3L * CoordCube.N_URFtoDLB + 512 + dist1.length + dist2.length + dist3.length + dist4.length;
+	}
+}
@@ -50,8 +50,16 @@ public class Tools {
 	 * @return A random cube in the string representation. Each cube of the cube space has the same probability.
 	 */
 	public static String randomCube() {
+		return randomCube(new Random());
+	}
+
+	/**
+	 * Generates a random cube from the given generator, so that a seeded generator gives a reproducible sequence.
+	 * @param gen is the random number generator to draw from.
+	 * @return A random cube in the string representation. Each cube of the cube space has the same probability.
+	 */
+	public static String randomCube(Random gen) {
 		CubieCube cc = new CubieCube();
-		Random gen = new Random();
 		cc.setFlip((short) gen.nextInt(CoordCube.N_FLIP));
 		cc.setTwist((short) gen.nextInt(CoordCube.N_TWIST));
 		do {
@@ -61,4 +69,48 @@ public class Tools {
 		FaceCube fc = cc.toFaceCube();
 		return fc.to_String();
 	}
+
+	/**
+	 * Resets c to the solved cube, then applies length random moves, never turning the same face twice in a row.
+	 * @param gen is the random number generator to draw the moves from.
+	 */
+	static void randomScramble(CubieCube c, int length, Random gen) {
+		c.set(new CubieCube());
+		int last = -1;
+		for (int i = 0; i < length; i++) {
+			int mv;
+			do {
+				mv = gen.nextInt(RubikIA.NB_MOVES);
+			} while (last != -1 && RubikIA.MOVE_FACE[mv] == RubikIA.MOVE_FACE[last]);
+			RubikIA.applyMove18(c, mv);
+			last = mv;
+		}
+	}
+
+	/**
+	 * Draws a corpus of n cubes from the given generator, so that a seeded generator gives the same corpus on every
+	 * run: uniformly random cubes (see randomCube) if scrambleLength is negative, otherwise random-move scrambles of
+	 * that length (see randomScramble).
+	 */
+	static CubieCube[] randomCubes(int n, int scrambleLength, Random gen) {
+		CubieCube[] cubes = new CubieCube[n];
+		for (int i = 0; i < n; i++) {
+			if (scrambleLength < 0) {
+				cubes[i] = new FaceCube(randomCube(gen)).toCubieCube();
+			} else {
+				cubes[i] = new CubieCube();
+				randomScramble(cubes[i], scrambleLength, gen);
+			}
+		}
+		return cubes;
+	}
+
+	/**
+	 * Reports the estimated heap footprint of the lookup tables of the Two-Phase-Algorithm.
+	 * The table profile is chosen with the system property kociemba.tables ("full" or "compact").
+	 * @return One line per table with its size in bytes for each profile, the totals and the active profile.
+	 */
+	public static String tableFootprint() {
+		return CoordCube.footprint();
+	}
 }